@@ -0,0 +1,107 @@
+package com.example.ql_shopcoffee.benchmarks;
+
+import com.example.ql_shopcoffee.dao.impl.ProductDAO;
+import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.utils.DatabaseConfig;
+import com.example.ql_shopcoffee.utils.DatabaseConnection;
+import com.example.ql_shopcoffee.utils.DataGenerator;
+import com.example.ql_shopcoffee.utils.DatabaseInitializer;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Fixture cf.db dùng chung cho các benchmark
+ * - Kích thước chọn bằng -p orders=10000 / 1000000 / 10000000
+ * - File được sinh một lần (seed cố định) vào cf.bench.dir rồi dùng lại giữa các lần chạy
+ * - Orders sinh bằng DataGenerator trong DAYS ngày kết thúc ở LAST_DAY để kết quả báo cáo không đổi theo ngày chạy
+ */
+@State(Scope.Benchmark)
+public class BenchmarkDatabase {
+
+    public static final LocalDate LAST_DAY = LocalDate.of(2025, 12, 31);
+    public static final int DAYS = 730;
+    public static final LocalDate FIRST_DAY = LAST_DAY.minusDays(DAYS - 1);
+
+    private static final int PRODUCTS = 200;
+    private static final int[] EMPLOYEE_IDS = {1, 2, 3};
+
+    @Param({"10000"})
+    public int orders;
+
+    private List<Product> products;
+
+    @Setup(Level.Trial)
+    public void open() throws IOException {
+        Path dir = Path.of(System.getProperty("cf.bench.dir", "target/bench-db"));
+        long seed = Long.getLong("cf.bench.seed", 42);
+        Path file = dir.resolve("cf-" + orders + "-" + seed + ".db");
+
+        if (Files.exists(file)) {
+            connect(file);
+        } else {
+            generate(file, seed);
+        }
+        products = new ProductDAO().findAll();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        DatabaseConnection.getInstance().closeConnection();
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    public int employeeId(int i) {
+        return EMPLOYEE_IDS[Math.floorMod(i, EMPLOYEE_IDS.length)];
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static void connect(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        DatabaseConfig config = DatabaseConfig.fromSystemProperties();
+        config.setDbURL("jdbc:sqlite:" + file);
+        DatabaseConnection.initialize(config);
+    }
+
+    /**
+     * Sinh fixture trong file tạm rồi đổi tên, lần chạy bị ngắt giữa chừng không để lại fixture dở
+     */
+    private void generate(Path file, long seed) throws IOException {
+        Path partial = file.resolveSibling(file.getFileName() + ".partial");
+        deleteDatabase(partial);
+        connect(partial);
+
+        System.out.println("Sinh fixture " + file + " (" + orders + " orders, seed " + seed + ")...");
+        new DatabaseInitializer().initialize();
+        DataGenerator generator = new DataGenerator();
+        generator.setSeed(seed);
+        generator.setProductCount(PRODUCTS);
+        if (generator.generate(FIRST_DAY, LAST_DAY, orders) < 0) {
+            throw new IllegalStateException("Không sinh được fixture " + file);
+        }
+
+        DatabaseConnection.getInstance().closeConnection();
+        Files.move(partial, file);
+        deleteDatabase(partial);
+        connect(file);
+    }
+
+    private static void deleteDatabase(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-wal"));
+        Files.deleteIfExists(file.resolveSibling(file.getFileName() + "-shm"));
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.ql_shopcoffee.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Điểm vào của benchmarks.jar, nhận tham số JMH bình thường (VD: "Checkout -p orders=1000000 -p lines=10")
+ * - Luôn bật -prof gc (tốc độ cấp phát) nếu không chỉ định profiler khác
+ * - Chuyển các system property cf.* (cf.bench.dir, cf.db.*...) sang JVM được fork
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams()
+                || cli.shouldListProfilers() || cli.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+        if (cli.getProfilers().isEmpty()) {
+            options.addProfiler(GCProfiler.class);
+        }
+
+        List<String> jvmArgs = new ArrayList<>(cli.getJvmArgsAppend().orElse(List.of()));
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith("cf.")) {
+                jvmArgs.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        options.jvmArgsAppend(jvmArgs.toArray(new String[0]));
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ql_shopcoffee.benchmarks;
+
+import com.example.ql_shopcoffee.dao.impl.CategoryDAO;
+import com.example.ql_shopcoffee.dao.impl.ProductDAO;
+import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.services.ProductCatalogCache;
+import com.example.ql_shopcoffee.services.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tra cứu danh mục: ProductDAO.findById (database) so với cache, tìm kiếm theo tên và FTS5
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogBenchmark {
+
+    // Mô phỏng từng phím gõ ở quầy, có dấu và không dấu
+    private static final String[] KEYWORDS = {"c", "ca", "ca phe", "cà phê sữa", "tra", "trà đào", "sinh to", "bánh", "món thử 1"};
+
+    private ProductDAO productDAO;
+    private ProductCatalogCache catalog;
+    private ProductService productService;
+    private int[] productIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        productDAO = new ProductDAO();
+        catalog = new ProductCatalogCache(productDAO, new CategoryDAO(), 0);
+        catalog.awaitRefresh();
+        productService = new ProductService(productDAO, new CategoryDAO(), catalog);
+        List<Product> products = database.getProducts();
+        productIds = products.stream().mapToInt(Product::getId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        catalog.close();
+    }
+
+    @Benchmark
+    public Product productDaoFindById() {
+        return productDAO.findById(nextProductId());
+    }
+
+    @Benchmark
+    public Product catalogGetById() {
+        return catalog.getById(nextProductId());
+    }
+
+    @Benchmark
+    public List<Product> searchProducts() {
+        return productService.searchProducts(nextKeyword(), 20);
+    }
+
+    @Benchmark
+    public List<Product> searchProductsFullText() {
+        return productService.searchProductsFullText(nextKeyword(), 0, 20);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private int nextProductId() {
+        return productIds[Math.floorMod(next++, productIds.length)];
+    }
+
+    private String nextKeyword() {
+        return KEYWORDS[Math.floorMod(next++, KEYWORDS.length)];
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.ql_shopcoffee.benchmarks;
+
+import com.example.ql_shopcoffee.dao.impl.CategoryDAO;
+import com.example.ql_shopcoffee.dao.impl.OrderDAO;
+import com.example.ql_shopcoffee.dao.impl.ProductDAO;
+import com.example.ql_shopcoffee.dao.impl.UserDAO;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderDetail;
+import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.services.OrderService;
+import com.example.ql_shopcoffee.services.ProductCatalogCache;
+import com.example.ql_shopcoffee.services.SessionManager;
+import com.example.ql_shopcoffee.utils.DatabaseConnection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ghi một order 1 / 10 / 50 dòng: OrderDAO.insert và OrderService.checkout (ghi thẳng, không qua hàng đợi)
+ * Orders sinh ra trong lúc đo được xóa khi kết thúc để fixture không lớn dần giữa các lần chạy
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int lines;
+
+    private OrderDAO orderDAO;
+    private ProductCatalogCache catalog;
+    private OrderService orderService;
+    private List<Product> products;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        orderDAO = new OrderDAO();
+        // Constructor testing: checkout ghi thẳng bằng orderDAO.insert
+        ProductDAO productDAO = new ProductDAO();
+        catalog = new ProductCatalogCache(productDAO, new CategoryDAO(), 0);
+        orderService = new OrderService(orderDAO, productDAO, catalog);
+        SessionManager.getInstance().login(new UserDAO().findByUsername("nhanvien1"));
+        products = database.getProducts();
+    }
+
+    // Nhận BenchmarkDatabase để JMH dọn trước khi đóng database
+    // Fixture có đúng database.orders orders (id 1..orders), xóa cả phần còn sót của lần chạy bị ngắt
+    @TearDown(Level.Trial)
+    public void tearDown(BenchmarkDatabase database) {
+        catalog.close();
+        try (Connection conn = DatabaseConnection.getInstance().getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM orders WHERE id > " + database.orders);
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi dọn orders benchmark: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    @Benchmark
+    public boolean orderDaoInsert(BenchmarkDatabase database) {
+        return orderDAO.insert(newOrder(database));
+    }
+
+    @Benchmark
+    public boolean serviceCheckout(BenchmarkDatabase database) {
+        return orderService.checkout(newOrder(database), null);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Order newOrder(BenchmarkDatabase database) {
+        int start = next++;
+        Order order = new Order(database.employeeId(start));
+        for (int i = 0; i < lines; i++) {
+            Product product = products.get(Math.floorMod(start + i, products.size()));
+            order.addItem(new OrderDetail(product.getId(), product.getName(), 1 + i % 3, product.getPrice()));
+        }
+        order.complete();
+        return order;
+    }
+}
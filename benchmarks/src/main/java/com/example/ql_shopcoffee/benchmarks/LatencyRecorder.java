@@ -0,0 +1,43 @@
+package com.example.ql_shopcoffee.benchmarks;
+
+import java.util.Arrays;
+
+/**
+ * Ghi lại độ trễ (nano giây) từ nhiều luồng, tính percentile khi kết thúc
+ * Lưu từng mẫu (vài trăm nghìn mẫu / lần chạy) nên percentile chính xác, không xấp xỉ theo bucket
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+
+    public synchronized void record(long nanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = nanos;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * Percentile (0-100) tính bằng mili giây, 0 nếu chưa có mẫu
+     */
+    public synchronized double percentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n = %d, p50 = %.2f ms, p90 = %.2f ms, p99 = %.2f ms, max = %.2f ms",
+                getCount(), percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100));
+    }
+}
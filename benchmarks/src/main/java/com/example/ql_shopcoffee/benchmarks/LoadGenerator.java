@@ -0,0 +1,392 @@
+package com.example.ql_shopcoffee.benchmarks;
+
+import com.example.ql_shopcoffee.benchmarks.TrafficLog.OrderPlan;
+import com.example.ql_shopcoffee.dao.impl.OrderDAO;
+import com.example.ql_shopcoffee.dao.impl.ProductDAO;
+import com.example.ql_shopcoffee.dao.impl.UserDAO;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.models.User;
+import com.example.ql_shopcoffee.services.CheckoutQueue;
+import com.example.ql_shopcoffee.services.GroupCommitCoordinator;
+import com.example.ql_shopcoffee.services.OrderService;
+import com.example.ql_shopcoffee.services.ProductCatalogCache;
+import com.example.ql_shopcoffee.services.ProductService;
+import com.example.ql_shopcoffee.services.SessionManager;
+import com.example.ql_shopcoffee.utils.DatabaseConfig;
+import com.example.ql_shopcoffee.utils.DatabaseConnection;
+import com.example.ql_shopcoffee.utils.DatabaseInitializer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Giả lập giờ cao điểm không cần giao diện: N quầy thu ngân tạo order qua OrderService
+ * (createNewOrder / addProductToOrder / checkout) trong khi một luồng Manager liên tục xem thống kê
+ *
+ * Lệnh (tham số dạng key=value):
+ *   run     terminals=8 duration=60 think=2000 seed=42 pollMs=5000 mode=queue|group|direct db=cf-load.db
+ *   record  day=2025-12-31 out=traffic.log db=cf.db      (ghi lại lưu lượng một ngày từ database)
+ *   replay  in=traffic.log speed=10 terminals=8 mode=... db=cf-load.db
+ *   verbose=true để hiện log của ứng dụng (mặc định ẩn, chỉ đếm lỗi)
+ *
+ * Báo cáo orders/giây, p50 / p99 độ trễ checkout và thống kê, số lỗi SQLITE_BUSY (database is locked)
+ * mode=queue đo thời gian ghi vào hàng đợi checkout (cách ứng dụng chạy mặc định), thời gian ghi hết
+ * hàng đợi vào database được báo riêng; group / direct đo đến khi transaction commit xong
+ */
+public class LoadGenerator {
+
+    private final OrderService orderService;
+    private final List<Product> products;
+    private final ErrorCounter errors;
+
+    private final LatencyRecorder checkoutLatency = new LatencyRecorder();
+    private final LatencyRecorder statsLatency = new LatencyRecorder();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong skippedItems = new AtomicLong();
+    private volatile boolean running = true;
+
+    public LoadGenerator(OrderService orderService, List<Product> products, ErrorCounter errors) {
+        this.orderService = orderService;
+        this.products = products;
+        this.errors = errors;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 && !args[0].contains("=") ? args[0] : "run";
+        Map<String, String> options = parseOptions(args);
+        Path db = Path.of(options.getOrDefault("db", "record".equals(command) ? "cf.db" : "cf-load.db"));
+
+        switch (command) {
+            case "record" -> {
+                LocalDate day = LocalDate.parse(required(options, "day"));
+                Path out = Path.of(options.getOrDefault("out", "traffic-" + day + ".log"));
+                connect(db, false);
+                int written = TrafficLog.record(new OrderDAO(), day, out);
+                DatabaseConnection.getInstance().closeConnection();
+                System.out.println("Đã ghi " + written + " orders của ngày " + day + " vào " + out);
+            }
+            case "run", "replay" -> runLoad(command, db, options);
+            default -> {
+                System.err.println("Lệnh không hợp lệ: " + command + " (run | record | replay)");
+                System.exit(2);
+            }
+        }
+        System.exit(0);
+    }
+
+    // ========== CHẠY TẢI ==========
+
+    private static void runLoad(String command, Path db, Map<String, String> options) throws Exception {
+        int terminals = Integer.parseInt(options.getOrDefault("terminals", "8"));
+        long pollMillis = Long.parseLong(options.getOrDefault("pollMs", "5000"));
+        String mode = options.getOrDefault("mode", "queue");
+        boolean verbose = Boolean.parseBoolean(options.getOrDefault("verbose", "false"));
+
+        // Nạp traffic trước khi ẩn log
+        List<OrderPlan> traffic = "replay".equals(command) ? TrafficLog.read(Path.of(required(options, "in"))) : null;
+
+        PrintStream report = System.out;
+        ErrorCounter errors = new ErrorCounter(verbose ? System.err : null);
+        if (!verbose) {
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        }
+        System.setErr(new PrintStream(errors, true, StandardCharsets.UTF_8));
+
+        if (System.getProperty("cf.checkout.queueFile") == null) {
+            System.setProperty("cf.checkout.queueFile", db + ".queue");
+        }
+        connect(db, true);
+
+        User manager = new UserDAO().findByUsername(options.getOrDefault("user", "admin"));
+        if (manager == null || !"MANAGER".equals(manager.getRole())) {
+            report.println("Cần tài khoản MANAGER (user=...) để vừa bán hàng vừa xem thống kê");
+            System.exit(2);
+        }
+        SessionManager.getInstance().login(manager);
+
+        LoadGenerator generator = new LoadGenerator(newOrderService(mode), new ProductService().getAllProducts(), errors);
+        report.printf("%s: %d quầy, mode = %s, database = %s%n", command, terminals, mode, db);
+
+        Thread poller = new Thread(() -> generator.pollStatistics(pollMillis), "manager-stats");
+        poller.setDaemon(true);
+        poller.start();
+
+        long start = System.nanoTime();
+        if (traffic == null) {
+            long durationMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(options.getOrDefault("duration", "60")));
+            long thinkMillis = Long.parseLong(options.getOrDefault("think", "2000"));
+            long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+            generator.simulate(terminals, durationMillis, thinkMillis, seed);
+        } else {
+            double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+            generator.replay(traffic, terminals, speed);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        generator.running = false;
+        poller.interrupt();
+        poller.join();
+
+        double drainSeconds = 0;
+        if ("queue".equals(mode)) {
+            long drainStart = System.nanoTime();
+            CheckoutQueue.getInstance().awaitDrained(TimeUnit.MINUTES.toMillis(5));
+            drainSeconds = (System.nanoTime() - drainStart) / 1e9;
+        }
+        CheckoutQueue.shutdown();
+        GroupCommitCoordinator.shutdown();
+        ProductCatalogCache.shutdown();
+        DatabaseConnection.getInstance().closeConnection();
+
+        generator.printReport(report, elapsed, drainSeconds, "queue".equals(mode));
+    }
+
+    /**
+     * Mỗi quầy: nghĩ (phân phối mũ, trung bình thinkMillis) rồi bán một order, lặp đến hết thời gian
+     */
+    public void simulate(int terminals, long durationMillis, long thinkMillis, long seed) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < terminals; t++) {
+            Random random = new Random(seed + t);
+            threads.add(startTerminal(t, () -> {
+                while (System.nanoTime() < deadline) {
+                    long think = (long) (-thinkMillis * Math.log(1 - random.nextDouble()));
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (!sleep(Math.min(think, remaining)) || System.nanoTime() >= deadline) {
+                        return;
+                    }
+                    placeOrder(randomPlan(random));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    /**
+     * Phát lại traffic đã ghi nhanh hơn speed lần, order được chia cho quầy nào đang rảnh
+     * Quầy không theo kịp thì order dồn lại trong hàng chờ (thấy rõ ở độ trễ và orders/giây)
+     * Orders được ghi dưới tài khoản đang đăng nhập, employee_id trong file chỉ để tham khảo
+     */
+    public void replay(List<OrderPlan> traffic, int terminals, double speed) throws InterruptedException {
+        BlockingQueue<OrderPlan> queue = new LinkedBlockingQueue<>();
+        OrderPlan end = new OrderPlan(-1, 0, new int[0], new int[0]);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < terminals; t++) {
+            threads.add(startTerminal(t, () -> {
+                try {
+                    OrderPlan plan;
+                    while ((plan = queue.take()) != end) {
+                        placeOrder(plan);
+                    }
+                    queue.put(end);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+
+        long firstOffset = traffic.isEmpty() ? 0 : traffic.get(0).offsetMillis();
+        long start = System.nanoTime();
+        for (OrderPlan plan : traffic) {
+            long due = start + (long) ((plan.offsetMillis() - firstOffset) * 1_000_000 / speed);
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            queue.put(plan);
+        }
+        queue.put(end);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Thread startTerminal(int index, Runnable body) {
+        Thread thread = new Thread(body, "terminal-" + (index + 1));
+        thread.start();
+        return thread;
+    }
+
+    private void placeOrder(OrderPlan plan) {
+        Order order = orderService.createNewOrder();
+        if (order == null) {
+            failed.incrementAndGet();
+            return;
+        }
+        for (int i = 0; i < plan.productIds().length; i++) {
+            if (!orderService.addProductToOrder(order, plan.productIds()[i], plan.quantities()[i])) {
+                skippedItems.incrementAndGet();
+            }
+        }
+        if (order.getOrderDetails().isEmpty()) {
+            failed.incrementAndGet();
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean ok = orderService.checkout(order, null);
+        checkoutLatency.record(System.nanoTime() - start);
+        (ok ? completed : failed).incrementAndGet();
+    }
+
+    /**
+     * Order ngẫu nhiên: vài món bán chạy chiếm phần lớn, đa số order 1-2 món, số lượng thường là 1
+     */
+    private OrderPlan randomPlan(Random random) {
+        double r = random.nextDouble();
+        int lines = r < 0.4 ? 1 : r < 0.75 ? 2 : r < 0.9 ? 3 : 4;
+        int[] productIds = new int[lines];
+        int[] quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            productIds[i] = products.get((int) (products.size() * Math.pow(random.nextDouble(), 2.5))).getId();
+            quantities[i] = random.nextInt(10) < 8 ? 1 : 2 + random.nextInt(2);
+        }
+        return new OrderPlan(0, 0, productIds, quantities);
+    }
+
+    /**
+     * Màn hình thống kê của Manager: làm mới định kỳ trong suốt lúc bán hàng
+     */
+    private void pollStatistics(long pollMillis) {
+        while (running) {
+            LocalDate today = LocalDate.now();
+            long start = System.nanoTime();
+            orderService.getTodayOrderCount();
+            orderService.getTodayRevenue();
+            orderService.getTopSellingProducts(today, today, 10);
+            orderService.getDailySales(today.minusDays(29), today);
+            statsLatency.record(System.nanoTime() - start);
+            sleep(pollMillis);
+        }
+    }
+
+    private void printReport(PrintStream out, double elapsedSeconds, double drainSeconds, boolean queued) {
+        out.println("========================================");
+        out.printf("Orders: %d thành công, %d thất bại trong %.1f s -> %.1f orders/s%n",
+                completed.get(), failed.get(), elapsedSeconds, completed.get() / elapsedSeconds);
+        if (queued) {
+            out.printf("Ghi hết hàng đợi checkout vào database sau thêm %.2f s%n", drainSeconds);
+        }
+        out.println("Checkout: " + checkoutLatency);
+        out.println("Thống kê (4 truy vấn / lần): " + statsLatency);
+        out.printf("SQLITE_BUSY: %d, dòng lỗi khác: %d, món bị bỏ qua: %d%n",
+                errors.getBusyCount(), errors.getErrorLines() - errors.getBusyCount(), skippedItems.get());
+        out.println("========================================");
+    }
+
+    private static OrderService newOrderService(String mode) {
+        return switch (mode) {
+            case "queue" -> {
+                System.setProperty("cf.checkout.async", "true");
+                yield new OrderService();
+            }
+            case "group" -> {
+                System.setProperty("cf.checkout.async", "false");
+                yield new OrderService();
+            }
+            // Constructor testing: mỗi checkout một transaction riêng
+            case "direct" -> new OrderService(new OrderDAO(), new ProductDAO(), ProductCatalogCache.getInstance());
+            default -> throw new IllegalArgumentException("mode phải là queue, group hoặc direct: " + mode);
+        };
+    }
+
+    private static void connect(Path db, boolean initialize) {
+        DatabaseConfig config = DatabaseConfig.fromSystemProperties();
+        config.setDbURL("jdbc:sqlite:" + db);
+        DatabaseConnection.initialize(config);
+        if (initialize) {
+            new DatabaseInitializer().initialize();
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(Math.max(0, millis));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String key) {
+        String value = options.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Thiếu tham số " + key + "=...");
+        }
+        return value;
+    }
+
+    /**
+     * Thay System.err trong lúc chạy tải: đếm dòng lỗi của DAO / service (chúng chỉ in ra System.err)
+     * và số lần database bị khóa, chỉ in ra nếu verbose
+     */
+    static class ErrorCounter extends OutputStream {
+
+        private static final Pattern EXCEPTION_HEADER = Pattern.compile("[\\w.$]+(Exception|Error)(:|$)");
+
+        private final PrintStream forward;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private long errorLines;
+        private long busyCount;
+
+        ErrorCounter(PrintStream forward) {
+            this.forward = forward;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            if (forward != null) {
+                forward.write(b);
+            }
+            if (b == '\n') {
+                String text = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+                // Stack trace (tên exception, dòng bắt đầu bằng tab) thuộc về dòng lỗi phía trên
+                if (!text.isBlank() && !text.startsWith("\t") && !text.startsWith("Caused by")
+                        && !EXCEPTION_HEADER.matcher(text).lookingAt()) {
+                    errorLines++;
+                    if (text.contains("SQLITE_BUSY") || text.contains("database is locked")) {
+                        busyCount++;
+                    }
+                }
+            } else {
+                line.write(b);
+            }
+        }
+
+        public synchronized long getErrorLines() { return errorLines; }
+        public synchronized long getBusyCount() { return busyCount; }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ql_shopcoffee.benchmarks;
+
+import com.example.ql_shopcoffee.dao.impl.OrderDAO;
+import com.example.ql_shopcoffee.models.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thống kê theo khoảng ngày của màn hình báo cáo Manager
+ * Khoảng ngày tính lùi từ BenchmarkDatabase.LAST_DAY (ngày cuối của fixture)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportBenchmark {
+
+    private static final LocalDate LAST_DAY = BenchmarkDatabase.LAST_DAY;
+
+    private OrderDAO orderDAO;
+
+    @Setup(Level.Trial)
+    public void setUp(BenchmarkDatabase database) {
+        orderDAO = new OrderDAO();
+    }
+
+    @Benchmark
+    public List<Object[]> topSellingAllTime() {
+        return orderDAO.getTopSellingProducts(10);
+    }
+
+    @Benchmark
+    public List<Object[]> topSellingLast30Days() {
+        return orderDAO.getTopSellingProducts(LAST_DAY.minusDays(29), LAST_DAY, 10);
+    }
+
+    @Benchmark
+    public long revenueLastMonth() {
+        return orderDAO.getRevenueByDateRange(LAST_DAY.withDayOfMonth(1).atStartOfDay(), endOf(LAST_DAY));
+    }
+
+    @Benchmark
+    public long revenueLastYear() {
+        return orderDAO.getRevenueByDateRange(LAST_DAY.withDayOfYear(1).atStartOfDay(), endOf(LAST_DAY));
+    }
+
+    @Benchmark
+    public List<Object[]> dailySalesLastYear() {
+        return orderDAO.getDailySales(LAST_DAY.minusDays(364), LAST_DAY);
+    }
+
+    @Benchmark
+    public List<Order> ordersOfLastDay() {
+        return orderDAO.findByDateRange(LAST_DAY.atStartOfDay(), endOf(LAST_DAY), false);
+    }
+
+    private static LocalDateTime endOf(LocalDate day) {
+        return day.plusDays(1).atStartOfDay().minusNanos(1);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.ql_shopcoffee.benchmarks;
+
+import com.example.ql_shopcoffee.dao.interfaces.IOrderDAO;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderDetail;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Lưu lượng checkout của một ngày, dùng để phát lại với tốc độ 1x - 100x
+ * Mỗi dòng một order: millis tính từ 00:00,employee_id,product_id:số lượng product_id:số lượng...
+ * Ghi lại từ orders COMPLETED có sẵn trong cf.db (bản sao database của cửa hàng) nên không cần sửa ứng dụng
+ */
+public class TrafficLog {
+
+    /**
+     * Một order cần phát lại: thời điểm (millis từ đầu ngày), nhân viên và các dòng món
+     */
+    public record OrderPlan(long offsetMillis, int employeeId, int[] productIds, int[] quantities) {}
+
+    /**
+     * Ghi lưu lượng ngày day từ database ra file
+     * @return số orders đã ghi
+     */
+    public static int record(IOrderDAO orderDAO, LocalDate day, Path file) throws IOException {
+        LocalDateTime start = day.atStartOfDay();
+        List<Order> orders = new ArrayList<>(orderDAO.findByDateRange(start, start.plusDays(1).minusNanos(1), true));
+        orders.sort(Comparator.comparing(Order::getOrderDate));
+
+        int written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("# day=" + day + ", format: offset_millis,employee_id,product_id:quantity ...");
+            writer.newLine();
+            for (Order order : orders) {
+                if (!"COMPLETED".equals(order.getStatus()) || order.getOrderDetails().isEmpty()) {
+                    continue;
+                }
+                StringBuilder line = new StringBuilder(64);
+                line.append(ChronoUnit.MILLIS.between(start, order.getOrderDate()))
+                        .append(',').append(order.getEmployeeId()).append(',');
+                for (OrderDetail detail : order.getOrderDetails()) {
+                    if (line.charAt(line.length() - 1) != ',') {
+                        line.append(' ');
+                    }
+                    line.append(detail.getProductId()).append(':').append(detail.getQuantity());
+                }
+                writer.write(line.toString());
+                writer.newLine();
+                written++;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Đọc file đã ghi, orders theo thứ tự thời gian
+     */
+    public static List<OrderPlan> read(Path file) throws IOException {
+        List<OrderPlan> plans = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    plans.add(parse(line));
+                } catch (RuntimeException e) {
+                    throw new IOException("Dòng " + lineNo + " không hợp lệ: " + line, e);
+                }
+            }
+        }
+        plans.sort(Comparator.comparingLong(OrderPlan::offsetMillis));
+        return plans;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static OrderPlan parse(String line) {
+        String[] fields = line.split(",", 3);
+        String[] items = fields[2].trim().split(" +");
+        int[] productIds = new int[items.length];
+        int[] quantities = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            int colon = items[i].indexOf(':');
+            productIds[i] = Integer.parseInt(items[i].substring(0, colon));
+            quantities[i] = Integer.parseInt(items[i].substring(colon + 1));
+        }
+        return new OrderPlan(Long.parseLong(fields[0].trim()), Integer.parseInt(fields[1].trim()), productIds, quantities);
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.ql_shopcoffee;
 
+import com.example.ql_shopcoffee.services.CheckoutQueue;
+import com.example.ql_shopcoffee.services.GroupCommitCoordinator;
+import com.example.ql_shopcoffee.services.ProductCatalogCache;
+import com.example.ql_shopcoffee.utils.BackgroundTasks;
 import com.example.ql_shopcoffee.utils.DatabaseConnection;
 import com.example.ql_shopcoffee.utils.DatabaseInitializer;
+import com.example.ql_shopcoffee.utils.ProfilingEvents;
+import com.example.ql_shopcoffee.utils.QueryMetrics;
 import com.example.ql_shopcoffee.utils.SceneManager;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -10,18 +16,30 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class App extends Application {
+    /**
+     * Chạy trên luồng launcher trước start(): việc chạm database và file không nằm trên FX thread
+     */
     @Override
-    public void start(Stage primaryStage) {
-        try {
-            System.out.println("========================================");
-            System.out.println("Coffee Shop Management System");
-            System.out.println("========================================");
+    public void init() {
+        System.out.println("========================================");
+        System.out.println("Coffee Shop Management System");
+        System.out.println("========================================");
+
+        // JFR recording trong ứng dụng (chỉ khi chạy với -Dcf.jfr=true)
+        ProfilingEvents.startRecording();
 
-            // 1. Khởi tạo database
-            System.out.println("\n[1/3] Initializing database...");
-            DatabaseInitializer initializer = new DatabaseInitializer();
-            initializer.initialize();
+        // 1. Khởi tạo database
+        System.out.println("\n[1/3] Initializing database...");
+        DatabaseInitializer initializer = new DatabaseInitializer();
+        initializer.initialize();
+
+        // Mở hàng đợi checkout (ghi lại các hóa đơn còn lại từ lần chạy trước) trước khi controller tạo OrderService
+        CheckoutQueue.getInstance();
+    }
 
+    @Override
+    public void start(Stage primaryStage) {
+        try {
             // 2. Set primary stage cho SceneManager
             System.out.println("[2/3] Setting up Scene Manager...");
             SceneManager sceneManager = SceneManager.getInstance();
@@ -59,9 +77,24 @@ public class App extends Application {
         System.out.println("\n========================================");
         System.out.println("Shutting down application...");
 
+        // Dừng nhận công việc nền mới từ controllers
+        BackgroundTasks.shutdown();
+
+        // Ghi nốt hàng đợi checkout trước khi đóng database
+        CheckoutQueue.shutdown();
+        GroupCommitCoordinator.shutdown();
+        ProductCatalogCache.shutdown();
+
+        // Tóm tắt các câu SQL tốn thời gian nhất trong phiên
+        if (QueryMetrics.getInstance().isEnabled()) {
+            System.out.print(QueryMetrics.getInstance().summary(10));
+        }
+
         // Đóng database connection
         DatabaseConnection.getInstance().closeConnection();
 
+        ProfilingEvents.stopRecording();
+
         System.out.println("✓ Application stopped successfully!");
         System.out.println("========================================");
     }
@@ -1,7 +1,7 @@
 package com.example.ql_shopcoffee.controllers;
 
 import com.example.ql_shopcoffee.models.User;
-import com.example.ql_shopcoffee.services.AuthService;
+import com.example.ql_shopcoffee.services.AsyncServices;
 import com.example.ql_shopcoffee.utils.AlertUtil;
 import com.example.ql_shopcoffee.utils.SceneManager;
 import com.example.ql_shopcoffee.utils.ValidationUtil;
@@ -23,11 +23,11 @@ public class LoginController {
     @FXML private TextField usernameField;
     @FXML private PasswordField passwordField;
 
-    private final AuthService authService;
+    private final AsyncServices services;
     private final SceneManager sceneManager;
 
     public LoginController() {
-        this.authService = new AuthService();
+        this.services = new AsyncServices();
         this.sceneManager = SceneManager.getInstance();
     }
 
@@ -75,25 +75,29 @@ public class LoginController {
         // Disable button để tránh spam click
         loginButton.setDisable(true);
 
-        // Thực hiện đăng nhập
-        User user = authService.login(username, password);
-
-        if (user != null) {
-            // Đăng nhập thành công
-            System.out.println("✓ Login successful: " + user.getFullName());
-
-            // Chuyển sang dashboard tương ứng
-            redirectToDashboard(user);
-
-        } else {
-            // Đăng nhập thất bại
-            showError("Tên đăng nhập hoặc mật khẩu không đúng!");
-            loginButton.setDisable(false);
-
-            // Clear password field
-            passwordField.clear();
-            passwordField.requestFocus();
-        }
+        // Đăng nhập chạy ngoài luồng UI, kết quả trả về trên luồng UI
+        services.login(username, password).whenComplete((user, error) -> {
+            if (error != null) {
+                System.err.println("Lỗi khi đăng nhập: " + error.getMessage());
+                showError("Không thể kết nối cơ sở dữ liệu, vui lòng thử lại!");
+                loginButton.setDisable(false);
+            } else if (user != null) {
+                // Đăng nhập thành công
+                System.out.println("✓ Login successful: " + user.getFullName());
+
+                // Chuyển sang dashboard tương ứng
+                redirectToDashboard(user);
+
+            } else {
+                // Đăng nhập thất bại
+                showError("Tên đăng nhập hoặc mật khẩu không đúng!");
+                loginButton.setDisable(false);
+
+                // Clear password field
+                passwordField.clear();
+                passwordField.requestFocus();
+            }
+        });
     }
 
     /**
@@ -11,17 +11,18 @@ import java.util.List;
 
 public class CategoryDAO implements ICategoryDAO {
 
-    private final Connection connection;
+    private final DatabaseConnection db;
 
     public CategoryDAO() {
-        connection = DatabaseConnection.getInstance().getConnection();
+        db = DatabaseConnection.getInstance();
     }
 
     @Override
     public Category findById(int id) {
         String sql = "SELECT * FROM categories WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
 
@@ -39,7 +40,8 @@ public class CategoryDAO implements ICategoryDAO {
         List<Category> categories = new ArrayList<>();
         String sql = "SELECT * FROM categories ORDER BY name";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -55,7 +57,8 @@ public class CategoryDAO implements ICategoryDAO {
     public boolean add(Category category) {
         String sql = "INSERT INTO categories (name, description) VALUES (?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, category.getName());
             pstmt.setString(2, category.getDescription());
 
@@ -78,7 +81,8 @@ public class CategoryDAO implements ICategoryDAO {
     public boolean update(Category category) {
         String sql = "UPDATE categories SET name = ?, description = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, category.getName());
             pstmt.setString(2, category.getDescription());
             pstmt.setInt(3, category.getId());
@@ -95,7 +99,8 @@ public class CategoryDAO implements ICategoryDAO {
         // Không thể xóa nếu còn products thuộc category này
         String sql = "DELETE FROM categories WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -109,7 +114,8 @@ public class CategoryDAO implements ICategoryDAO {
     public boolean nameExists(String name) {
         String sql = "SELECT COUNT(*) as total FROM categories WHERE name = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, name);
             ResultSet rs = pstmt.executeQuery();
 
@@ -126,7 +132,8 @@ public class CategoryDAO implements ICategoryDAO {
     public int count() {
         String sql = "SELECT COUNT(*) as total FROM categories";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             if (rs.next()) {
@@ -3,20 +3,34 @@ package com.example.ql_shopcoffee.dao.impl;
 import com.example.ql_shopcoffee.dao.interfaces.IOrderDAO;
 import com.example.ql_shopcoffee.models.Order;
 import com.example.ql_shopcoffee.models.OrderDetail;
+import com.example.ql_shopcoffee.models.OrderExportRow;
+import com.example.ql_shopcoffee.models.OrderPage;
 import com.example.ql_shopcoffee.utils.DatabaseConnection;
+import com.example.ql_shopcoffee.utils.DatabaseInitializer;
+import com.example.ql_shopcoffee.utils.EpochTime;
+import com.example.ql_shopcoffee.utils.FullTextQuery;
+import com.example.ql_shopcoffee.utils.ProfilingEvents;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class OrderDAO implements IOrderDAO {
 
-    private final Connection connection;
+    private final DatabaseConnection db;
 
     public OrderDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this.db = DatabaseConnection.getInstance();
     }
 
     // ========== ORDER OPERATIONS ==========
@@ -25,14 +39,15 @@ public class OrderDAO implements IOrderDAO {
     public Order findById(int id) {
         String sql = "SELECT * FROM orders WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
                 Order order = extractOrderFromResultSet(rs);
 
-                order.setOrderDetails(findOrderDetailsByOrderId(id));
+                order.setOrderDetails(findOrderDetailsByOrderId(conn, id));
                 return order;
             }
         } catch (SQLException e) {
@@ -44,109 +59,168 @@ public class OrderDAO implements IOrderDAO {
 
     @Override
     public List<Order> findAll() {
-        List<Order> orders = new ArrayList<>();
-        String sql = "SELECT * FROM orders ORDER BY order_date DESC";
+        return findAll(true);
+    }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    @Override
+    public List<Order> findAll(boolean withDetails) {
+        String sql = "SELECT * FROM orders ORDER BY order_date DESC";
 
-            while (rs.next()) {
-                Order order = extractOrderFromResultSet(rs);
-                order.setOrderDetails(findOrderDetailsByOrderId(order.getId()));
-                orders.add(order);
-            }
+        try {
+            return findOrders(sql, withDetails);
         } catch (SQLException e) {
             System.err.println("Lỗi khi tìm toàn bộ sản phẩm: " + e.getMessage());
             e.printStackTrace();
         }
-        return orders;
+        return new ArrayList<>();
     }
 
     @Override
     public List<Order> findByEmployee(int employeeId) {
-        List<Order> orders = new ArrayList<>();
-        String sql = "SELECT * FROM orders WHERE employee_id = ? ORDER BY order_date DESC";
+        return findByEmployee(employeeId, true);
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, employeeId);
-            ResultSet rs = pstmt.executeQuery();
+    @Override
+    public List<Order> findByEmployee(int employeeId, boolean withDetails) {
+        String sql = "SELECT * FROM orders WHERE employee_id = ? ORDER BY order_date DESC";
 
-            while (rs.next()) {
-                Order order = extractOrderFromResultSet(rs);
-                order.setOrderDetails(findOrderDetailsByOrderId(order.getId()));
-                orders.add(order);
-            }
+        try {
+            return findOrders(sql, withDetails, employeeId);
         } catch (SQLException e) {
             System.err.println("Lỗi khi tìm hóa đơn được tạo bới nhân viên: " + e.getMessage());
             e.printStackTrace();
         }
-        return orders;
+        return new ArrayList<>();
     }
 
     @Override
     public List<Order> findByDateRange(LocalDateTime start, LocalDateTime end) {
-        List<Order> orders = new ArrayList<>();
-        String sql = "SELECT * FROM orders WHERE order_date BETWEEN ? AND ? ORDER BY order_date DESC";
+        return findByDateRange(start, end, true);
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, start.toString().replace("T", " "));
-            pstmt.setString(2, end.toString().replace("T", " "));
-            ResultSet rs = pstmt.executeQuery();
+    @Override
+    public List<Order> findByDateRange(LocalDateTime start, LocalDateTime end, boolean withDetails) {
+        String sql = "SELECT * FROM orders WHERE order_date BETWEEN ? AND ? ORDER BY order_date DESC";
 
-            while (rs.next()) {
-                Order order = extractOrderFromResultSet(rs);
-                order.setOrderDetails(findOrderDetailsByOrderId(order.getId()));
-                orders.add(order);
-            }
+        try {
+            return findOrders(sql, withDetails, EpochTime.toEpochMillis(start), EpochTime.toEpochMillis(end));
         } catch (SQLException e) {
             System.err.println("Lỗi khi tìm hóa đơn theo khoảng ngày: " + e.getMessage());
             e.printStackTrace();
         }
-        return orders;
+        return new ArrayList<>();
     }
 
     @Override
     public List<Order> findByDate(LocalDate date) {
-        LocalDateTime start = date.atStartOfDay();
-        LocalDateTime end = date.atTime(23, 59, 59);
-        return findByDateRange(start, end);
+        return findByPeriod(date, date.plusDays(1));
+    }
+
+    @Override
+    public List<Order> findByWeek(LocalDate date) {
+        LocalDate monday = date.with(DayOfWeek.MONDAY);
+        return findByPeriod(monday, monday.plusWeeks(1));
+    }
+
+    @Override
+    public List<Order> findByMonth(YearMonth month) {
+        return findByPeriod(month.atDay(1), month.plusMonths(1).atDay(1));
     }
 
     @Override
     public List<Order> findByStatus(String status) {
-        List<Order> orders = new ArrayList<>();
-        String sql = "SELECT * FROM orders WHERE status = ? ORDER BY order_date DESC";
+        return findByStatus(status, true);
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, status);
-            ResultSet rs = pstmt.executeQuery();
+    @Override
+    public List<Order> findByStatus(String status, boolean withDetails) {
+        String sql = "SELECT * FROM orders WHERE status = ? ORDER BY order_date DESC";
 
-            while (rs.next()) {
-                Order order = extractOrderFromResultSet(rs);
-                order.setOrderDetails(findOrderDetailsByOrderId(order.getId()));
-                orders.add(order);
-            }
+        try {
+            return findOrders(sql, withDetails, status);
         } catch (SQLException e) {
             System.err.println("Lỗi khi tìm hóa đơn theo trạng thái: " + e.getMessage());
             e.printStackTrace();
         }
-        return orders;
+        return new ArrayList<>();
     }
 
+    // ========== PHÂN TRANG (KEYSET) ==========
+
     @Override
-    public boolean insert(Order order) {
-        String sqlOrder = "INSERT INTO orders (employee_id, order_date, total_amount, status, note) VALUES (?, ?, ?, ?, ?)";
+    public OrderPage findAllPage(String pageToken, int pageSize) {
+        try {
+            return findOrderPage("1 = 1", pageToken, pageSize);
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tìm trang hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return OrderPage.empty();
+    }
+
+    @Override
+    public OrderPage findByEmployeePage(int employeeId, String pageToken, int pageSize) {
+        try {
+            return findOrderPage("employee_id = ?", pageToken, pageSize, employeeId);
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tìm trang hóa đơn của nhân viên: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return OrderPage.empty();
+    }
 
+    @Override
+    public OrderPage findByStatusPage(String status, String pageToken, int pageSize) {
         try {
+            return findOrderPage("status = ?", pageToken, pageSize, status);
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tìm trang hóa đơn theo trạng thái: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return OrderPage.empty();
+    }
+
+    @Override
+    public OrderPage findByEmployeeAndStatusPage(int employeeId, String status, String pageToken, int pageSize) {
+        try {
+            return findOrderPage("employee_id = ? AND status = ?", pageToken, pageSize, employeeId, status);
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tìm trang hóa đơn của nhân viên theo trạng thái: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return OrderPage.empty();
+    }
+
+    @Override
+    public OrderPage findByDateRangePage(LocalDateTime start, LocalDateTime end, String pageToken, int pageSize) {
+        try {
+            return findOrderPage("order_date BETWEEN ? AND ?", pageToken, pageSize,
+                    EpochTime.toEpochMillis(start), EpochTime.toEpochMillis(end));
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tìm trang hóa đơn theo khoảng ngày: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return OrderPage.empty();
+    }
+
+    @Override
+    public boolean insert(Order order) {
+        String sqlOrder = "INSERT INTO orders (employee_id, order_date, total_amount, status, note, receipt_no, terminal_id)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        // Connection ghi được giữ riêng trong suốt transaction, pool sẽ reset auto-commit khi trả về
+        try (Connection conn = db.getWriteConnection()) {
             // Tắt auto-commit để thực hiện transaction
-            connection.setAutoCommit(false);
+            conn.setAutoCommit(false);
 
-            try (PreparedStatement pstmt = connection.prepareStatement(sqlOrder, Statement.RETURN_GENERATED_KEYS)) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlOrder, Statement.RETURN_GENERATED_KEYS)) {
                 pstmt.setInt(1, order.getEmployeeId());
-                pstmt.setString(2, order.getOrderDate().toString().replace("T", " "));
-                pstmt.setDouble(3, order.getTotalAmount());
+                pstmt.setLong(2, EpochTime.toEpochMillis(order.getOrderDate()));
+                // total_amount bắt đầu từ 0, trigger cộng dồn từng order detail
+                pstmt.setLong(3, 0);
                 pstmt.setString(4, order.getStatus());
                 pstmt.setString(5, order.getNote());
+                setReceiptNo(pstmt, 6, order);
 
                 int affectedRows = pstmt.executeUpdate();
 
@@ -157,20 +231,17 @@ public class OrderDAO implements IOrderDAO {
                         int orderId = generatedKeys.getInt(1);
                         order.setId(orderId);
 
-                        // Insert tất cả order details
-                        for (OrderDetail detail : order.getOrderDetails()) {
-                            detail.setOrderId(orderId);
-                            if (!insertOrderDetail(detail)) {
-                                // Nếu insert detail thất bại, rollback
-                                connection.rollback();
-                                connection.setAutoCommit(true);
-                                return false;
-                            }
+                        // Insert tất cả order details trong một batch
+                        if (!insertOrderDetails(conn, orderId, order.getOrderDetails())) {
+                            // Nếu insert detail thất bại, rollback
+                            conn.rollback();
+                            conn.setAutoCommit(true);
+                            return false;
                         }
 
                         // Commit transaction
-                        connection.commit();
-                        connection.setAutoCommit(true);
+                        conn.commit();
+                        conn.setAutoCommit(true);
 
                         System.out.println("Hóa đơn đã được thêm thành công: " + order.getOrderDetails().size() + " items");
                         return true;
@@ -178,29 +249,94 @@ public class OrderDAO implements IOrderDAO {
                 }
             }
 
-            connection.rollback();
-            connection.setAutoCommit(true);
+            conn.rollback();
+            conn.setAutoCommit(true);
 
         } catch (SQLException e) {
             System.err.println("Lỗi khi thêm hóa đơn: " + e.getMessage());
             e.printStackTrace();
-            try {
-                connection.rollback();
-                connection.setAutoCommit(true);
-            } catch (SQLException ex) {
-                ex.printStackTrace();
-            }
         }
         return false;
     }
 
+    @Override
+    public int insertBatch(List<Order> orders) {
+        // Order đã ghi ở lần trước (crash sau commit, trước khi hàng đợi kịp ghi nhận) bị bỏ qua nhờ idx_orders_terminal_receipt
+        String sqlOrder = "INSERT INTO orders (employee_id, order_date, total_amount, status, note, receipt_no, terminal_id)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT(terminal_id, receipt_no) DO NOTHING";
+
+        try (Connection conn = db.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sqlOrder, Statement.RETURN_GENERATED_KEYS)) {
+                int inserted = 0;
+                for (Order order : orders) {
+                    // id = 0 sau khi ghi nghĩa là order bị bỏ qua vì trùng khóa
+                    order.setId(0);
+                    pstmt.setInt(1, order.getEmployeeId());
+                    pstmt.setLong(2, EpochTime.toEpochMillis(order.getOrderDate()));
+                    pstmt.setLong(3, 0);
+                    pstmt.setString(4, order.getStatus());
+                    pstmt.setString(5, order.getNote());
+                    setReceiptNo(pstmt, 6, order);
+
+                    if (pstmt.executeUpdate() == 0) {
+                        continue;
+                    }
+                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Không lấy được id của hóa đơn " + order.getReceiptNo());
+                        }
+                        order.setId(generatedKeys.getInt(1));
+                    }
+                    if (!insertOrderDetails(conn, order.getId(), order.getOrderDetails())) {
+                        throw new SQLException("Không thêm được chi tiết hóa đơn " + order.getReceiptNo());
+                    }
+                    inserted++;
+                }
+                conn.commit();
+                return inserted;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                for (Order order : orders) {
+                    order.setId(0);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi thêm lô hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public long getMaxReceiptNo(String terminalId) {
+        String sql = "SELECT COALESCE(MAX(receipt_no), 0) FROM orders WHERE terminal_id = ? OR terminal_id IS NULL";
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, terminalId);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi lấy số hóa đơn lớn nhất: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
     @Override
     public boolean update(Order order) {
         String sql = "UPDATE orders SET employee_id = ?, total_amount = ?, status = ?, note = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, order.getEmployeeId());
-            pstmt.setDouble(2, order.getTotalAmount());
+            pstmt.setLong(2, order.getTotalAmount());
             pstmt.setString(3, order.getStatus());
             pstmt.setString(4, order.getNote());
             pstmt.setInt(5, order.getId());
@@ -223,7 +359,8 @@ public class OrderDAO implements IOrderDAO {
         // CASCADE delete sẽ tự động xóa order_details
         String sql = "DELETE FROM orders WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
 
             int affectedRows = pstmt.executeUpdate();
@@ -243,10 +380,23 @@ public class OrderDAO implements IOrderDAO {
 
     @Override
     public List<OrderDetail> findOrderDetailsByOrderId(int orderId) {
+        try (Connection conn = db.getReadConnection()) {
+            return findOrderDetailsByOrderId(conn, orderId);
+        } catch (SQLException e) {
+            System.err.println("Lõi khi tìm chi tiết hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Tìm order details trên connection đang mượn (tránh mượn lồng nhau)
+     */
+    private List<OrderDetail> findOrderDetailsByOrderId(Connection conn, int orderId) {
         List<OrderDetail> details = new ArrayList<>();
         String sql = "SELECT * FROM order_details WHERE order_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, orderId);
             ResultSet rs = pstmt.executeQuery();
 
@@ -262,14 +412,27 @@ public class OrderDAO implements IOrderDAO {
 
     @Override
     public boolean insertOrderDetail(OrderDetail detail) {
+        try (Connection conn = db.getWriteConnection()) {
+            return insertOrderDetail(conn, detail);
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi thêm chi tiết hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Thêm order detail trên connection ghi đang mượn (dùng trong transaction của insert)
+     */
+    private boolean insertOrderDetail(Connection conn, OrderDetail detail) {
         String sql = "INSERT INTO order_details (order_id, product_id, product_name, quantity, price) VALUES (?, ?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setInt(1, detail.getOrderId());
             pstmt.setInt(2, detail.getProductId());
             pstmt.setString(3, detail.getProductName());
             pstmt.setInt(4, detail.getQuantity());
-            pstmt.setDouble(5, detail.getPrice());
+            pstmt.setLong(5, detail.getPrice());
 
             int affectedRows = pstmt.executeUpdate();
 
@@ -287,13 +450,64 @@ public class OrderDAO implements IOrderDAO {
         return false;
     }
 
+    /**
+     * Thêm nhiều order details bằng một PreparedStatement + executeBatch
+     * Chạy trong transaction trên connection ghi duy nhất nên id AUTOINCREMENT được cấp liên tiếp,
+     * id của từng dòng suy ra từ last_insert_rowid()
+     */
+    private boolean insertOrderDetails(Connection conn, int orderId, List<OrderDetail> details) {
+        if (details.isEmpty()) {
+            return true;
+        }
+        String sql = "INSERT INTO order_details (order_id, product_id, product_name, quantity, price) VALUES (?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (OrderDetail detail : details) {
+                detail.setOrderId(orderId);
+                pstmt.setInt(1, orderId);
+                pstmt.setInt(2, detail.getProductId());
+                pstmt.setString(3, detail.getProductName());
+                pstmt.setInt(4, detail.getQuantity());
+                pstmt.setLong(5, detail.getPrice());
+                pstmt.addBatch();
+            }
+
+            int[] results = pstmt.executeBatch();
+            for (int affected : results) {
+                if (affected == 0 || affected == Statement.EXECUTE_FAILED) {
+                    return false;
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi thêm chi tiết hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            if (rs.next()) {
+                int firstId = rs.getInt(1) - details.size() + 1;
+                for (int i = 0; i < details.size(); i++) {
+                    details.get(i).setId(firstId + i);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi lấy id chi tiết hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        return true;
+    }
+
     @Override
     public boolean updateOrderDetail(OrderDetail detail) {
         String sql = "UPDATE order_details SET quantity = ?, price = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, detail.getQuantity());
-            pstmt.setDouble(2, detail.getPrice());
+            pstmt.setLong(2, detail.getPrice());
             pstmt.setInt(3, detail.getId());
 
             return pstmt.executeUpdate() > 0;
@@ -308,7 +522,8 @@ public class OrderDAO implements IOrderDAO {
     public boolean deleteOrderDetail(int detailId) {
         String sql = "DELETE FROM order_details WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, detailId);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -322,7 +537,8 @@ public class OrderDAO implements IOrderDAO {
     public boolean deleteAllOrderDetails(int orderId) {
         String sql = "DELETE FROM order_details WHERE order_id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, orderId);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -332,14 +548,218 @@ public class OrderDAO implements IOrderDAO {
         return false;
     }
 
+    // ========== KIỂM TRA TỔNG TIỀN ==========
+
+    @Override
+    public int countInconsistentTotals() {
+        String sql = """
+            SELECT COUNT(*) as total
+            FROM orders o
+            LEFT JOIN (
+                SELECT order_id, SUM(quantity * price) as detail_total
+                FROM order_details
+                GROUP BY order_id
+            ) d ON d.order_id = o.id
+            WHERE o.total_amount <> COALESCE(d.detail_total, 0)
+        """;
+
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+
+            if (rs.next()) {
+                return rs.getInt("total");
+            }
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi kiểm tra tổng tiền hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public int repairOrderTotals() {
+        // Tính lại toàn bộ trong một câu lệnh, chỉ ghi những order bị lệch
+        String sql = """
+            WITH detail_totals AS (
+                SELECT order_id, SUM(quantity * price) as detail_total
+                FROM order_details
+                GROUP BY order_id
+            )
+            UPDATE orders
+            SET total_amount = COALESCE((SELECT detail_total FROM detail_totals WHERE order_id = orders.id), 0)
+            WHERE total_amount <> COALESCE((SELECT detail_total FROM detail_totals WHERE order_id = orders.id), 0)
+        """;
+
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            int repaired = stmt.executeUpdate(sql);
+            if (repaired > 0) {
+                System.out.println("Đã sửa tổng tiền cho " + repaired + " hóa đơn");
+            }
+            return repaired;
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi sửa tổng tiền hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // ========== TÌM KIẾM TOÀN VĂN (ghi chú) ==========
+
+    @Override
+    public List<Order> searchByNote(String keyword, int offset, int limit) {
+        try {
+            return searchOrdersByNote("", keyword, offset, limit);
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tìm hóa đơn theo ghi chú: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<Order> searchByEmployeeAndNote(int employeeId, String keyword, int offset, int limit) {
+        try {
+            return searchOrdersByNote("AND o.employee_id = ?", keyword, offset, limit, employeeId);
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tìm hóa đơn của nhân viên theo ghi chú: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    @Override
+    public boolean rebuildDailySales() {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            try {
+                stmt.executeUpdate("DELETE FROM daily_sales");
+                stmt.executeUpdate(DatabaseInitializer.DAILY_SALES_BACKFILL_SQL);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            conn.setAutoCommit(true);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tính lại bảng doanh số theo ngày: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    @Override
+    public int countProductSalesMismatches() {
+        // So sánh hai chiều: nhóm (ngày, sản phẩm) có trong dữ liệu gốc nhưng lệch / thiếu trong rollup và ngược lại
+        String sql = """
+            WITH raw AS (
+                SELECT date(o.order_date / 1000, 'unixepoch', 'localtime') AS day, d.product_id,
+                       SUM(d.quantity) AS quantity, SUM(d.quantity * d.price) AS revenue
+                FROM order_details d
+                JOIN orders o ON o.id = d.order_id
+                WHERE o.status = 'COMPLETED'
+                GROUP BY date(o.order_date / 1000, 'unixepoch', 'localtime'), d.product_id
+            ),
+            rollup AS (
+                SELECT day, product_id, quantity, revenue
+                FROM product_sales
+                WHERE quantity <> 0 OR revenue <> 0
+            )
+            SELECT (SELECT COUNT(*) FROM (SELECT * FROM raw EXCEPT SELECT * FROM rollup))
+                 + (SELECT COUNT(*) FROM (SELECT * FROM rollup EXCEPT SELECT * FROM raw)) AS mismatches
+        """;
+
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            if (rs.next()) {
+                return rs.getInt("mismatches");
+            }
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi kiểm tra bảng doanh số theo sản phẩm: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean rebuildProductSales() {
+        try (Connection conn = db.getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            try {
+                stmt.executeUpdate("DELETE FROM product_sales");
+                stmt.executeUpdate(DatabaseInitializer.PRODUCT_SALES_BACKFILL_SQL);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            conn.setAutoCommit(true);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tính lại bảng doanh số theo sản phẩm: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // ========== EXPORT ==========
+
+    @Override
+    public long exportByDateRange(LocalDateTime start, LocalDateTime end, Consumer<OrderExportRow> consumer) {
+        String sql = """
+            SELECT o.id, o.order_date, o.employee_id, o.status, o.note, o.total_amount,
+                   d.id, d.product_id, d.product_name, d.quantity, d.price
+            FROM orders o
+            JOIN order_details d ON d.order_id = o.id
+            WHERE o.order_date BETWEEN ? AND ?
+            ORDER BY o.order_date, o.id
+        """;
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(EXPORT_FETCH_SIZE);
+            pstmt.setLong(1, EpochTime.toEpochMillis(start));
+            pstmt.setLong(2, EpochTime.toEpochMillis(end));
+
+            // Một object dòng được tái sử dụng, dữ liệu đi thẳng từ ResultSet sang consumer
+            OrderExportRow row = new OrderExportRow();
+            long count = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    row.set(rs.getInt(1), rs.getLong(2), rs.getInt(3), rs.getString(4), rs.getString(5), rs.getLong(6),
+                            rs.getInt(7), rs.getInt(8), rs.getString(9), rs.getInt(10), rs.getLong(11));
+                    consumer.accept(row);
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi export hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
     // ========== STATISTICS ==========
 
     @Override
     public int countTodayOrders() {
-        String sql = "SELECT COUNT(*) as total FROM orders WHERE DATE(order_date) = DATE('now')";
+        LocalDate today = LocalDate.now();
+        return ProfilingEvents.reportQuery("countTodayOrders", today, today, this::selectTodayOrderCount);
+    }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    private int selectTodayOrderCount() {
+        String sql = "SELECT COALESCE(SUM(order_count), 0) as total FROM daily_sales WHERE day = ?";
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, LocalDate.now().toString());
+            ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
                 return rs.getInt("total");
@@ -352,89 +772,439 @@ public class OrderDAO implements IOrderDAO {
     }
 
     @Override
-    public double getTodayRevenue() {
-        String sql = "SELECT SUM(total_amount) as revenue FROM orders WHERE DATE(order_date) = DATE('now') AND status = 'COMPLETED'";
+    public int countTodayOrdersByEmployee(int employeeId) {
+        LocalDate today = LocalDate.now();
+        return ProfilingEvents.reportQuery("countTodayOrdersByEmployee", today, today,
+                () -> selectTodayOrderCountByEmployee(employeeId));
+    }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    private int selectTodayOrderCountByEmployee(int employeeId) {
+        String sql = "SELECT COALESCE(SUM(order_count), 0) as total FROM daily_sales WHERE day = ? AND employee_id = ?";
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, LocalDate.now().toString());
+            pstmt.setInt(2, employeeId);
+            ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getDouble("revenue");
+                return rs.getInt("total");
             }
         } catch (SQLException e) {
-            System.err.println("Lỗi khi tính tổng doanh thu: " + e.getMessage());
+            System.err.println("lỗi khi đếm số hóa đơn của nhân viên: " + e.getMessage());
             e.printStackTrace();
         }
-        return 0.0;
+        return 0;
     }
 
     @Override
-    public double getRevenueByDateRange(LocalDateTime start, LocalDateTime end) {
-        String sql = "SELECT SUM(total_amount) as revenue FROM orders WHERE order_date BETWEEN ? AND ? AND status = 'COMPLETED'";
+    public long getTodayRevenue() {
+        LocalDate today = LocalDate.now();
+        return ProfilingEvents.reportQuery("getTodayRevenue", today, today, this::selectTodayRevenue);
+    }
+
+    private long selectTodayRevenue() {
+        String sql = "SELECT COALESCE(SUM(revenue), 0) as revenue FROM daily_sales WHERE day = ? AND status = 'COMPLETED'";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, start.toString().replace("T", " "));
-            pstmt.setString(2, end.toString().replace("T", " "));
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, LocalDate.now().toString());
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                return rs.getDouble("revenue");
+                return rs.getLong("revenue");
             }
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tính tổng doanh thu: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    @Override
+    public long getRevenueByDateRange(LocalDateTime start, LocalDateTime end) {
+        return ProfilingEvents.reportQuery("getRevenueByDateRange", start, end,
+                () -> selectRevenueByDateRange(start, end));
+    }
+
+    /**
+     * Các ngày trọn vẹn trong khoảng đọc từ daily_sales, phần lẻ ở hai đầu đọc từ orders (theo idx_orders_date)
+     */
+    private long selectRevenueByDateRange(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || start.isAfter(end)) {
+            return 0;
+        }
+
+        LocalDate firstFullDay = start.toLocalTime().equals(LocalTime.MIDNIGHT)
+                ? start.toLocalDate() : start.toLocalDate().plusDays(1);
+        LocalDate lastFullDay = end.toLocalTime().isBefore(END_OF_DAY)
+                ? end.toLocalDate().minusDays(1) : end.toLocalDate();
+
+        try (Connection conn = db.getReadConnection()) {
+            if (firstFullDay.isAfter(lastFullDay)) {
+                return getRawRevenue(conn, start, end, true);
+            }
+
+            long revenue = 0;
+            String sql = "SELECT COALESCE(SUM(revenue), 0) as revenue FROM daily_sales"
+                    + " WHERE day BETWEEN ? AND ? AND status = 'COMPLETED'";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, firstFullDay.toString());
+                pstmt.setString(2, lastFullDay.toString());
+                ResultSet rs = pstmt.executeQuery();
+                if (rs.next()) {
+                    revenue += rs.getLong("revenue");
+                }
+            }
+
+            if (start.isBefore(firstFullDay.atStartOfDay())) {
+                revenue += getRawRevenue(conn, start, firstFullDay.atStartOfDay(), false);
+            }
+            LocalDateTime afterLastFullDay = lastFullDay.plusDays(1).atStartOfDay();
+            if (!end.isBefore(afterLastFullDay)) {
+                revenue += getRawRevenue(conn, afterLastFullDay, end, true);
+            }
+            return revenue;
         } catch (SQLException e) {
             System.err.println("Lỗi khi tính doanh thu theo khảng thời gian: " + e.getMessage());
             e.printStackTrace();
         }
-        return 0.0;
+        return 0;
     }
 
     @Override
-    public List<Object[]> getTopSellingProducts(int limit) {
+    public List<Object[]> getDailySales(LocalDate start, LocalDate end) {
+        return ProfilingEvents.reportQuery("getDailySales", start, end, () -> selectDailySales(start, end));
+    }
+
+    private List<Object[]> selectDailySales(LocalDate start, LocalDate end) {
         List<Object[]> result = new ArrayList<>();
         String sql = """
-            SELECT 
-                od.product_name,
-                SUM(od.quantity) as total_quantity,
-                SUM(od.quantity * od.price) as total_revenue
-            FROM order_details od
-            JOIN orders o ON od.order_id = o.id
-            WHERE o.status = 'COMPLETED'
-            GROUP BY od.product_id, od.product_name
-            ORDER BY total_quantity DESC
-            LIMIT ?
+            SELECT day, SUM(order_count) as order_count, SUM(revenue) as revenue, SUM(item_count) as item_count
+            FROM daily_sales
+            WHERE day BETWEEN ? AND ? AND status = 'COMPLETED'
+            GROUP BY day
+            ORDER BY day
         """;
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, limit);
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, start.toString());
+            pstmt.setString(2, end.toString());
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                Object[] row = new Object[3];
-                row[0] = rs.getString("product_name");
-                row[1] = rs.getInt("total_quantity");
-                row[2] = rs.getDouble("total_revenue");
+                Object[] row = new Object[4];
+                row[0] = LocalDate.parse(rs.getString("day"));
+                row[1] = rs.getInt("order_count");
+                row[2] = rs.getLong("revenue");
+                row[3] = rs.getInt("item_count");
                 result.add(row);
             }
         } catch (SQLException e) {
-            System.err.println("Lỗi khi lấy top sản phẩm bán chạy: " + e.getMessage());
+            System.err.println("Lỗi khi lấy doanh số theo ngày: " + e.getMessage());
             e.printStackTrace();
         }
         return result;
     }
 
+    @Override
+    public List<Object[]> getTopSellingProducts(int limit) {
+        return ProfilingEvents.reportQuery("getTopSellingProducts", null, null, () -> selectTopSellingProducts(limit));
+    }
+
+    @Override
+    public List<Object[]> getTopSellingProducts(LocalDate start, LocalDate end, int limit) {
+        return ProfilingEvents.reportQuery("getTopSellingProducts", start, end,
+                () -> selectTopSellingProducts(start, end, limit));
+    }
+
+    private List<Object[]> selectTopSellingProducts(int limit) {
+        try {
+            return findTopSellingProducts("", limit);
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi lấy top sản phẩm bán chạy: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    private List<Object[]> selectTopSellingProducts(LocalDate start, LocalDate end, int limit) {
+        try {
+            return findTopSellingProducts("WHERE ps.day BETWEEN ? AND ?", limit, start.toString(), end.toString());
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi lấy top sản phẩm bán chạy theo khoảng ngày: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
     // ========== HELPER METHODS ==========
 
+    // SQLite giới hạn 999 tham số mỗi câu lệnh
+    private static final int DETAIL_BATCH_SIZE = 500;
+
+    // Giới hạn số orders mỗi trang
+    private static final int MAX_PAGE_SIZE = 500;
+
+    // Từ thời điểm này trở đi coi như đã hết ngày (khoảng thời gian kiểu 00:00:00 - 23:59:59)
+    private static final LocalTime END_OF_DAY = LocalTime.of(23, 59, 59);
+
+    // Gợi ý số dòng mỗi lần đọc khi export
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * Orders trong [startDay, endDay) theo giờ địa phương, điều kiện khoảng trên order_date nên dùng được idx_orders_date
+     */
+    private List<Order> findByPeriod(LocalDate startDay, LocalDate endDay) {
+        String sql = "SELECT * FROM orders WHERE order_date >= ? AND order_date < ? ORDER BY order_date DESC";
+
+        try {
+            return findOrders(sql, true, EpochTime.toEpochMillis(startDay), EpochTime.toEpochMillis(endDay));
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi tìm hóa đơn theo kỳ: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Top sản phẩm theo số lượng bán từ product_sales: [tên, số lượng, doanh thu]
+     * Tên là tên lúc bán (dòng order_details mới nhất của product), không phải tên hiện tại trong products
+     */
+    private List<Object[]> findTopSellingProducts(String filter, int limit, Object... params) throws SQLException {
+        List<Object[]> result = new ArrayList<>();
+        String sql = "SELECT (SELECT od.product_name FROM order_details od WHERE od.product_id = s.product_id"
+                + " ORDER BY od.id DESC LIMIT 1) as product_name, s.total_quantity, s.total_revenue FROM ("
+                + " SELECT ps.product_id, SUM(ps.quantity) as total_quantity, SUM(ps.revenue) as total_revenue"
+                + " FROM product_sales ps " + filter
+                + " GROUP BY ps.product_id HAVING SUM(ps.quantity) > 0"
+                + " ORDER BY total_quantity DESC, total_revenue DESC LIMIT ?"
+                + ") s ORDER BY s.total_quantity DESC, s.total_revenue DESC";
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+            pstmt.setInt(params.length + 1, limit);
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                Object[] row = new Object[3];
+                row[0] = rs.getString("product_name");
+                row[1] = rs.getInt("total_quantity");
+                row[2] = rs.getLong("total_revenue");
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tổng total_amount của orders COMPLETED trong [start, end] hoặc [start, end)
+     */
+    private long getRawRevenue(Connection conn, LocalDateTime start, LocalDateTime end, boolean endInclusive) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(total_amount), 0) as revenue FROM orders"
+                + " WHERE order_date >= ? AND order_date " + (endInclusive ? "<=" : "<") + " ? AND status = 'COMPLETED'";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, EpochTime.toEpochMillis(start));
+            pstmt.setLong(2, EpochTime.toEpochMillis(end));
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong("revenue") : 0;
+        }
+    }
+
+    /**
+     * Chạy câu query orders, sau đó nạp details theo lô (không N+1)
+     * withDetails = false: chỉ lấy header, details được nạp khi gọi getOrderDetails()
+     */
+    private List<Order> findOrders(String sql, boolean withDetails, Object... params) throws SQLException {
+        List<Order> orders = new ArrayList<>();
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setObject(i + 1, params[i]);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    orders.add(extractOrderFromResultSet(rs));
+                }
+            }
+
+            if (withDetails) {
+                loadOrderDetails(conn, orders);
+            }
+        }
+
+        if (!withDetails) {
+            for (Order order : orders) {
+                int orderId = order.getId();
+                order.setDetailsLoader(() -> findOrderDetailsByOrderId(orderId));
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Nạp details cho danh sách orders bằng các câu IN (...) theo lô
+     */
+    private void loadOrderDetails(Connection conn, List<Order> orders) throws SQLException {
+        Map<Integer, List<OrderDetail>> detailsByOrder = new HashMap<>(orders.size() * 2);
+        for (Order order : orders) {
+            detailsByOrder.put(order.getId(), new ArrayList<>());
+        }
+
+        for (int from = 0; from < orders.size(); from += DETAIL_BATCH_SIZE) {
+            int to = Math.min(from + DETAIL_BATCH_SIZE, orders.size());
+            String sql = "SELECT * FROM order_details WHERE order_id IN ("
+                    + "?,".repeat(to - from - 1) + "?) ORDER BY order_id, id";
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int i = from; i < to; i++) {
+                    pstmt.setInt(i - from + 1, orders.get(i).getId());
+                }
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        OrderDetail detail = extractOrderDetailFromResultSet(rs);
+                        detailsByOrder.get(detail.getOrderId()).add(detail);
+                    }
+                }
+            }
+        }
+
+        for (Order order : orders) {
+            order.setOrderDetails(detailsByOrder.get(order.getId()));
+        }
+    }
+
     private Order extractOrderFromResultSet(ResultSet rs) throws SQLException {
         int id = rs.getInt("id");
         int employeeId = rs.getInt("employee_id");
-        String orderDateStr = rs.getString("order_date");
-        double totalAmount = rs.getDouble("total_amount");
+        long orderDateMillis = rs.getLong("order_date");
+        boolean noOrderDate = rs.wasNull();
+        long totalAmount = rs.getLong("total_amount");
         String status = rs.getString("status");
         String note = rs.getString("note");
+        long receiptNo = rs.getLong("receipt_no");
+        String terminalId = rs.getString("terminal_id");
 
-        LocalDateTime orderDate = orderDateStr != null ?
-                LocalDateTime.parse(orderDateStr.replace(" ", "T")) : LocalDateTime.now();
+        LocalDateTime orderDate = noOrderDate ? LocalDateTime.now() : EpochTime.fromEpochMillis(orderDateMillis);
 
-        return new Order(id, employeeId, orderDate, totalAmount, status, note);
+        Order order = new Order(id, employeeId, orderDate, totalAmount, status, note);
+        order.setReceiptNo(receiptNo);
+        order.setTerminalId(terminalId);
+        return order;
+    }
+
+    /**
+     * Gán receipt_no (index) và terminal_id (index + 1), order chưa có số hóa đơn thì cả hai là NULL
+     */
+    private void setReceiptNo(PreparedStatement pstmt, int index, Order order) throws SQLException {
+        if (order.getReceiptNo() > 0) {
+            pstmt.setLong(index, order.getReceiptNo());
+            pstmt.setString(index + 1, order.getTerminalId());
+        } else {
+            pstmt.setNull(index, Types.INTEGER);
+            pstmt.setNull(index + 1, Types.VARCHAR);
+        }
+    }
+
+    /**
+     * Tìm orders khớp ghi chú qua orders_fts, filter thêm điều kiện trên bảng orders (alias o)
+     */
+    private List<Order> searchOrdersByNote(String filter, String keyword, int offset, int limit,
+                                           Object... params) throws SQLException {
+        String match = FullTextQuery.prefixQuery(keyword);
+        if (match == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        String sql = "SELECT o.* FROM orders_fts JOIN orders o ON o.id = orders_fts.rowid"
+                + " WHERE orders_fts MATCH ? " + filter
+                + " ORDER BY bm25(orders_fts), o.order_date DESC, o.id DESC LIMIT ? OFFSET ?";
+
+        Object[] args = new Object[params.length + 3];
+        args[0] = match;
+        System.arraycopy(params, 0, args, 1, params.length);
+        args[params.length + 1] = Math.min(limit, MAX_PAGE_SIZE);
+        args[params.length + 2] = Math.max(0, offset);
+        return findOrders(sql, false, args);
+    }
+
+    /**
+     * Lấy một trang orders mới nhất trước vị trí con trỏ (order_date, id)
+     * Query pageSize + 1 dòng để biết còn trang sau hay không
+     */
+    private OrderPage findOrderPage(String filter, String pageToken, int pageSize, Object... params) throws SQLException {
+        int limit = Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        long[] cursor = null;
+        if (pageToken != null) {
+            cursor = decodePageToken(pageToken);
+            if (cursor == null) {
+                System.err.println("Page token không hợp lệ: " + pageToken);
+                return OrderPage.empty();
+            }
+        }
+
+        String sql = "SELECT * FROM orders WHERE " + filter
+                + (cursor != null ? " AND (order_date, id) < (?, ?)" : "")
+                + " ORDER BY order_date DESC, id DESC LIMIT ?";
+
+        List<Order> orders = new ArrayList<>(limit);
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Object param : params) {
+                pstmt.setObject(index++, param);
+            }
+            if (cursor != null) {
+                pstmt.setLong(index++, cursor[0]);
+                pstmt.setLong(index++, cursor[1]);
+            }
+            pstmt.setInt(index, limit + 1);
+
+            long lastOrderDate = 0;
+            boolean hasMore = false;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    if (orders.size() == limit) {
+                        hasMore = true;
+                        break;
+                    }
+                    lastOrderDate = rs.getLong("order_date");
+                    orders.add(extractOrderFromResultSet(rs));
+                }
+            }
+
+            String nextToken = hasMore ? encodePageToken(lastOrderDate, orders.get(limit - 1).getId()) : null;
+
+            // Details của cả trang được nạp bằng một lô IN (...)
+            loadOrderDetails(conn, orders);
+            return new OrderPage(orders, nextToken);
+        }
+    }
+
+    private String encodePageToken(long orderDate, int id) {
+        String raw = orderDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long[] decodePageToken(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            if (separator <= 0) {
+                return null;
+            }
+            return new long[]{Long.parseLong(raw.substring(0, separator)), Integer.parseInt(raw.substring(separator + 1))};
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 
     private OrderDetail extractOrderDetailFromResultSet(ResultSet rs) throws SQLException {
@@ -443,7 +1213,7 @@ public class OrderDAO implements IOrderDAO {
         int productId = rs.getInt("product_id");
         String productName = rs.getString("product_name");
         int quantity = rs.getInt("quantity");
-        double price = rs.getDouble("price");
+        long price = rs.getLong("price");
 
         return new OrderDetail(id, orderId, productId, productName, quantity, price);
     }
@@ -3,6 +3,7 @@ package com.example.ql_shopcoffee.dao.impl;
 import com.example.ql_shopcoffee.dao.interfaces.IProductDAO;
 import com.example.ql_shopcoffee.models.Product;
 import com.example.ql_shopcoffee.utils.DatabaseConnection;
+import com.example.ql_shopcoffee.utils.FullTextQuery;
 
 import java.sql.*;
 import java.time.LocalDateTime;
@@ -11,17 +12,18 @@ import java.util.List;
 
 public class ProductDAO implements IProductDAO {
 
-    private final Connection connection;
+    private final DatabaseConnection db;
 
     public ProductDAO() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this.db = DatabaseConnection.getInstance();
     }
 
     @Override
     public Product findById(int id) {
         String sql = "SELECT * FROM products WHERE id = ?";
 
-        try(PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
 
@@ -41,8 +43,9 @@ public class ProductDAO implements IProductDAO {
         List<Product> products = new ArrayList<>();
         String sql = "SELECT * FROM products WHERE status = 1 ORDER BY name";
 
-        try(Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
 
             while(rs.next()) {
                 products.add(extractProductFromResultSet(rs));
@@ -59,8 +62,9 @@ public class ProductDAO implements IProductDAO {
         List<Product> products = new ArrayList<>();
         String sql = "SELECT * FROM products ORDER BY name";
 
-        try(Statement stmt = connection.createStatement();
-            ResultSet rs = stmt.executeQuery(sql)) {
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
 
             while(rs.next()) {
                 products.add(extractProductFromResultSet(rs));
@@ -77,7 +81,8 @@ public class ProductDAO implements IProductDAO {
         List<Product> products = new ArrayList<>();
         String sql = "SELECT * FROM products WHERE category_id = ? AND status = 1 ORDER BY name";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, categoryId);
             ResultSet rs = pstmt.executeQuery();
 
@@ -96,7 +101,8 @@ public class ProductDAO implements IProductDAO {
         List<Product> products = new ArrayList<>();
         String sql = "SELECT * FROM products WHERE name LIKE ? AND status = 1 ORDER BY name";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, "%" + name + "%");
             ResultSet rs = pstmt.executeQuery();
 
@@ -110,15 +116,52 @@ public class ProductDAO implements IProductDAO {
         return products;
     }
 
+    /**
+     * Tìm toàn văn qua products_fts (khớp tiền tố, không dấu), xếp theo bm25 rồi theo tên
+     */
+    @Override
+    public List<Product> searchFullText(String keyword, int offset, int limit) {
+        List<Product> products = new ArrayList<>();
+        String match = FullTextQuery.prefixQuery(keyword);
+        if (match == null || limit <= 0) {
+            return products;
+        }
+
+        String sql = """
+            SELECT p.* FROM products_fts
+            JOIN products p ON p.id = products_fts.rowid
+            WHERE products_fts MATCH ? AND p.status = 1
+            ORDER BY bm25(products_fts), p.name
+            LIMIT ? OFFSET ?
+            """;
+
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, match);
+            pstmt.setInt(2, limit);
+            pstmt.setInt(3, Math.max(0, offset));
+            ResultSet rs = pstmt.executeQuery();
+
+            while (rs.next()) {
+                products.add(extractProductFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error full-text searching products: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return products;
+    }
+
     @Override
     public boolean add(Product product) {
         String sql = "INSERT INTO products (name, category_id, price, image, status) VALUES (?, ?, ?, ? ,?)";
 
-        try(PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, product.getName());
             pstmt.setInt(2, product.getCategoryId());
-            pstmt.setDouble(3, product.getPrice());
+            pstmt.setLong(3, product.getPrice());
             pstmt.setString(4, product.getImage());
             pstmt.setBoolean(5, product.isStatus());
 
@@ -143,10 +186,11 @@ public class ProductDAO implements IProductDAO {
     public boolean update(Product product) {
         String sql = "UPDATE products SET name = ?, category_id = ?, price = ?, image = ?, status = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, product.getName());
             pstmt.setInt(2, product.getCategoryId());
-            pstmt.setDouble(3, product.getPrice());
+            pstmt.setLong(3, product.getPrice());
             pstmt.setString(4, product.getImage());
             pstmt.setBoolean(5, product.isStatus());
             pstmt.setInt(6, product.getId());
@@ -168,7 +212,8 @@ public class ProductDAO implements IProductDAO {
     public boolean delete(int id) {
         String sql = "UPDATE products SET status = 0 WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
 
             int affectedRows = pstmt.executeUpdate();
@@ -188,7 +233,8 @@ public class ProductDAO implements IProductDAO {
     public boolean hardDelete(int id) {
         String sql = "DELETE FROM products WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
 
             int affectedRows = pstmt.executeUpdate();
@@ -208,7 +254,8 @@ public class ProductDAO implements IProductDAO {
     public int count() {
         String sql = "SELECT COUNT(*) as total FROM products WHERE status = 1";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             if (rs.next()) {
@@ -225,7 +272,8 @@ public class ProductDAO implements IProductDAO {
     public boolean exists(int id) {
         String sql = "SELECT COUNT(*) as total FROM products WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
 
@@ -243,7 +291,7 @@ public class ProductDAO implements IProductDAO {
         int id = rs.getInt("id");
         String name = rs.getString("name");
         int categoryId = rs.getInt("category_id");
-        double price = rs.getDouble("price");
+        long price = rs.getLong("price");
         String image = rs.getString("image");
         boolean status = rs.getBoolean("status");
 
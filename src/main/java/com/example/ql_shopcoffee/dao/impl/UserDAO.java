@@ -13,17 +13,18 @@ import java.util.List;
 
 public class UserDAO implements IUserDAO {
 
-    private final Connection connection;
+    private final DatabaseConnection db;
 
     public UserDAO() {
-        connection = DatabaseConnection.getInstance().getConnection();
+        db = DatabaseConnection.getInstance();
     }
 
     @Override
     public User findByUsername(String username) {
         String sql = "SELECT * FROM users WHERE username = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
 
@@ -40,7 +41,8 @@ public class UserDAO implements IUserDAO {
     public User findById(int id) {
         String sql = "SELECT * FROM users WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
 
@@ -58,7 +60,8 @@ public class UserDAO implements IUserDAO {
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM users ORDER BY full_name";
 
-        try (Statement stmt = connection.createStatement();
+        try (Connection conn = db.getReadConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -75,7 +78,8 @@ public class UserDAO implements IUserDAO {
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM users WHERE role = ? ORDER BY full_name";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, role);
             ResultSet rs = pstmt.executeQuery();
 
@@ -92,7 +96,8 @@ public class UserDAO implements IUserDAO {
     public boolean add(User user) {
         String sql = "INSERT INTO users (username, password, full_name, role) VALUES (?, ?, ?, ?)";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             pstmt.setString(1, user.getUsername());
             pstmt.setString(2, user.getPassword());
             pstmt.setString(3, user.getFullName());
@@ -117,7 +122,8 @@ public class UserDAO implements IUserDAO {
     public boolean update(User user) {
         String sql = "UPDATE users SET username = ?, full_name = ?, role = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, user.getUsername());
             pstmt.setString(2, user.getFullName());
             pstmt.setString(3, user.getRole());
@@ -134,7 +140,8 @@ public class UserDAO implements IUserDAO {
     public boolean delete(int id) {
         String sql = "DELETE FROM users WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, id);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
@@ -148,7 +155,8 @@ public class UserDAO implements IUserDAO {
     public boolean changePassword(int userId, String newPassword) {
         String sql = "UPDATE users SET password = ? WHERE id = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getWriteConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, newPassword);
             pstmt.setInt(2, userId);
 
@@ -163,7 +171,8 @@ public class UserDAO implements IUserDAO {
     public boolean usernameExists(String username) {
         String sql = "SELECT COUNT(*) as total FROM users WHERE username = ?";
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+        try (Connection conn = db.getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
 
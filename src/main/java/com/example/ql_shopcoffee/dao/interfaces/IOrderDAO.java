@@ -2,10 +2,14 @@ package com.example.ql_shopcoffee.dao.interfaces;
 
 import com.example.ql_shopcoffee.models.Order;
 import com.example.ql_shopcoffee.models.OrderDetail;
+import com.example.ql_shopcoffee.models.OrderExportRow;
+import com.example.ql_shopcoffee.models.OrderPage;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IOrderDAO {
     // ========== ORDER OPERATIONS ==========
@@ -20,31 +24,80 @@ public interface IOrderDAO {
      */
     List<Order> findAll();
 
+    /**
+     * Lấy tất cả orders, withDetails = false chỉ lấy header (details nạp khi cần)
+     */
+    List<Order> findAll(boolean withDetails);
+
     /**
      * Lấy orders của một nhân viên cụ thể
      */
     List<Order> findByEmployee(int employeeId);
 
+    List<Order> findByEmployee(int employeeId, boolean withDetails);
+
     /**
      * Lấy orders theo khoảng thời gian
      */
     List<Order> findByDateRange(LocalDateTime start, LocalDateTime end);
 
+    List<Order> findByDateRange(LocalDateTime start, LocalDateTime end, boolean withDetails);
+
     /**
      * Lấy orders theo ngày (hôm nay, hôm qua...)
      */
     List<Order> findByDate(LocalDate date);
 
+    /**
+     * Lấy orders trong tuần (thứ Hai - Chủ Nhật) chứa ngày date
+     */
+    List<Order> findByWeek(LocalDate date);
+
+    /**
+     * Lấy orders trong tháng
+     */
+    List<Order> findByMonth(YearMonth month);
+
     /**
      * Lấy orders theo status
      */
     List<Order> findByStatus(String status);
 
+    List<Order> findByStatus(String status, boolean withDetails);
+
+    // ========== PHÂN TRANG (KEYSET theo order_date, id) ==========
+
+    /**
+     * Lấy một trang orders, pageToken = null để lấy trang đầu
+     * Trang tiếp theo dùng OrderPage.getNextPageToken()
+     */
+    OrderPage findAllPage(String pageToken, int pageSize);
+
+    OrderPage findByEmployeePage(int employeeId, String pageToken, int pageSize);
+
+    OrderPage findByStatusPage(String status, String pageToken, int pageSize);
+
+    OrderPage findByEmployeeAndStatusPage(int employeeId, String status, String pageToken, int pageSize);
+
+    OrderPage findByDateRangePage(LocalDateTime start, LocalDateTime end, String pageToken, int pageSize);
+
     /**
      * Thêm order mới (transaction: insert order + insert order details)
      */
     boolean insert(Order order);
 
+    /**
+     * Thêm nhiều orders (kèm details) trong một transaction, id được gán vào từng order
+     * Order có (terminal_id, receipt_no) đã tồn tại được bỏ qua (id = 0) nên ghi lại cùng một lô nhiều lần vẫn an toàn
+     * @return số orders thực sự được thêm (nhỏ hơn orders.size() khi có order bị bỏ qua), -1 nếu lỗi (cả lô bị rollback)
+     */
+    int insertBatch(List<Order> orders);
+
+    /**
+     * receipt_no lớn nhất máy quầy terminalId đã ghi (tính cả số hóa đơn cũ chưa gắn máy), 0 nếu chưa có
+     */
+    long getMaxReceiptNo(String terminalId);
+
     /**
      * Cập nhật order (chỉ update thông tin order, không update details)
      */
@@ -82,25 +135,86 @@ public interface IOrderDAO {
      */
     boolean deleteAllOrderDetails(int orderId);
 
-    // ========== STATISTICS ==========
+    // ========== KIỂM TRA TỔNG TIỀN ==========
+
+    /**
+     * Đếm số orders có total_amount khác tổng thành tiền của order details
+     * @return -1 nếu lỗi
+     */
+    int countInconsistentTotals();
+
+    /**
+     * Tính lại total_amount hàng loạt cho các orders bị lệch
+     * @return số orders đã sửa, -1 nếu lỗi
+     */
+    int repairOrderTotals();
+
+    /**
+     * Xóa và tính lại toàn bộ bảng tổng hợp daily_sales từ orders (sau khi import / sửa tay dữ liệu)
+     */
+    boolean rebuildDailySales();
+
+    /**
+     * Đếm số nhóm (ngày, sản phẩm) trong product_sales lệch so với order details của orders COMPLETED
+     * @return -1 nếu lỗi
+     */
+    int countProductSalesMismatches();
+
+    /**
+     * Xóa và tính lại toàn bộ bảng tổng hợp product_sales
+     */
+    boolean rebuildProductSales();
+
+    // ========== TÌM KIẾM TOÀN VĂN (ghi chú) ==========
+
+    /**
+     * Tìm orders theo ghi chú (FTS5, khớp tiền tố, không dấu), xếp theo bm25 rồi mới nhất trước
+     * Chỉ lấy header, details nạp khi gọi getOrderDetails()
+     */
+    List<Order> searchByNote(String keyword, int offset, int limit);
+
+    List<Order> searchByEmployeeAndNote(int employeeId, String keyword, int offset, int limit);
+
+    // ========== EXPORT ==========
+
+    /**
+     * Duyệt từng dòng (order + detail) trong khoảng thời gian và đẩy sang consumer
+     * Không nạp toàn bộ kết quả vào bộ nhớ, row được tái sử dụng giữa các lần gọi
+     * @return số dòng đã xử lý, -1 nếu lỗi
+     */
+    long exportByDateRange(LocalDateTime start, LocalDateTime end, Consumer<OrderExportRow> consumer);
+
+    // ========== STATISTICS (đọc từ bảng tổng hợp daily_sales / product_sales) ==========
 
     /**
      * Đếm số orders hôm nay
      */
     int countTodayOrders();
 
+    int countTodayOrdersByEmployee(int employeeId);
+
     /**
      * Tính tổng doanh thu hôm nay
      */
-    double getTodayRevenue();
+    long getTodayRevenue();
 
     /**
      * Tính doanh thu theo khoảng thời gian
      */
-    double getRevenueByDateRange(LocalDateTime start, LocalDateTime end);
+    long getRevenueByDateRange(LocalDateTime start, LocalDateTime end);
+
+    /**
+     * Doanh số orders COMPLETED từng ngày: [LocalDate ngày, Integer số orders, Long doanh thu (đồng), Integer số món]
+     */
+    List<Object[]> getDailySales(LocalDate start, LocalDate end);
 
     /**
-     * Lấy top sản phẩm bán chạy
+     * Lấy top sản phẩm bán chạy: [String tên, Integer số lượng, Long doanh thu (đồng)]
      */
     List<Object[]> getTopSellingProducts(int limit);
+
+    /**
+     * Lấy top sản phẩm bán chạy trong khoảng ngày (tính cả hai đầu)
+     */
+    List<Object[]> getTopSellingProducts(LocalDate start, LocalDate end, int limit);
 }
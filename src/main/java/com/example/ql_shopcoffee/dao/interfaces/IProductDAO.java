@@ -10,6 +10,7 @@ public interface IProductDAO {
     List<Product> findAllIncludingInactive();
     List<Product> findByCategory(int categoryId);
     List<Product> findByName(String name);
+    List<Product> searchFullText(String keyword, int offset, int limit);
 
     boolean add(Product product);
     boolean update(Product product);
@@ -1,88 +1,163 @@
 package com.example.ql_shopcoffee.models;
 
+import com.example.ql_shopcoffee.utils.Money;
+
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 public class Order {
     private int id;
     private int employeeId;
     private LocalDateTime orderDate;
-    private double totalAmount;
+    private long totalAmount; // đồng
     private String status;
     private String note;
-    private List<OrderDetail>  orderDetails;
+    // Số hóa đơn cấp ngay khi checkout (trước khi order được ghi vào database và có id), 0 = chưa có
+    private long receiptNo;
+    // Máy quầy cấp receiptNo, (terminalId, receiptNo) là khóa chống ghi trùng khi hàng đợi ghi lại
+    private String terminalId;
+    // Giỏ hàng: list giữ thứ tự thêm để hiển thị, map theo product id để tìm O(1)
+    // total_amount và itemCount cập nhật theo chênh lệch mỗi lần thay đổi, không duyệt lại cả giỏ
+    private List<OrderDetail> orderDetails;
+    private List<OrderDetail> orderDetailsView;
+    private Map<Integer, OrderDetail> itemsByProduct;
+    private int itemCount;
+
+    // Nạp details khi cần (order chỉ được query phần header)
+    private Supplier<List<OrderDetail>> detailsLoader;
 
     public Order(int employeeId) {
         this.employeeId = employeeId;
         this.orderDate = LocalDateTime.now();
-        this.totalAmount = 0.0;
+        this.totalAmount = 0;
         this.status = "PENDING";
-        this.orderDetails = new ArrayList<>();
+        resetItems(new ArrayList<>());
     }
 
-    public Order(int id, int employeeId, LocalDateTime orderDate, double totalAmount, String status, String note) {
+    public Order(int id, int employeeId, LocalDateTime orderDate, long totalAmount, String status, String note) {
         this.id = id;
         this.employeeId = employeeId;
         this.orderDate = orderDate;
         this.totalAmount = totalAmount;
         this.status = status;
         this.note = note;
-        this.orderDetails = new ArrayList<>();
+        resetItems(new ArrayList<>());
     }
 
     // Getters
     public int getId() { return id; }
     public int getEmployeeId() { return employeeId; }
     public LocalDateTime getOrderDate() { return orderDate; }
-    public double getTotalAmount() { return totalAmount; }
+    public long getTotalAmount() { return totalAmount; }
     public String getStatus() { return status; }
     public String getNote() { return note; }
-    public List<OrderDetail> getOrderDetails() { return orderDetails; }
+    public long getReceiptNo() { return receiptNo; }
+    public String getTerminalId() { return terminalId; }
+    public List<OrderDetail> getOrderDetails() {
+        if (detailsLoader != null) {
+            Supplier<List<OrderDetail>> loader = detailsLoader;
+            detailsLoader = null;
+            setOrderDetails(loader.get());
+        }
+        return orderDetailsView;
+    }
 
     // Setters
     public void setId(int id) { this.id = id; }
     public void setEmployeeId(int employeeId) { this.employeeId = employeeId; }
     public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
-    public void setTotalAmount(double totalAmount) { this.totalAmount = totalAmount; }
+    public void setTotalAmount(long totalAmount) { this.totalAmount = totalAmount; }
     public void setStatus(String status) { this.status = status; }
     public void setNote(String note) { this.note = note; }
+    public void setReceiptNo(long receiptNo) { this.receiptNo = receiptNo; }
+    public void setTerminalId(String terminalId) { this.terminalId = terminalId; }
     public void setOrderDetails(List<OrderDetail> orderDetails) {
-        this.orderDetails = orderDetails;
+        this.detailsLoader = null;
+        resetItems(orderDetails);
         recalculateTotal();
     }
 
+    /**
+     * Đặt hàm nạp details trễ, total_amount giữ nguyên giá trị từ database cho tới khi nạp
+     */
+    public void setDetailsLoader(Supplier<List<OrderDetail>> detailsLoader) {
+        this.detailsLoader = detailsLoader;
+    }
+
+    public boolean isDetailsLoaded() {
+        return detailsLoader == null;
+    }
+
     // Logic nghiệp vụ
+    /**
+     * Thêm món, trùng product thì cộng dồn số lượng vào dòng đã có
+     */
     public void addItem(OrderDetail orderDetail) {
-        for(OrderDetail item : orderDetails) {
-            if(item.getProductId() == orderDetail.getProductId()) {
-                item.setQuantity(item.getQuantity() + orderDetail.getQuantity());
-                recalculateTotal();
-                return;
-            }
+        OrderDetail existing = findItem(orderDetail.getProductId());
+        if (existing != null) {
+            changeQuantity(existing, existing.getQuantity() + orderDetail.getQuantity());
+            return;
         }
         orderDetails.add(orderDetail);
-        recalculateTotal();
+        itemsByProduct.put(orderDetail.getProductId(), orderDetail);
+        totalAmount += orderDetail.getSubtotal();
+        itemCount += orderDetail.getQuantity();
     }
 
+    /**
+     * Bỏ mọi dòng của product khỏi order (order nạp từ database có thể có nhiều dòng cùng product)
+     */
     public void removeItem(OrderDetail orderDetail) {
-        orderDetails.removeIf(item -> item.getProductId() == orderDetail.getProductId());
-        recalculateTotal();
+        int productId = orderDetail.getProductId();
+        if (findItem(productId) == null) {
+            return;
+        }
+        itemsByProduct.remove(productId);
+        Iterator<OrderDetail> it = orderDetails.iterator();
+        while (it.hasNext()) {
+            OrderDetail item = it.next();
+            if (item.getProductId() == productId) {
+                it.remove();
+                totalAmount -= item.getSubtotal();
+                itemCount -= item.getQuantity();
+            }
+        }
     }
 
     public void updateItemQuantity(int productId, int quantity) {
-        for(OrderDetail item : orderDetails) {
-            if(item.getProductId() == productId) {
-                item.setQuantity(quantity);
-                recalculateTotal();
-                return;
-            }
+        OrderDetail existing = findItem(productId);
+        if (existing != null) {
+            changeQuantity(existing, quantity);
         }
     }
 
+    /**
+     * Dòng của product trong order, null nếu chưa có
+     */
+    public OrderDetail findItem(int productId) {
+        getOrderDetails();
+        return itemsByProduct.get(productId);
+    }
+
+    /**
+     * Tính lại total_amount và số món từ đầu (khi OrderDetail bị sửa trực tiếp bên ngoài)
+     */
     public void recalculateTotal() {
-        this.totalAmount = orderDetails.stream().mapToDouble(OrderDetail::getSubtotal).sum();
+        long total = 0;
+        int count = 0;
+        for (OrderDetail item : getOrderDetails()) {
+            total += item.getSubtotal();
+            count += item.getQuantity();
+        }
+        this.totalAmount = total;
+        this.itemCount = count;
     }
 
     public void complete() {
@@ -99,8 +174,11 @@ public class Order {
         return "CANCELLED".equals(this.status);
     }
 
+    /**
+     * Tổng số món của các dòng đã nạp (0 khi details chưa nạp, không tự query database)
+     */
     public int getItemCount() {
-        return orderDetails.stream().mapToInt(OrderDetail::getQuantity).sum();
+        return itemCount;
     }
 
     public String getFormattedDate() {
@@ -109,11 +187,33 @@ public class Order {
     }
 
     public String getFormattedTotal() {
-        return String.format("%,.0f đ", totalAmount);
+        return Money.format(totalAmount);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void changeQuantity(OrderDetail item, int quantity) {
+        totalAmount += (long) (quantity - item.getQuantity()) * item.getPrice();
+        itemCount += quantity - item.getQuantity();
+        item.setQuantity(quantity);
+    }
+
+    /**
+     * Dùng list mới làm giỏ hàng, dựng lại map theo product id (dòng trùng product giữ dòng đầu)
+     */
+    private void resetItems(List<OrderDetail> items) {
+        this.orderDetails = items;
+        this.orderDetailsView = Collections.unmodifiableList(items);
+        this.itemsByProduct = new HashMap<>(Math.max(16, items.size() * 2));
+        for (OrderDetail item : items) {
+            itemsByProduct.putIfAbsent(item.getProductId(), item);
+        }
     }
 
     public String toString() {
-        return String.format("Order[id = %d, date = %s, total = %,.0f, status = %s, items = %d]",
-                id, getFormattedDate(), totalAmount, status, orderDetails.size());
+        // Không nạp details chỉ để in log
+        return String.format("Order[id = %d, date = %s, total = %d, status = %s, items = %s]",
+                id, getFormattedDate(), totalAmount, status,
+                isDetailsLoaded() ? String.valueOf(orderDetails.size()) : "chưa nạp");
     }
 }
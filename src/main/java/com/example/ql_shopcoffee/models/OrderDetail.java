@@ -1,21 +1,23 @@
 package com.example.ql_shopcoffee.models;
 
+import com.example.ql_shopcoffee.utils.Money;
+
 public class OrderDetail {
     private int id;
     private int orderId;
     private int productId;
     private String productName;
     private int quantity;
-    private double price;
+    private long price; // đồng
 
-    public OrderDetail(int productId, String productName, int quantity, double price) {
+    public OrderDetail(int productId, String productName, int quantity, long price) {
         this.productId = productId;
         this.productName = productName;
         this.quantity = quantity;
         this.price = price;
     }
 
-    public OrderDetail(int id, int orderId, int productId, String productName, int quantity, double price) {
+    public OrderDetail(int id, int orderId, int productId, String productName, int quantity, long price) {
         this.id = id;
         this.orderId = orderId;
         this.productId = productId;
@@ -30,7 +32,7 @@ public class OrderDetail {
     public int getProductId() { return productId; }
     public String getProductName() { return productName; }
     public int getQuantity() { return quantity; }
-    public double getPrice() { return price; }
+    public long getPrice() { return price; }
 
     // Setters
     public void setId(int id) { this.id = id; }
@@ -38,24 +40,24 @@ public class OrderDetail {
     public void setProductId(int productId) { this.productId = productId; }
     public void setProductName(String productName) { this.productName = productName; }
     public void setQuantity(int quantity) { this.quantity = quantity; }
-    public void setPrice(double price) { this.price = price; }
+    public void setPrice(long price) { this.price = price; }
 
     // Logic nghiệp vụ
-    public double getSubtotal() {
+    public long getSubtotal() {
         return price * quantity;
     }
 
     public String getFormattedPrice() {
-        return String.format("%,.0f đ", price);
+        return Money.format(price);
     }
 
     public String getFormattedSubtotal() {
-        return String.format("%,.0f đ", getSubtotal());
+        return Money.format(getSubtotal());
     }
 
     @Override
     public String toString() {
-        return String.format("OrderDetail[product='%s', qty=%d, price=%,.0f, subtotal=%,.0f]",
+        return String.format("OrderDetail[product='%s', qty=%d, price=%d, subtotal=%d]",
                 productName, quantity, price, getSubtotal());
     }
 }
@@ -0,0 +1,59 @@
+package com.example.ql_shopcoffee.models;
+
+/**
+ * Một dòng export: thông tin order + một order detail
+ * Object được DAO tái sử dụng cho mọi dòng, không giữ tham chiếu sau khi xử lý xong
+ */
+public class OrderExportRow {
+    private int orderId;
+    private long orderDate;
+    private int employeeId;
+    private String status;
+    private String note;
+    private long totalAmount;
+    private int detailId;
+    private int productId;
+    private String productName;
+    private int quantity;
+    private long price;
+
+    public OrderExportRow() {}
+
+    /**
+     * Gán toàn bộ giá trị cho dòng hiện tại
+     */
+    public void set(int orderId, long orderDate, int employeeId, String status, String note, long totalAmount,
+                    int detailId, int productId, String productName, int quantity, long price) {
+        this.orderId = orderId;
+        this.orderDate = orderDate;
+        this.employeeId = employeeId;
+        this.status = status;
+        this.note = note;
+        this.totalAmount = totalAmount;
+        this.detailId = detailId;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    // Getters
+    public int getOrderId() { return orderId; }
+    // Epoch millis
+    public long getOrderDate() { return orderDate; }
+    public int getEmployeeId() { return employeeId; }
+    public String getStatus() { return status; }
+    public String getNote() { return note; }
+    public long getTotalAmount() { return totalAmount; }
+    public int getDetailId() { return detailId; }
+    public int getProductId() { return productId; }
+    public String getProductName() { return productName; }
+    public int getQuantity() { return quantity; }
+    public long getPrice() { return price; }
+
+    @Override
+    public String toString() {
+        return String.format("OrderExportRow[order = %d, detail = %d, product = '%s', qty = %d]",
+                orderId, detailId, productName, quantity);
+    }
+}
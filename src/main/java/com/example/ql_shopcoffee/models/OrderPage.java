@@ -0,0 +1,38 @@
+package com.example.ql_shopcoffee.models;
+
+import java.util.List;
+
+/**
+ * Một trang orders (phân trang keyset theo order_date, id)
+ * nextPageToken = null nghĩa là đã hết dữ liệu
+ */
+public class OrderPage {
+    private final List<Order> orders;
+    private final String nextPageToken;
+
+    public OrderPage(List<Order> orders, String nextPageToken) {
+        this.orders = orders;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public static OrderPage empty() {
+        return new OrderPage(List.of(), null);
+    }
+
+    // Getters
+    public List<Order> getOrders() { return orders; }
+    public String getNextPageToken() { return nextPageToken; }
+
+    public boolean hasMore() {
+        return nextPageToken != null;
+    }
+
+    public int size() {
+        return orders.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("OrderPage[size = %d, hasMore = %s]", orders.size(), hasMore());
+    }
+}
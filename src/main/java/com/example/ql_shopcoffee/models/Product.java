@@ -1,19 +1,21 @@
 package com.example.ql_shopcoffee.models;
 
+import com.example.ql_shopcoffee.utils.Money;
+
 import java.time.LocalDateTime;
 
 public class Product {
     private int id;
     private String name;
     private int categoryId;
-    private double price;
+    private long price; // đồng
     private String image;
     private boolean status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
     // Constructor cho insert
-    public Product(String name, int categoryId, double price, String image) {
+    public Product(String name, int categoryId, long price, String image) {
         this.name = name;
         this.categoryId = categoryId;
         this.price = price;
@@ -22,7 +24,7 @@ public class Product {
     }
 
     // Constructor full
-    public Product(int id, String name, int categoryId, double price, String image, boolean status, LocalDateTime createdAt, LocalDateTime updatedAt) {
+    public Product(int id, String name, int categoryId, long price, String image, boolean status, LocalDateTime createdAt, LocalDateTime updatedAt) {
         this.id = id;
         this.name = name;
         this.categoryId = categoryId;
@@ -37,7 +39,7 @@ public class Product {
     public int getId() { return id; }
     public String getName() { return name; }
     public int getCategoryId() { return categoryId; }
-    public double getPrice() { return price; }
+    public long getPrice() { return price; }
     public String getImage() { return image; }
     public boolean isStatus() { return status; }
     public LocalDateTime getCreatedAt() { return createdAt; }
@@ -47,7 +49,7 @@ public class Product {
     public void setId(int id) { this.id = id; }
     public void setName(String name) { this.name = name; }
     public void setCategoryId(int categoryId) { this.categoryId = categoryId; }
-    public void setPrice(double price) { this.price = price; }
+    public void setPrice(long price) { this.price = price; }
     public void setImage(String image) { this.image = image; }
     public void setStatus(boolean status) { this.status = status; }
 
@@ -58,12 +60,12 @@ public class Product {
     public void deactivate() { this.status = false; }
 
     public String getFormattedPrice() {
-        return String.format("%, .0f đ", price);
+        return Money.format(price);
     }
 
     @Override
     public String toString() {
-        return String.format("Product[id = %d, name = '%s', price = %, .0f, status = %s]",
-                id, name, price, status ? "Active" : "Inactive");
+        return String.format("Product[id = %d, name = '%s', price = %s, status = %s]",
+                id, name, Money.format(price), status ? "Active" : "Inactive");
     }
 }
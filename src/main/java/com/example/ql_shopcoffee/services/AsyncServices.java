@@ -0,0 +1,236 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.models.Category;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderPage;
+import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.models.User;
+import com.example.ql_shopcoffee.utils.BackgroundTasks;
+import com.example.ql_shopcoffee.utils.OrderExportWriter;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Facade bất đồng bộ cho controllers: mọi lời gọi chạm database chạy ngoài JavaFX Application Thread
+ * - Kết quả trả về trên luồng UI, controller gọi thenAccept(...) để cập nhật control
+ * - Các lời gọi tìm kiếm / báo cáo dùng key: yêu cầu mới hủy yêu cầu cũ chưa xong
+ * - Thao tác giỏ hàng trên Order (add / remove / update quantity) chỉ đọc cache nên vẫn gọi trực tiếp OrderService
+ */
+public class AsyncServices {
+
+    private static final String PRODUCT_SEARCH = "products.search";
+    private static final String ORDER_SEARCH = "orders.search";
+    private static final String ORDER_LIST = "orders.list";
+    private static final String REPORT_REVENUE = "reports.revenue";
+    private static final String REPORT_DAILY_SALES = "reports.dailySales";
+    private static final String REPORT_TOP_SELLING = "reports.topSelling";
+
+    private final AuthService authService;
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final OrderService orderService;
+    private final BackgroundTasks tasks;
+
+    public AsyncServices() {
+        this(new AuthService(), new ProductService(), new CategoryService(), new OrderService(),
+                BackgroundTasks.getInstance());
+    }
+
+    // Constructor cho testing
+    public AsyncServices(AuthService authService, ProductService productService,
+                         CategoryService categoryService, OrderService orderService, BackgroundTasks tasks) {
+        this.authService = authService;
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.orderService = orderService;
+        this.tasks = tasks;
+    }
+
+    // ========== AUTH ==========
+
+    public CompletableFuture<User> login(String username, String password) {
+        return tasks.supply(() -> authService.login(username, password));
+    }
+
+    public CompletableFuture<Boolean> changePassword(String oldPassword, String newPassword) {
+        return tasks.supply(() -> authService.changePassword(oldPassword, newPassword));
+    }
+
+    public CompletableFuture<Boolean> isUsernameAvailable(String username) {
+        return tasks.supply(() -> authService.isUsernameAvailable(username));
+    }
+
+    // ========== PRODUCTS ==========
+
+    public CompletableFuture<List<Product>> getAllProducts() {
+        return tasks.supply(productService::getAllProducts);
+    }
+
+    public CompletableFuture<List<Product>> getAllProductsIncludingInactive() {
+        return tasks.supply(productService::getAllProductsIncludingInactive);
+    }
+
+    public CompletableFuture<List<Product>> getProductsByCategory(int categoryId) {
+        return tasks.supply(() -> productService.getProductsByCategory(categoryId));
+    }
+
+    /**
+     * Tìm kiếm theo từng phím gõ: kết quả của từ khóa cũ bị hủy, không bao giờ ghi đè kết quả mới
+     */
+    public CompletableFuture<List<Product>> searchProducts(String keyword, int limit) {
+        return tasks.supplyLatest(PRODUCT_SEARCH, () -> productService.searchProducts(keyword, limit));
+    }
+
+    public CompletableFuture<List<Product>> searchProductsFullText(String keyword, int offset, int limit) {
+        return tasks.supplyLatest(PRODUCT_SEARCH, () -> productService.searchProductsFullText(keyword, offset, limit));
+    }
+
+    public CompletableFuture<Boolean> addProduct(String name, int categoryId, long price, String image) {
+        return tasks.supply(() -> productService.addProduct(name, categoryId, price, image));
+    }
+
+    public CompletableFuture<Boolean> updateProduct(int id, String name, int categoryId, long price,
+                                                    String image, boolean status) {
+        return tasks.supply(() -> productService.updateProduct(id, name, categoryId, price, image, status));
+    }
+
+    public CompletableFuture<Boolean> deleteProduct(int id) {
+        return tasks.supply(() -> productService.deleteProduct(id));
+    }
+
+    public CompletableFuture<Boolean> activateProduct(int id) {
+        return tasks.supply(() -> productService.activateProduct(id));
+    }
+
+    public CompletableFuture<Boolean> deactivateProduct(int id) {
+        return tasks.supply(() -> productService.deactivateProduct(id));
+    }
+
+    // ========== CATEGORIES ==========
+
+    public CompletableFuture<List<Category>> getAllCategories() {
+        return tasks.supply(categoryService::getAllCategories);
+    }
+
+    public CompletableFuture<Boolean> addCategory(String name, String description) {
+        return tasks.supply(() -> categoryService.addCategory(name, description));
+    }
+
+    public CompletableFuture<Boolean> updateCategory(int id, String name, String description) {
+        return tasks.supply(() -> categoryService.updateCategory(id, name, description));
+    }
+
+    public CompletableFuture<Boolean> deleteCategory(int id) {
+        return tasks.supply(() -> categoryService.deleteCategory(id));
+    }
+
+    // ========== ORDERS ==========
+
+    public CompletableFuture<Boolean> checkout(Order order, String note) {
+        return tasks.supply(() -> orderService.checkout(order, note));
+    }
+
+    public CompletableFuture<Boolean> cancelOrder(int orderId) {
+        return tasks.supply(() -> orderService.cancelOrder(orderId));
+    }
+
+    public CompletableFuture<Order> getOrderById(int id) {
+        return tasks.supply(() -> orderService.getOrderById(id));
+    }
+
+    /**
+     * Trang danh sách orders: đổi bộ lọc / trang khi trang trước chưa tải xong thì trang trước bị hủy
+     */
+    public CompletableFuture<OrderPage> getAllOrders(String pageToken, int pageSize) {
+        return tasks.supplyLatest(ORDER_LIST, () -> orderService.getAllOrders(pageToken, pageSize));
+    }
+
+    public CompletableFuture<OrderPage> getMyOrders(String pageToken, int pageSize) {
+        return tasks.supplyLatest(ORDER_LIST, () -> orderService.getMyOrders(pageToken, pageSize));
+    }
+
+    public CompletableFuture<OrderPage> getOrdersByStatus(String status, String pageToken, int pageSize) {
+        return tasks.supplyLatest(ORDER_LIST, () -> orderService.getOrdersByStatus(status, pageToken, pageSize));
+    }
+
+    public CompletableFuture<List<Order>> getTodayOrders() {
+        return tasks.supplyLatest(ORDER_LIST, orderService::getTodayOrders);
+    }
+
+    public CompletableFuture<List<Order>> searchOrdersByNote(String keyword, int offset, int limit) {
+        return tasks.supplyLatest(ORDER_SEARCH, () -> orderService.searchOrdersByNote(keyword, offset, limit));
+    }
+
+    // ========== REPORTS ==========
+
+    public CompletableFuture<Integer> getTodayOrderCount() {
+        return tasks.supply(orderService::getTodayOrderCount);
+    }
+
+    public CompletableFuture<Long> getTodayRevenue() {
+        return tasks.supply(orderService::getTodayRevenue);
+    }
+
+    public CompletableFuture<Long> getRevenueByDateRange(LocalDateTime start, LocalDateTime end) {
+        return tasks.supplyLatest(REPORT_REVENUE, () -> orderService.getRevenueByDateRange(start, end));
+    }
+
+    public CompletableFuture<List<Object[]>> getDailySales(LocalDate start, LocalDate end) {
+        return tasks.supplyLatest(REPORT_DAILY_SALES, () -> orderService.getDailySales(start, end));
+    }
+
+    public CompletableFuture<List<Object[]>> getTopSellingProducts(LocalDate start, LocalDate end, int limit) {
+        return tasks.supplyLatest(REPORT_TOP_SELLING, () -> orderService.getTopSellingProducts(start, end, limit));
+    }
+
+    /**
+     * progressListener được gọi trên luồng nền, cập nhật control thì bọc trong Platform.runLater
+     */
+    public CompletableFuture<Long> exportOrdersByDateRange(LocalDateTime start, LocalDateTime end, Writer out,
+                                                           OrderExportWriter.Format format,
+                                                           LongConsumer progressListener) {
+        return tasks.supply(() -> orderService.exportOrdersByDateRange(start, end, out, format, progressListener));
+    }
+
+    // ========== GENERIC ==========
+
+    /**
+     * Chạy lời gọi service bất kỳ chưa có sẵn method async
+     */
+    public <T> CompletableFuture<T> run(Supplier<T> call) {
+        return tasks.supply(call);
+    }
+
+    public <T> CompletableFuture<T> runLatest(String key, Supplier<T> call) {
+        return tasks.supplyLatest(key, call);
+    }
+
+    /**
+     * Hủy các yêu cầu báo cáo / tìm kiếm còn đang chạy (VD: khi rời màn hình)
+     */
+    public void cancelPending() {
+        for (String key : List.of(PRODUCT_SEARCH, ORDER_SEARCH, ORDER_LIST,
+                REPORT_REVENUE, REPORT_DAILY_SALES, REPORT_TOP_SELLING)) {
+            tasks.cancel(key);
+        }
+    }
+
+    /**
+     * Bind vào ProgressIndicator.visibleProperty() / disableProperty() của màn hình
+     */
+    public ReadOnlyBooleanProperty busyProperty() {
+        return tasks.busyProperty();
+    }
+
+    public AuthService getAuthService() { return authService; }
+    public ProductService getProductService() { return productService; }
+    public CategoryService getCategoryService() { return categoryService; }
+    public OrderService getOrderService() { return orderService; }
+}
@@ -3,6 +3,7 @@ package com.example.ql_shopcoffee.services;
 import com.example.ql_shopcoffee.dao.impl.UserDAO;
 import com.example.ql_shopcoffee.dao.interfaces.IUserDAO;
 import com.example.ql_shopcoffee.models.User;
+import com.example.ql_shopcoffee.utils.ProfilingEvents;
 
 public class AuthService {
     private final IUserDAO userDAO;
@@ -21,6 +22,27 @@ public class AuthService {
      * @return User nếu thành công, null nếu thất bại
      */
     public User login(String username, String password) {
+        ProfilingEvents.LoginEvent event = new ProfilingEvents.LoginEvent();
+        event.begin();
+        User user = null;
+        try {
+            user = authenticate(username, password);
+            return user;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.username = username;
+                event.userRole = user != null ? user.getRole() : null;
+                event.success = user != null;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Kiểm tra username / password (phần việc được đo trong LoginEvent)
+     */
+    private User authenticate(String username, String password) {
         if(username == null || username.trim().isEmpty()) {
             System.err.println("Username không được để trống");
             return null;
@@ -0,0 +1,169 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.models.Category;
+import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.utils.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Ảnh chụp bất biến của danh mục: products + categories
+ * - Products tra theo id bằng map khóa int, nhóm sẵn theo category, sắp sẵn theo tên
+ * - Kèm chỉ mục tìm kiếm tên không dấu (ProductSearchIndex)
+ * - Dựng một lần rồi dùng chung cho mọi luồng, đọc không khóa, không cấp phát
+ * - version chỉ tăng khi nội dung thay đổi, UI so version để bỏ qua render lại
+ * Product / Category bên trong dùng chung, không được sửa
+ */
+public final class CatalogSnapshot {
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, List.of(), List.of(), null);
+
+    private final long version;
+    private final IntObjectMap<Product> productsById;
+    private final IntObjectMap<Category> categoriesById;
+    private final IntObjectMap<List<Product>> activeByCategory;
+    private final List<Product> allProducts;
+    private final List<Product> activeProducts;
+    private final List<Category> categories;
+    private final ProductSearchIndex searchIndex;
+
+    /**
+     * @param previous snapshot trước (có thể null), dùng lại phần chỉ mục tìm kiếm của products không đổi tên
+     */
+    CatalogSnapshot(long version, List<Product> products, List<Category> categories, CatalogSnapshot previous) {
+        this.version = version;
+
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparing(Product::getName));
+        List<Category> sortedCategories = new ArrayList<>(categories);
+        sortedCategories.sort(Comparator.comparing(Category::getName));
+
+        IntObjectMap<Category> categoryIdMap = new IntObjectMap<>(sortedCategories.size());
+        IntObjectMap<List<Product>> grouping = new IntObjectMap<>(sortedCategories.size());
+        for (Category category : sortedCategories) {
+            categoryIdMap.put(category.getId(), category);
+            grouping.put(category.getId(), new ArrayList<>());
+        }
+
+        IntObjectMap<Product> idMap = new IntObjectMap<>(sorted.size());
+        List<Product> active = new ArrayList<>();
+        for (Product product : sorted) {
+            idMap.put(product.getId(), product);
+            if (product.isAvailable()) {
+                active.add(product);
+                List<Product> inCategory = grouping.get(product.getCategoryId());
+                if (inCategory != null) {
+                    inCategory.add(product);
+                }
+            }
+        }
+
+        IntObjectMap<List<Product>> categoryMap = new IntObjectMap<>(sortedCategories.size());
+        for (Category category : sortedCategories) {
+            categoryMap.put(category.getId(), List.copyOf(grouping.get(category.getId())));
+        }
+
+        this.productsById = idMap;
+        this.categoriesById = categoryIdMap;
+        this.activeByCategory = categoryMap;
+        this.allProducts = List.copyOf(sorted);
+        this.activeProducts = List.copyOf(active);
+        this.categories = List.copyOf(sortedCategories);
+        this.searchIndex = new ProductSearchIndex(activeProducts, previous != null ? previous.searchIndex : null);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Product theo id (cả active và inactive), null nếu không có
+     */
+    public Product getProduct(int id) {
+        return productsById.get(id);
+    }
+
+    /**
+     * Tất cả products (cả inactive), sắp theo tên
+     */
+    public List<Product> getAllProducts() {
+        return allProducts;
+    }
+
+    /**
+     * Products active, sắp theo tên
+     */
+    public List<Product> getActiveProducts() {
+        return activeProducts;
+    }
+
+    /**
+     * Products active của một category, sắp theo tên
+     */
+    public List<Product> getActiveProducts(int categoryId) {
+        List<Product> products = activeByCategory.get(categoryId);
+        return products != null ? products : List.of();
+    }
+
+    public Category getCategory(int id) {
+        return categoriesById.get(id);
+    }
+
+    /**
+     * Tất cả categories, sắp theo tên
+     */
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    /**
+     * Chỉ mục tìm kiếm tên trên products active
+     */
+    public ProductSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    /**
+     * So sánh nội dung (không tính version)
+     */
+    boolean sameContent(CatalogSnapshot other) {
+        if (allProducts.size() != other.allProducts.size() || categories.size() != other.categories.size()) {
+            return false;
+        }
+        for (int i = 0; i < allProducts.size(); i++) {
+            if (!sameProduct(allProducts.get(i), other.allProducts.get(i))) {
+                return false;
+            }
+        }
+        for (int i = 0; i < categories.size(); i++) {
+            Category a = categories.get(i);
+            Category b = other.categories.get(i);
+            if (a.getId() != b.getId()
+                    || !Objects.equals(a.getName(), b.getName())
+                    || !Objects.equals(a.getDescription(), b.getDescription())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CatalogSnapshot[version = %d, products = %d, active = %d, categories = %d]",
+                version, allProducts.size(), activeProducts.size(), categories.size());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static boolean sameProduct(Product a, Product b) {
+        return a.getId() == b.getId()
+                && a.getCategoryId() == b.getCategoryId()
+                && a.isStatus() == b.isStatus()
+                && a.getPrice() == b.getPrice()
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getImage(), b.getImage());
+    }
+}
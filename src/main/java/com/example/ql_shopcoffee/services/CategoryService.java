@@ -13,24 +13,33 @@ public class CategoryService {
     private final ICategoryDAO categoryDAO;
     private final IProductDAO productDAO;
     private final SessionManager sessionManager;
+    private final ProductCatalogCache catalog;
 
     public CategoryService() {
         this.categoryDAO = new CategoryDAO();
         this.productDAO = new ProductDAO();
         this.sessionManager = SessionManager.getInstance();
+        this.catalog = ProductCatalogCache.getInstance();
     }
 
+    // Constructor cho testing (catalog riêng dựng từ các DAO được truyền vào)
     public CategoryService(ICategoryDAO categoryDAO, IProductDAO productDAO) {
+        this(categoryDAO, productDAO, new ProductCatalogCache(productDAO, categoryDAO, 0));
+    }
+
+    // Constructor cho testing (catalog do caller tạo và đóng)
+    public CategoryService(ICategoryDAO categoryDAO, IProductDAO productDAO, ProductCatalogCache catalog) {
         this.categoryDAO = categoryDAO;
         this.productDAO = productDAO;
         this.sessionManager = SessionManager.getInstance();
+        this.catalog = catalog;
     }
 
     /**
      * Lấy tất cả categories
      */
     public List<Category> getAllCategories() {
-        return categoryDAO.findAll();
+        return catalog.getCategories();
     }
 
     /**
@@ -41,7 +50,7 @@ public class CategoryService {
             System.err.println("ID không hợp lệ");
             return null;
         }
-        return categoryDAO.findById(id);
+        return catalog.getCategory(id);
     }
 
     /**
@@ -77,6 +86,7 @@ public class CategoryService {
         boolean result = categoryDAO.add(category);
 
         if (result) {
+            catalog.awaitRefresh();
             System.out.println("Thêm danh mục thành công: " + category.getName());
         }
 
@@ -123,6 +133,7 @@ public class CategoryService {
         boolean result = categoryDAO.update(category);
 
         if (result) {
+            catalog.awaitRefresh();
             System.out.println("Cập nhật danh mục thành công: " + category.getName());
         }
 
@@ -131,7 +142,7 @@ public class CategoryService {
 
     /**
      * Xóa category - CHỈ Manager
-     * Không cho xóa nếu còn products trong category
+     * Không cho xóa nếu còn products active trong category
      */
     public boolean deleteCategory(int id) {
         // Kiểm tra quyền
@@ -151,16 +162,19 @@ public class CategoryService {
             return false;
         }
 
-        // Kiểm tra xem có products nào trong category không
+        // Kiểm tra trực tiếp trong database: snapshot danh mục có thể chưa thấy sản phẩm vừa thêm từ máy khác
         List<?> products = productDAO.findByCategory(id);
         if (!products.isEmpty()) {
             System.err.println("Không thể xóa danh mục vì còn " + products.size() + " sản phẩm");
             return false;
         }
 
+        // products.category_id là ON DELETE CASCADE: các sản phẩm inactive còn lại trong category bị xóa theo
+        // (lỗi và không xóa gì nếu sản phẩm đó đã có trong order_details vì product_id là ON DELETE RESTRICT)
         boolean result = categoryDAO.delete(id);
 
         if (result) {
+            catalog.awaitRefresh();
             System.out.println("Xóa danh mục thành công: " + category.getName());
         }
 
@@ -171,7 +185,7 @@ public class CategoryService {
      * Đếm số lượng categories
      */
     public int getCategoryCount() {
-        return categoryDAO.count();
+        return catalog.getCategories().size();
     }
 
     /**
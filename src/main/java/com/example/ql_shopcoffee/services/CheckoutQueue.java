@@ -0,0 +1,627 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.dao.impl.OrderDAO;
+import com.example.ql_shopcoffee.dao.interfaces.IOrderDAO;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderDetail;
+import com.example.ql_shopcoffee.utils.EpochTime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Hàng đợi checkout ghi sau (write-behind)
+ * - submit: ghi order vào file hàng đợi (append), cấp số hóa đơn rồi trả về ngay, không chờ SQLite
+ * - Luồng nền lấy các orders đang chờ, ghi vào database theo lô trong một transaction, lỗi thì thử lại
+ * - Khởi động: đọc lại file, bỏ bản ghi cuối bị ghi dở, ghi lại các orders chưa vào database
+ *   ((terminal_id, receipt_no) là UNIQUE nên order đã commit trước khi crash không bị ghi trùng)
+ * - Số hóa đơn cấp theo từng máy quầy: nhiều máy dùng chung cf.db không đụng số của nhau
+ * - Hàng đợi rỗng thì file được cắt về 0
+ * Bản ghi trong file: [int độ dài][dữ liệu order][int CRC32 của dữ liệu]
+ */
+public class CheckoutQueue {
+
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    private static final int MAX_SINGLE_ATTEMPTS = 10;
+    private static final long MIN_RETRY_DELAY_MILLIS = 100;
+    private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+    private static final int MAX_RECORD_BYTES = 16 * 1024 * 1024;
+
+    private static CheckoutQueue instance;
+
+    private final IOrderDAO orderDAO;
+    private final Path file;
+    private final Path failedFile;
+    private final String configuredTerminalId;
+    private final boolean syncEachSubmit;
+    private final int batchSize;
+
+    // Bảo vệ file, pending và nextReceiptNo
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final ArrayDeque<Order> pending = new ArrayDeque<>();
+    private FileChannel channel;
+    private String terminalId;
+    private long nextReceiptNo;
+    // Orders đọc lại từ file lúc khởi động: bị bỏ qua khi ghi nghĩa là đã commit trước khi crash
+    private final Set<Order> recovered = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean writing;
+    private boolean closing;
+    private Thread writer;
+
+    // Trạng thái thử lại (chỉ luồng ghi dùng)
+    private int attempts;
+    private int isolateRemaining;
+
+    // Thống kê (chỉ sửa khi giữ lock)
+    private volatile long submitted;
+    private volatile long committed;
+    private volatile long batches;
+    private volatile long retries;
+    private volatile long failed;
+
+    public CheckoutQueue(IOrderDAO orderDAO, Path file, boolean syncEachSubmit, int batchSize) {
+        this(orderDAO, file, syncEachSubmit, batchSize, null);
+    }
+
+    /**
+     * @param terminalId mã máy quầy, null thì dùng mã sinh một lần và lưu cạnh file hàng đợi (file + ".terminal")
+     */
+    public CheckoutQueue(IOrderDAO orderDAO, Path file, boolean syncEachSubmit, int batchSize, String terminalId) {
+        this.orderDAO = orderDAO;
+        this.file = file;
+        this.failedFile = file.resolveSibling(file.getFileName() + ".failed");
+        this.syncEachSubmit = syncEachSubmit;
+        this.batchSize = Math.max(1, batchSize);
+        this.configuredTerminalId = terminalId;
+    }
+
+    /**
+     * Instance dùng chung, được khởi động (và phục hồi từ file) ở lần gọi đầu
+     * -Dcf.checkout.queueFile=checkout-queue.log, -Dcf.checkout.fsync=true (fsync mỗi lần checkout),
+     * -Dcf.checkout.batchSize=64, -Dcf.checkout.terminalId=quay-1 (mặc định: mã sinh tự động)
+     */
+    public static synchronized CheckoutQueue getInstance() {
+        if (instance == null) {
+            instance = new CheckoutQueue(new OrderDAO(),
+                    Path.of(System.getProperty("cf.checkout.queueFile", "checkout-queue.log")),
+                    Boolean.getBoolean("cf.checkout.fsync"),
+                    Integer.getInteger("cf.checkout.batchSize", 64),
+                    System.getProperty("cf.checkout.terminalId"));
+            instance.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Ghi hết hàng đợi rồi đóng instance dùng chung (nếu đã được tạo)
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close(MAX_RETRY_DELAY_MILLIS * 2);
+            instance = null;
+        }
+    }
+
+    /**
+     * Mở file hàng đợi, phục hồi orders chưa ghi và chạy luồng ghi nền
+     */
+    public void start() {
+        lock.lock();
+        try {
+            if (writer != null) {
+                return;
+            }
+            terminalId = configuredTerminalId != null ? configuredTerminalId : loadTerminalId();
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long lastReceiptNo = recover();
+            nextReceiptNo = Math.max(lastReceiptNo, orderDAO.getMaxReceiptNo(terminalId)) + 1;
+
+            writer = new Thread(this::drainLoop, "checkout-writer");
+            writer.setDaemon(true);
+            writer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Không mở được file hàng đợi checkout " + file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Đưa order vào hàng đợi, trả về số hóa đơn (gán vào order.receiptNo), -1 nếu không ghi được file
+     * Order được chép lại nên UI có thể dùng tiếp object sau khi submit
+     */
+    public long submit(Order order) {
+        lock.lock();
+        try {
+            if (channel == null || closing) {
+                System.err.println("Hàng đợi checkout chưa mở hoặc đang đóng");
+                return -1;
+            }
+
+            long receiptNo = nextReceiptNo;
+            byte[] payload = encode(order, terminalId, receiptNo);
+            try {
+                appendRecord(payload);
+                if (syncEachSubmit) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                System.err.println("Lỗi khi ghi hàng đợi checkout: " + e.getMessage());
+                e.printStackTrace();
+                return -1;
+            }
+
+            nextReceiptNo++;
+            order.setReceiptNo(receiptNo);
+            order.setTerminalId(terminalId);
+            pending.add(decode(payload));
+            submitted++;
+            changed.signalAll();
+            return receiptNo;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Chờ tới khi mọi order đã submit được ghi vào database
+     * @return false nếu hết thời gian mà vẫn còn order chờ
+     */
+    public boolean awaitDrained(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        lock.lock();
+        try {
+            while (!pending.isEmpty() || writing) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                changed.awaitNanos(remaining);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ngừng nhận order, chờ ghi hết (tối đa timeoutMillis) rồi đóng file
+     * Order chưa kịp ghi vẫn nằm trong file và được ghi lại ở lần khởi động sau
+     */
+    public void close(long timeoutMillis) {
+        lock.lock();
+        try {
+            if (channel == null) {
+                return;
+            }
+            closing = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            writer.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.interrupt();
+
+        lock.lock();
+        try {
+            if (!pending.isEmpty()) {
+                System.err.println("Còn " + pending.size() + " hóa đơn chưa ghi, sẽ ghi lại khi khởi động");
+            }
+            channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Lỗi khi đóng hàng đợi checkout: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            channel = null;
+            lock.unlock();
+        }
+    }
+
+    // ========== STATISTICS ==========
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getSubmitted() { return submitted; }
+    public long getCommitted() { return committed; }
+    public long getBatches() { return batches; }
+    public long getRetries() { return retries; }
+    public long getFailed() { return failed; }
+    public String getTerminalId() { return terminalId; }
+
+    @Override
+    public String toString() {
+        return String.format("CheckoutQueue[pending = %d, submitted = %d, committed = %d, batches = %d, retries = %d, failed = %d]",
+                getPendingCount(), submitted, committed, batches, retries, failed);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Luồng ghi nền: lấy tối đa batchSize orders, ghi một transaction, thành công thì bỏ khỏi hàng đợi
+     * Lô lỗi nhiều lần thì ghi lẻ từng order của lô đó để tách order hỏng, order hỏng chuyển sang file .failed
+     * Lỗi bất kỳ trong một vòng (kể cả RuntimeException) đi theo đường thử lại, luồng ghi không bao giờ chết giữa chừng
+     */
+    private void drainLoop() {
+        while (true) {
+            boolean again;
+            try {
+                again = drainOnce();
+            } catch (RuntimeException e) {
+                System.err.println("Lỗi khi ghi hàng đợi checkout: " + e.getMessage());
+                e.printStackTrace();
+                again = onBatchFailed();
+                if (again) {
+                    sleepBeforeRetry(attempts);
+                }
+            }
+            if (!again) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Một vòng ghi: lấy lô, fsync file, ghi database rồi cập nhật hàng đợi
+     * @return false khi luồng ghi phải dừng (đang đóng / bị ngắt)
+     */
+    private boolean drainOnce() {
+        List<Order> batch;
+        FileChannel out;
+        lock.lock();
+        try {
+            while (pending.isEmpty() && !closing) {
+                changed.await();
+            }
+            if (pending.isEmpty()) {
+                return false;
+            }
+            int size = isolateRemaining > 0 ? 1 : batchSize;
+            batch = new ArrayList<>(Math.min(size, pending.size()));
+            for (Order order : pending) {
+                if (batch.size() == size) {
+                    break;
+                }
+                batch.add(order);
+            }
+            writing = true;
+            // close() gán channel = null khi giữ lock: chụp lại để fsync ngoài lock
+            out = channel;
+        } catch (InterruptedException e) {
+            return false;
+        } finally {
+            lock.unlock();
+        }
+
+        // Bản ghi phải xuống đĩa trước khi ghi database, fsync ngoài khóa để submit không phải chờ
+        if (!syncEachSubmit && out != null) {
+            try {
+                out.force(false);
+            } catch (IOException e) {
+                System.err.println("Lỗi khi fsync hàng đợi checkout: " + e.getMessage());
+            }
+        }
+
+        int inserted = orderDAO.insertBatch(batch);
+        if (inserted < 0) {
+            boolean again = onBatchFailed();
+            if (again) {
+                sleepBeforeRetry(attempts);
+            }
+            return again;
+        }
+
+        lock.lock();
+        try {
+            writing = false;
+            if (channel == null) {
+                return false;
+            }
+            acknowledge(batch, inserted);
+            batches++;
+            attempts = 0;
+            isolateRemaining = Math.max(0, isolateRemaining - batch.size());
+            if (pending.isEmpty()) {
+                truncate();
+            }
+            return true;
+        } finally {
+            changed.signalAll();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Bỏ lô đã ghi khỏi hàng đợi (gọi khi giữ lock)
+     * Order bị insertBatch bỏ qua (id = 0) chỉ hợp lệ khi là bản ghi phục hồi đã commit trước khi crash,
+     * ngược lại khóa (terminal_id, receipt_no) đã bị order khác chiếm: không tính là đã ghi, chuyển sang file .failed
+     */
+    private void acknowledge(List<Order> batch, int inserted) {
+        int replays = 0;
+        List<Order> conflicts = new ArrayList<>();
+        for (Order order : batch) {
+            pending.poll();
+            boolean replay = recovered.remove(order);
+            if (order.getId() > 0) {
+                committed++;
+            } else if (replay) {
+                replays++;
+                committed++;
+            } else {
+                conflicts.add(order);
+            }
+        }
+        if (inserted + replays + conflicts.size() != batch.size()) {
+            System.err.println("Số hóa đơn đã ghi (" + inserted + ") không khớp lô " + batch.size()
+                    + " (ghi lại " + replays + ", trùng khóa " + conflicts.size() + ")");
+        }
+        for (Order order : conflicts) {
+            moveToFailed(order, "trùng số hóa đơn của máy " + order.getTerminalId() + " trong database");
+        }
+    }
+
+    /**
+     * Lô ghi lỗi: đếm số lần thử, chuyển sang ghi lẻ / bỏ order hỏng khi thử quá nhiều
+     * @return false nếu đang đóng (orders còn trong file sẽ được ghi khi khởi động lại)
+     */
+    private boolean onBatchFailed() {
+        lock.lock();
+        try {
+            writing = false;
+            attempts++;
+            retries++;
+            if (closing || channel == null) {
+                return false;
+            }
+            if (isolateRemaining == 0 && pending.size() > 1 && attempts >= MAX_BATCH_ATTEMPTS) {
+                isolateRemaining = Math.min(batchSize, pending.size());
+                attempts = 0;
+            } else if ((isolateRemaining > 0 || pending.size() == 1 || batchSize == 1) && attempts >= MAX_SINGLE_ATTEMPTS) {
+                Order order = pending.poll();
+                recovered.remove(order);
+                moveToFailed(order, "sau " + MAX_SINGLE_ATTEMPTS + " lần thử");
+                isolateRemaining = Math.max(0, isolateRemaining - 1);
+                attempts = 0;
+                if (pending.isEmpty()) {
+                    truncate();
+                }
+            }
+            return true;
+        } finally {
+            changed.signalAll();
+            lock.unlock();
+        }
+    }
+
+    private void sleepBeforeRetry(int attempts) {
+        long delay = Math.min(MAX_RETRY_DELAY_MILLIS, MIN_RETRY_DELAY_MILLIS << Math.min(Math.max(attempts - 1, 0), 10));
+        lock.lock();
+        try {
+            // Đang đóng thì không chờ hết thời gian
+            if (!closing) {
+                changed.await(delay, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Đọc lại file khi khởi động, đưa mọi bản ghi hợp lệ vào pending, cắt bỏ phần đuôi hỏng
+     * @return receipt_no lớn nhất trong file (0 nếu file rỗng)
+     */
+    private long recover() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            return 0;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE));
+        channel.read(buffer, 0);
+        buffer.flip();
+
+        long lastReceiptNo = 0;
+        long validEnd = 0;
+        while (buffer.remaining() >= Integer.BYTES) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || buffer.remaining() < length + Integer.BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            if (buffer.getInt() != checksum(payload)) {
+                break;
+            }
+            Order order = decode(payload);
+            if (order.getTerminalId() == null) {
+                // Bản ghi từ phiên bản cũ chưa lưu mã máy
+                order.setTerminalId(terminalId);
+            }
+            pending.add(order);
+            recovered.add(order);
+            lastReceiptNo = Math.max(lastReceiptNo, order.getReceiptNo());
+            validEnd = buffer.position();
+        }
+
+        if (validEnd < size) {
+            System.err.println("Bỏ " + (size - validEnd) + " bytes ghi dở cuối file hàng đợi checkout");
+            channel.truncate(validEnd);
+            channel.force(false);
+        }
+        channel.position(validEnd);
+        if (!pending.isEmpty()) {
+            System.out.println("Phục hồi " + pending.size() + " hóa đơn từ hàng đợi checkout");
+        }
+        return lastReceiptNo;
+    }
+
+    private void appendRecord(byte[] payload) throws IOException {
+        ByteBuffer record = toRecord(payload);
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    private void truncate() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+        } catch (IOException e) {
+            System.err.println("Lỗi khi thu gọn file hàng đợi checkout: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Đọc mã máy quầy đã lưu cạnh file hàng đợi, chưa có thì sinh UUID mới và lưu lại
+     */
+    private String loadTerminalId() throws IOException {
+        Path idFile = file.resolveSibling(file.getFileName() + ".terminal");
+        if (Files.exists(idFile)) {
+            String id = Files.readString(idFile, StandardCharsets.UTF_8).trim();
+            if (!id.isEmpty()) {
+                return id;
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(idFile, id, StandardCharsets.UTF_8);
+        return id;
+    }
+
+    private void moveToFailed(Order order, String reason) {
+        failed++;
+        System.err.println("Không ghi được hóa đơn số " + order.getReceiptNo() + " (" + reason + "), chuyển sang " + failedFile);
+        ByteBuffer record = toRecord(encode(order, order.getTerminalId(), order.getReceiptNo()));
+        try (FileChannel out = FileChannel.open(failedFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (record.hasRemaining()) {
+                out.write(record);
+            }
+            out.force(false);
+        } catch (IOException e) {
+            System.err.println("Lỗi khi ghi file hóa đơn lỗi: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static ByteBuffer toRecord(byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(payload.length + 2 * Integer.BYTES);
+        record.putInt(payload.length).put(payload).putInt(checksum(payload)).flip();
+        return record;
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(Order order, String terminalId, long receiptNo) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(receiptNo);
+            out.writeInt(order.getEmployeeId());
+            out.writeLong(EpochTime.toEpochMillis(order.getOrderDate()));
+            writeString(out, order.getStatus());
+            writeString(out, order.getNote());
+            List<OrderDetail> details = order.getOrderDetails();
+            out.writeInt(details.size());
+            for (OrderDetail detail : details) {
+                out.writeInt(detail.getProductId());
+                writeString(out, detail.getProductName());
+                out.writeInt(detail.getQuantity());
+                out.writeLong(detail.getPrice());
+            }
+            // Đặt cuối để vẫn đọc được bản ghi cũ không có mã máy
+            writeString(out, terminalId);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Order decode(byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            long receiptNo = in.readLong();
+            int employeeId = in.readInt();
+            long orderDate = in.readLong();
+            String status = readString(in);
+            String note = readString(in);
+            Order order = new Order(0, employeeId, EpochTime.fromEpochMillis(orderDate), 0, status, note);
+            order.setReceiptNo(receiptNo);
+            int count = in.readInt();
+            List<OrderDetail> details = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                details.add(new OrderDetail(in.readInt(), readString(in), in.readInt(), in.readLong()));
+            }
+            order.setOrderDetails(details);
+            if (in.available() > 0) {
+                order.setTerminalId(readString(in));
+            }
+            return order;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.dao.impl.OrderDAO;
+import com.example.ql_shopcoffee.dao.interfaces.IOrderDAO;
+import com.example.ql_shopcoffee.models.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gộp các lần checkout đồng thời vào một transaction (group commit)
+ * - Order đầu tiên tới mở một cửa sổ windowMillis, mọi order tới trong cửa sổ (tối đa maxBatch) được ghi chung
+ * - Trong lúc một lô đang commit, orders mới tự dồn lại cho lô sau nên tải càng cao lô càng lớn
+ * - Mỗi caller nhận CompletableFuture với id của order, -1 nếu order đó không ghi được
+ * - Lô lỗi thì ghi lại từng order riêng để một order hỏng không kéo theo cả lô
+ * - Lỗi bất ngờ (RuntimeException) chỉ làm hỏng future của lô đó, luồng commit chạy tiếp
+ */
+public class GroupCommitCoordinator {
+
+    private static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+
+    private static GroupCommitCoordinator instance;
+
+    private final IOrderDAO orderDAO;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final long timeoutMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition arrived = lock.newCondition();
+    private final List<PendingOrder> queue = new ArrayList<>();
+    private long firstArrivalNanos;
+    private boolean closed;
+    private Thread committer;
+
+    // Thống kê (chỉ sửa trên luồng commit)
+    private volatile long batches;
+    private volatile long orders;
+    private volatile long fallbacks;
+    private volatile int largestBatch;
+
+    public GroupCommitCoordinator(IOrderDAO orderDAO, long windowMillis, int maxBatch) {
+        this(orderDAO, windowMillis, maxBatch, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param timeoutMillis thời gian tối đa insert() chờ commit
+     */
+    public GroupCommitCoordinator(IOrderDAO orderDAO, long windowMillis, int maxBatch, long timeoutMillis) {
+        this.orderDAO = orderDAO;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        this.maxBatch = Math.max(1, maxBatch);
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+    }
+
+    /**
+     * -Dcf.db.groupCommit.windowMs=0: mặc định không chờ thêm, chỉ gộp các order dồn lại khi lô trước đang commit
+     * (commit WAL chỉ tốn vài trăm micro giây nên chờ cố định làm chậm hơn), đĩa fsync chậm thì đặt 2-5
+     * -Dcf.db.groupCommit.maxBatch=64, -Dcf.db.groupCommit.timeoutMs=30000
+     */
+    public static synchronized GroupCommitCoordinator getInstance() {
+        if (instance == null) {
+            instance = new GroupCommitCoordinator(new OrderDAO(),
+                    Long.getLong("cf.db.groupCommit.windowMs", 0),
+                    Integer.getInteger("cf.db.groupCommit.maxBatch", 64),
+                    Long.getLong("cf.db.groupCommit.timeoutMs", DEFAULT_TIMEOUT_MILLIS));
+        }
+        return instance;
+    }
+
+    /**
+     * Ghi nốt các orders đang chờ rồi dừng instance dùng chung (nếu đã được tạo)
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Đưa order vào lô kế tiếp, future hoàn thành với id (đã gán vào order) hoặc -1 nếu lỗi
+     */
+    public CompletableFuture<Integer> submit(Order order) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (closed) {
+                System.err.println("Group commit đã dừng, không nhận order mới");
+                future.complete(-1);
+                return future;
+            }
+            startIfNeeded();
+            if (queue.isEmpty()) {
+                firstArrivalNanos = System.nanoTime();
+            }
+            queue.add(new PendingOrder(order, future));
+            arrived.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return future;
+    }
+
+    /**
+     * Ghi order và chờ commit xong (thay cho IOrderDAO.insert)
+     * Quá timeoutMillis thì trả false, order vẫn có thể được ghi sau đó (kiểm tra lại bằng id của order)
+     */
+    public boolean insert(Order order) {
+        try {
+            return submit(order).get(timeoutMillis, TimeUnit.MILLISECONDS) > 0;
+        } catch (TimeoutException e) {
+            System.err.println("Lỗi khi chờ group commit: quá " + timeoutMillis + "ms");
+        } catch (ExecutionException e) {
+            System.err.println("Lỗi khi chờ group commit: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Dừng nhận order, chờ lô đang chờ được ghi xong
+     */
+    public void close() {
+        Thread thread;
+        lock.lock();
+        try {
+            closed = true;
+            arrived.signalAll();
+            thread = committer;
+        } finally {
+            lock.unlock();
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // ========== STATISTICS ==========
+
+    public long getBatches() { return batches; }
+    public long getOrders() { return orders; }
+    public long getFallbacks() { return fallbacks; }
+    public int getLargestBatch() { return largestBatch; }
+
+    public double getAverageBatchSize() {
+        long count = batches;
+        return count == 0 ? 0.0 : (double) orders / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("GroupCommitCoordinator[batches = %d, orders = %d, avgBatch = %.1f, largest = %d, fallbacks = %d]",
+                batches, orders, getAverageBatchSize(), largestBatch, fallbacks);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void startIfNeeded() {
+        if (committer == null) {
+            committer = new Thread(this::commitLoop, "group-commit");
+            committer.setDaemon(true);
+            committer.start();
+        }
+    }
+
+    private void commitLoop() {
+        try {
+            runCommitLoop();
+        } finally {
+            // Luồng chết vì Error: lần submit sau tạo luồng mới thay vì treo mãi
+            lock.lock();
+            try {
+                if (committer == Thread.currentThread()) {
+                    committer = null;
+                    if (!queue.isEmpty() && !closed) {
+                        startIfNeeded();
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void runCommitLoop() {
+        while (true) {
+            List<PendingOrder> batch;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    arrived.awaitUninterruptibly();
+                }
+                if (queue.isEmpty()) {
+                    return;
+                }
+                // Chờ thêm orders tới khi hết cửa sổ hoặc đủ lô
+                long deadline = firstArrivalNanos + windowNanos;
+                long remaining;
+                while (queue.size() < maxBatch && !closed && (remaining = deadline - System.nanoTime()) > 0) {
+                    arrived.awaitNanos(remaining);
+                }
+
+                int size = Math.min(maxBatch, queue.size());
+                batch = new ArrayList<>(queue.subList(0, size));
+                queue.subList(0, size).clear();
+                // Orders còn lại đã chờ trong lúc lô trước commit, không mở thêm cửa sổ cho chúng
+                firstArrivalNanos = System.nanoTime() - windowNanos;
+            } catch (InterruptedException e) {
+                // Luồng nội bộ, không dừng theo interrupt (dừng bằng close)
+                continue;
+            } finally {
+                lock.unlock();
+            }
+
+            commit(batch);
+        }
+    }
+
+    private void commit(List<PendingOrder> batch) {
+        try {
+            List<Order> orderList = new ArrayList<>(batch.size());
+            for (PendingOrder pending : batch) {
+                orderList.add(pending.order());
+            }
+
+            if (orderDAO.insertBatch(orderList) < 0) {
+                // Lô bị rollback: ghi riêng từng order, order lỗi chỉ làm hỏng future của chính nó
+                fallbacks++;
+                for (PendingOrder pending : batch) {
+                    insertSingle(pending.order());
+                }
+            }
+
+            batches++;
+            orders += batch.size();
+            largestBatch = Math.max(largestBatch, batch.size());
+        } catch (RuntimeException e) {
+            System.err.println("Lỗi khi group commit: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            // Luôn hoàn thành mọi future của lô, kể cả khi lỗi, để không caller nào bị treo
+            for (PendingOrder pending : batch) {
+                int id = pending.order().getId();
+                pending.future().complete(id > 0 ? id : -1);
+            }
+        }
+    }
+
+    private void insertSingle(Order order) {
+        try {
+            if (!orderDAO.insert(order)) {
+                order.setId(0);
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Lỗi khi thêm hóa đơn: " + e.getMessage());
+            e.printStackTrace();
+            order.setId(0);
+        }
+    }
+
+    private record PendingOrder(Order order, CompletableFuture<Integer> future) {}
+}
@@ -6,29 +6,49 @@ import com.example.ql_shopcoffee.dao.interfaces.IOrderDAO;
 import com.example.ql_shopcoffee.dao.interfaces.IProductDAO;
 import com.example.ql_shopcoffee.models.Order;
 import com.example.ql_shopcoffee.models.OrderDetail;
+import com.example.ql_shopcoffee.models.OrderPage;
 import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.models.User;
+import com.example.ql_shopcoffee.utils.OrderExportWriter;
+import com.example.ql_shopcoffee.utils.ProfilingEvents;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.LongConsumer;
 
 public class OrderService {
 
     private final IOrderDAO orderDAO;
     private final IProductDAO productDAO;
     private final SessionManager sessionManager;
+    private final ProductCatalogCache catalog;
+    // null: checkout ghi vào database ngay (-Dcf.checkout.async=false hoặc khi testing)
+    private final CheckoutQueue checkoutQueue;
+    // Gộp các checkout đồng thời vào một transaction khi ghi ngay, null khi testing
+    private final GroupCommitCoordinator groupCommit;
 
     public OrderService() {
         this.orderDAO = new OrderDAO();
         this.productDAO = new ProductDAO();
         this.sessionManager = SessionManager.getInstance();
+        this.catalog = ProductCatalogCache.getInstance();
+        this.checkoutQueue = Boolean.parseBoolean(System.getProperty("cf.checkout.async", "true"))
+                ? CheckoutQueue.getInstance() : null;
+        this.groupCommit = GroupCommitCoordinator.getInstance();
     }
 
-    // Constructor cho testing
-    public OrderService(IOrderDAO orderDAO, IProductDAO productDAO) {
+    // Constructor cho testing (catalog do caller tạo và đóng)
+    public OrderService(IOrderDAO orderDAO, IProductDAO productDAO, ProductCatalogCache catalog) {
         this.orderDAO = orderDAO;
         this.productDAO = productDAO;
         this.sessionManager = SessionManager.getInstance();
+        this.catalog = catalog;
+        this.checkoutQueue = null;
+        this.groupCommit = null;
     }
 
     // ========== ORDER CREATION & MANAGEMENT ==========
@@ -75,8 +95,8 @@ public class OrderService {
             return false;
         }
 
-        // Kiểm tra product có tồn tại và active không
-        Product product = productDAO.findById(productId);
+        // Kiểm tra product có tồn tại và active không (đọc từ cache, không chạm database)
+        Product product = catalog.getById(productId);
         if (product == null) {
             System.err.println("Sản phẩm không tồn tại");
             return false;
@@ -118,13 +138,7 @@ public class OrderService {
         }
 
         // Tìm OrderDetail có productId tương ứng
-        OrderDetail detailToRemove = null;
-        for (OrderDetail detail : order.getOrderDetails()) {
-            if (detail.getProductId() == productId) {
-                detailToRemove = detail;
-                break;
-            }
-        }
+        OrderDetail detailToRemove = order.findItem(productId);
 
         if (detailToRemove == null) {
             System.err.println("Sản phẩm không có trong order");
@@ -165,8 +179,37 @@ public class OrderService {
 
     /**
      * Thanh toán order với note
+     * Qua hàng đợi checkout: order được ghi vào file hàng đợi và có số hóa đơn ngay (order.getReceiptNo()),
+     * việc ghi vào database chạy nền nên order.getId() chưa có và thống kê cập nhật sau vài mili giây
      */
     public boolean checkout(Order order, String note) {
+        ProfilingEvents.CheckoutEvent event = new ProfilingEvents.CheckoutEvent();
+        event.begin();
+        boolean result = false;
+        try {
+            result = submitCheckout(order, note);
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.mode = checkoutQueue != null ? "queue" : groupCommit != null ? "group" : "direct";
+                if (order != null) {
+                    event.lineCount = order.getOrderDetails().size();
+                    event.itemCount = order.getItemCount();
+                    event.totalAmount = order.getTotalAmount();
+                }
+                User user = sessionManager.getCurrentUser();
+                event.userRole = user != null ? user.getRole() : null;
+                event.success = result;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Kiểm tra rồi ghi order vào hàng đợi / database (phần việc được đo trong CheckoutEvent)
+     */
+    private boolean submitCheckout(Order order, String note) {
         // Validation
         if (order == null) {
             System.err.println("Order không hợp lệ");
@@ -194,12 +237,23 @@ public class OrderService {
         // Tính lại tổng tiền
         order.recalculateTotal();
 
-        // Lưu vào database
-        boolean result = orderDAO.insert(order);
+        // Lưu vào hàng đợi (hoặc thẳng vào database)
+        boolean result;
+        if (checkoutQueue != null) {
+            result = checkoutQueue.submit(order) > 0;
+        } else if (groupCommit != null) {
+            result = groupCommit.insert(order);
+        } else {
+            result = orderDAO.insert(order);
+        }
 
         if (result) {
             System.out.println("  Thanh toán thành công!");
-            System.out.println("  Order ID: " + order.getId());
+            if (checkoutQueue != null) {
+                System.out.println("  Số hóa đơn: " + order.getReceiptNo());
+            } else {
+                System.out.println("  Order ID: " + order.getId());
+            }
             System.out.println("  Tổng tiền: " + order.getFormattedTotal());
             System.out.println("  Số items: " + order.getItemCount());
         } else {
@@ -277,6 +331,17 @@ public class OrderService {
         return orderDAO.findAll();
     }
 
+    /**
+     * Lấy một trang orders (CHỈ Manager), pageToken = null để lấy trang đầu
+     */
+    public OrderPage getAllOrders(String pageToken, int pageSize) {
+        if (!sessionManager.isManager()) {
+            System.err.println("Chỉ Manager mới xem được tất cả orders");
+            return OrderPage.empty();
+        }
+        return orderDAO.findAllPage(pageToken, pageSize);
+    }
+
     /**
      * Lấy orders của user hiện tại
      */
@@ -290,6 +355,38 @@ public class OrderService {
         return orderDAO.findByEmployee(employeeId);
     }
 
+    /**
+     * Lấy một trang orders của user hiện tại
+     */
+    public OrderPage getMyOrders(String pageToken, int pageSize) {
+        if (!sessionManager.isLoggedIn()) {
+            System.err.println("Phải đăng nhập");
+            return OrderPage.empty();
+        }
+
+        int employeeId = sessionManager.getCurrentUserId();
+        return orderDAO.findByEmployeePage(employeeId, pageToken, pageSize);
+    }
+
+    /**
+     * Tìm orders theo ghi chú (VD: "banh sinh nhat"), offset/limit để phân trang
+     * Manager tìm trong tất cả orders, nhân viên chỉ trong orders của mình
+     */
+    public List<Order> searchOrdersByNote(String keyword, int offset, int limit) {
+        if (!sessionManager.isLoggedIn()) {
+            System.err.println("Phải đăng nhập");
+            return List.of();
+        }
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return List.of();
+        }
+
+        if (sessionManager.isManager()) {
+            return orderDAO.searchByNote(keyword, offset, limit);
+        }
+        return orderDAO.searchByEmployeeAndNote(sessionManager.getCurrentUserId(), keyword, offset, limit);
+    }
+
     /**
      * Lấy orders của một nhân viên cụ thể (CHỈ Manager)
      */
@@ -345,6 +442,22 @@ public class OrderService {
         return orderDAO.findByStatus(status);
     }
 
+    /**
+     * Lấy một trang orders theo status
+     */
+    public OrderPage getOrdersByStatus(String status, String pageToken, int pageSize) {
+        if (!sessionManager.isManager()) {
+            if (!sessionManager.isLoggedIn()) {
+                System.err.println("Phải đăng nhập");
+                return OrderPage.empty();
+            }
+            // Employee chỉ xem của mình
+            return orderDAO.findByEmployeeAndStatusPage(sessionManager.getCurrentUserId(), status, pageToken, pageSize);
+        }
+
+        return orderDAO.findByStatusPage(status, pageToken, pageSize);
+    }
+
     // ========== STATISTICS ==========
 
     /**
@@ -354,17 +467,17 @@ public class OrderService {
         if (sessionManager.isManager()) {
             return orderDAO.countTodayOrders();
         } else {
-            return getTodayOrders().size();
+            return orderDAO.countTodayOrdersByEmployee(sessionManager.getCurrentUserId());
         }
     }
 
     /**
      * Tính doanh thu hôm nay (CHỈ Manager)
      */
-    public double getTodayRevenue() {
+    public long getTodayRevenue() {
         if (!sessionManager.isManager()) {
             System.err.println("Chỉ Manager mới xem được doanh thu");
-            return 0.0;
+            return 0;
         }
 
         return orderDAO.getTodayRevenue();
@@ -373,15 +486,30 @@ public class OrderService {
     /**
      * Tính doanh thu theo khoảng thời gian (CHỈ Manager)
      */
-    public double getRevenueByDateRange(LocalDateTime start, LocalDateTime end) {
+    public long getRevenueByDateRange(LocalDateTime start, LocalDateTime end) {
         if (!sessionManager.isManager()) {
             System.err.println("Chỉ Manager mới xem được doanh thu");
-            return 0.0;
+            return 0;
         }
 
         return orderDAO.getRevenueByDateRange(start, end);
     }
 
+    /**
+     * Doanh số từng ngày trong khoảng (CHỈ Manager), dùng cho biểu đồ dashboard
+     */
+    public List<Object[]> getDailySales(LocalDate start, LocalDate end) {
+        if (!sessionManager.isManager()) {
+            System.err.println("Chỉ Manager mới xem được doanh thu");
+            return List.of();
+        }
+        if (start == null || end == null || start.isAfter(end)) {
+            return List.of();
+        }
+
+        return orderDAO.getDailySales(start, end);
+    }
+
     /**
      * Lấy top sản phẩm bán chạy (CHỈ Manager)
      */
@@ -394,6 +522,107 @@ public class OrderService {
         return orderDAO.getTopSellingProducts(limit);
     }
 
+    /**
+     * Lấy top sản phẩm bán chạy trong khoảng ngày (CHỈ Manager)
+     */
+    public List<Object[]> getTopSellingProducts(LocalDate start, LocalDate end, int limit) {
+        if (!sessionManager.isManager()) {
+            System.err.println("Chỉ Manager mới xem được thống kê");
+            return List.of();
+        }
+        if (start == null || end == null || start.isAfter(end)) {
+            return List.of();
+        }
+
+        return orderDAO.getTopSellingProducts(start, end, limit);
+    }
+
+    /**
+     * Kiểm tra và sửa total_amount bị lệch so với order details (CHỈ Manager)
+     * @return số orders đã sửa, -1 nếu thất bại
+     */
+    public int verifyAndRepairOrderTotals() {
+        if (!sessionManager.isManager()) {
+            System.err.println("Chỉ Manager mới được sửa dữ liệu hóa đơn");
+            return -1;
+        }
+
+        int inconsistent = orderDAO.countInconsistentTotals();
+        if (inconsistent <= 0) {
+            return inconsistent;
+        }
+
+        System.out.println("Phát hiện " + inconsistent + " hóa đơn lệch tổng tiền, đang sửa...");
+        return orderDAO.repairOrderTotals();
+    }
+
+    /**
+     * Kiểm tra bảng tổng hợp doanh số theo sản phẩm, lệch thì tính lại (CHỈ Manager)
+     * @return số nhóm (ngày, sản phẩm) bị lệch, -1 nếu thất bại
+     */
+    public int verifyAndRepairProductSales() {
+        if (!sessionManager.isManager()) {
+            System.err.println("Chỉ Manager mới được sửa dữ liệu hóa đơn");
+            return -1;
+        }
+
+        int mismatches = orderDAO.countProductSalesMismatches();
+        if (mismatches <= 0) {
+            return mismatches;
+        }
+
+        System.out.println("Phát hiện " + mismatches + " nhóm doanh số sản phẩm bị lệch, đang tính lại...");
+        return orderDAO.rebuildProductSales() ? mismatches : -1;
+    }
+
+    /**
+     * Tính lại bảng tổng hợp doanh số theo ngày từ dữ liệu gốc (CHỈ Manager)
+     */
+    public boolean rebuildDailySales() {
+        if (!sessionManager.isManager()) {
+            System.err.println("Chỉ Manager mới được sửa dữ liệu hóa đơn");
+            return false;
+        }
+
+        return orderDAO.rebuildDailySales();
+    }
+
+    // ========== EXPORT ==========
+
+    /**
+     * Export orders theo khoảng thời gian ra CSV / JSON Lines (CHỈ Manager)
+     * Dữ liệu được ghi dần, không nạp toàn bộ orders vào bộ nhớ
+     * @param progressListener nhận số dòng đã ghi (có thể null)
+     * @return số dòng đã ghi, -1 nếu thất bại
+     */
+    public long exportOrdersByDateRange(LocalDateTime start, LocalDateTime end, Writer out,
+                                        OrderExportWriter.Format format, LongConsumer progressListener) {
+        if (!sessionManager.isManager()) {
+            System.err.println("Chỉ Manager mới export được reports");
+            return -1;
+        }
+
+        if (start == null || end == null || out == null) {
+            System.err.println("Tham số export không hợp lệ");
+            return -1;
+        }
+
+        try {
+            OrderExportWriter writer = new OrderExportWriter(out, format, progressListener, 10000);
+            long rows = orderDAO.exportByDateRange(start, end, writer);
+            writer.flush();
+
+            if (rows >= 0) {
+                System.out.println("Export thành công " + rows + " dòng");
+            }
+            return rows;
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Lỗi khi ghi file export: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
     // ========== HELPER METHODS ==========
 
     /**
@@ -414,7 +643,7 @@ public class OrderService {
 
         // Kiểm tra tất cả products vẫn còn available
         for (OrderDetail detail : order.getOrderDetails()) {
-            Product product = productDAO.findById(detail.getProductId());
+            Product product = catalog.getById(detail.getProductId());
             if (product == null || !product.isAvailable()) {
                 return "Sản phẩm '" + detail.getProductName() + "' không còn bán";
             }
@@ -430,6 +659,8 @@ public class OrderService {
         if (order == null) {
             return 0;
         }
+        // Order chỉ có header thì nạp details trước khi đếm
+        order.getOrderDetails();
         return order.getItemCount();
     }
 
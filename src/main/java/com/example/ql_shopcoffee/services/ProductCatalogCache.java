@@ -0,0 +1,308 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.dao.impl.CategoryDAO;
+import com.example.ql_shopcoffee.dao.impl.ProductDAO;
+import com.example.ql_shopcoffee.dao.interfaces.ICategoryDAO;
+import com.example.ql_shopcoffee.dao.interfaces.IProductDAO;
+import com.example.ql_shopcoffee.models.Category;
+import com.example.ql_shopcoffee.models.Product;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Danh mục sản phẩm trong bộ nhớ, phục vụ từ CatalogSnapshot bất biến
+ * - Đọc: lấy snapshot hiện tại qua AtomicReference, không khóa
+ * - Ghi qua ProductService / CategoryService: dựng snapshot mới trên luồng nền rồi swap nguyên khối
+ * - Nhiều yêu cầu refresh dồn lại khi chưa chạy chỉ dựng một lần
+ * - Snapshot cũ hơn TTL vẫn được trả về, đồng thời refresh nền để thấy thay đổi từ máy khác
+ */
+public class ProductCatalogCache {
+
+    private static final long WRITE_REFRESH_TIMEOUT_MILLIS = 5000;
+
+    private static ProductCatalogCache instance;
+
+    private final IProductDAO productDAO;
+    private final ICategoryDAO categoryDAO;
+    private final long ttlMillis;
+    private final ExecutorService refresher;
+    private final AtomicReference<CatalogSnapshot> snapshot = new AtomicReference<>();
+    private final Object refreshLock = new Object();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong unchangedLoads = new AtomicLong();
+    private CompletableFuture<CatalogSnapshot> pendingRefresh;
+    private volatile long lastLoadedAt;
+
+    public ProductCatalogCache(IProductDAO productDAO, ICategoryDAO categoryDAO, long ttlMillis) {
+        this.productDAO = productDAO;
+        this.categoryDAO = categoryDAO;
+        this.ttlMillis = ttlMillis;
+        this.refresher = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "catalog-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static synchronized ProductCatalogCache getInstance() {
+        if (instance == null) {
+            instance = new ProductCatalogCache(new ProductDAO(), new CategoryDAO(),
+                    Long.getLong("cf.catalog.ttlMs", 5 * 60 * 1000L));
+        }
+        return instance;
+    }
+
+    /**
+     * Dừng luồng refresh của instance dùng chung (nếu đã được tạo)
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Snapshot hiện tại (lần đầu sẽ chờ nạp xong)
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot current = snapshot.get();
+        if (current == null) {
+            return awaitRefresh();
+        }
+        if (ttlMillis > 0 && System.currentTimeMillis() - lastLoadedAt > ttlMillis) {
+            refresh();
+        }
+        return current;
+    }
+
+    /**
+     * Version của snapshot hiện tại, không đổi nghĩa là danh mục không đổi
+     */
+    public long getVersion() {
+        return snapshot().getVersion();
+    }
+
+    /**
+     * Lấy product theo id (cả active và inactive)
+     */
+    public Product getById(int id) {
+        Product product = snapshot().getProduct(id);
+        if (product != null) {
+            hits.incrementAndGet();
+            return product;
+        }
+
+        // Không có trong snapshot: có thể vừa được thêm từ máy khác
+        misses.incrementAndGet();
+        product = productDAO.findById(id);
+        if (product != null) {
+            refresh();
+        }
+        return product;
+    }
+
+    /**
+     * Products active, sắp theo tên
+     */
+    public List<Product> getAll() {
+        return hit().getActiveProducts();
+    }
+
+    /**
+     * Tất cả products (cả inactive), sắp theo tên
+     */
+    public List<Product> getAllIncludingInactive() {
+        return hit().getAllProducts();
+    }
+
+    /**
+     * Products active của một category, sắp theo tên
+     */
+    public List<Product> getByCategory(int categoryId) {
+        return hit().getActiveProducts(categoryId);
+    }
+
+    public int countActive() {
+        return hit().getActiveProducts().size();
+    }
+
+    /**
+     * Tìm products active theo tên (không dấu, xếp hạng), không chạm database
+     */
+    public List<Product> search(String keyword, int limit) {
+        return hit().getSearchIndex().search(keyword, limit);
+    }
+
+    /**
+     * Lấy category theo id
+     */
+    public Category getCategory(int id) {
+        Category category = snapshot().getCategory(id);
+        if (category != null) {
+            hits.incrementAndGet();
+            return category;
+        }
+
+        misses.incrementAndGet();
+        category = categoryDAO.findById(id);
+        if (category != null) {
+            refresh();
+        }
+        return category;
+    }
+
+    /**
+     * Categories, sắp theo tên
+     */
+    public List<Category> getCategories() {
+        return hit().getCategories();
+    }
+
+    /**
+     * Yêu cầu dựng lại snapshot trên luồng nền
+     * Gộp với yêu cầu đang chờ (chưa bắt đầu đọc database) nếu có
+     */
+    public CompletableFuture<CatalogSnapshot> refresh() {
+        synchronized (refreshLock) {
+            if (pendingRefresh != null) {
+                return pendingRefresh;
+            }
+            CompletableFuture<CatalogSnapshot> future = new CompletableFuture<>();
+            try {
+                refresher.execute(() -> rebuild(future));
+            } catch (RejectedExecutionException e) {
+                // Đã close(): dựng ngay trên luồng gọi
+                rebuild(future);
+                return future;
+            }
+            pendingRefresh = future;
+            return future;
+        }
+    }
+
+    /**
+     * Refresh và chờ snapshot mới được swap (dùng sau khi ghi để đọc lại thấy ngay thay đổi)
+     */
+    public CatalogSnapshot awaitRefresh() {
+        CompletableFuture<CatalogSnapshot> future = refresh();
+        try {
+            return future.get(WRITE_REFRESH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            System.err.println("Quá thời gian chờ nạp lại danh mục sản phẩm");
+        } catch (Exception e) {
+            System.err.println("Lỗi khi nạp lại danh mục sản phẩm: " + e.getMessage());
+            e.printStackTrace();
+        }
+        CatalogSnapshot current = snapshot.get();
+        return current != null ? current : CatalogSnapshot.EMPTY;
+    }
+
+    /**
+     * Dừng luồng refresh (cache tạo riêng cho testing / benchmark phải tự đóng)
+     * Sau khi đóng cache vẫn đọc được, refresh chạy đồng bộ trên luồng gọi
+     */
+    public void close() {
+        refresher.shutdown();
+        try {
+            if (!refresher.awaitTermination(WRITE_REFRESH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                refresher.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            refresher.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // Refresh bị bỏ dở khi shutdownNow: không để caller chờ mãi
+        synchronized (refreshLock) {
+            if (pendingRefresh != null) {
+                pendingRefresh.completeExceptionally(new RejectedExecutionException("Danh mục sản phẩm đã đóng"));
+                pendingRefresh = null;
+            }
+        }
+    }
+
+    // ========== STATISTICS ==========
+
+    public long getHits() { return hits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getLoads() { return loads.get(); }
+    public long getUnchangedLoads() { return unchangedLoads.get(); }
+
+    public double getHitRate() {
+        long total = getHits() + getMisses();
+        return total == 0 ? 0.0 : (double) getHits() / total;
+    }
+
+    @Override
+    public String toString() {
+        CatalogSnapshot current = snapshot.get();
+        return String.format("ProductCatalogCache[version = %d, hits = %d, misses = %d, hitRate = %.1f%%, loads = %d, unchanged = %d]",
+                current != null ? current.getVersion() : 0, getHits(), getMisses(), getHitRate() * 100,
+                getLoads(), getUnchangedLoads());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Snapshot cho một lần đọc danh sách (luôn phục vụ từ bộ nhớ nên tính là hit)
+     */
+    private CatalogSnapshot hit() {
+        hits.incrementAndGet();
+        return snapshot();
+    }
+
+    /**
+     * Chạy trên luồng refresh (một luồng duy nhất nên các lần swap không tranh nhau)
+     */
+    private void rebuild(CompletableFuture<CatalogSnapshot> future) {
+        // Từ đây trở đi các lần ghi mới phải xếp một lần refresh khác
+        synchronized (refreshLock) {
+            if (pendingRefresh == future) {
+                pendingRefresh = null;
+            }
+        }
+
+        try {
+            CatalogSnapshot current = snapshot.get();
+            long nextVersion = current != null ? current.getVersion() + 1 : 1;
+            CatalogSnapshot loaded = new CatalogSnapshot(nextVersion,
+                    productDAO.findAllIncludingInactive(), categoryDAO.findAll(), current);
+            loads.incrementAndGet();
+
+            // Products chỉ bị xóa mềm nên danh sách rỗng gần như chắc chắn là lỗi đọc (DAO trả list rỗng)
+            if (current != null && loaded.getAllProducts().isEmpty() && !current.getAllProducts().isEmpty()) {
+                System.err.println("Bỏ qua snapshot danh mục rỗng, giữ version " + current.getVersion());
+                future.complete(current);
+                return;
+            }
+
+            if (current != null && current.sameContent(loaded)) {
+                // Giữ snapshot cũ để version không đổi
+                unchangedLoads.incrementAndGet();
+                lastLoadedAt = System.currentTimeMillis();
+                future.complete(current);
+                return;
+            }
+
+            snapshot.set(loaded);
+            lastLoadedAt = System.currentTimeMillis();
+            future.complete(loaded);
+        } catch (RuntimeException e) {
+            System.err.println("Lỗi khi dựng snapshot danh mục: " + e.getMessage());
+            e.printStackTrace();
+            future.completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.utils.IntObjectMap;
+import com.example.ql_shopcoffee.utils.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chỉ mục tìm kiếm tên sản phẩm (không dấu, không phân biệt hoa thường)
+ * - Mỗi từ trong tên được đưa vào mảng token đã sắp xếp, tìm tiền tố bằng binary search
+ * - Mọi từ trong từ khóa phải khớp tiền tố một từ trong tên ("ca ph" khớp "Cà Phê Sữa")
+ * - Không có kết quả thì tìm chuỗi con trên tên đã fold (giống LIKE '%kw%' cũ)
+ * Bất biến, được dựng cùng CatalogSnapshot nên đọc từ nhiều luồng không cần khóa
+ */
+public final class ProductSearchIndex {
+
+    private static final int RANK_EXACT = 0;
+    private static final int RANK_NAME_PREFIX = 1;
+    private static final int RANK_WHOLE_WORDS = 2;
+    private static final int RANK_WORD_PREFIX = 3;
+    private static final int RANK_SUBSTRING = 4;
+
+    // Products active, sắp theo tên; vị trí trong mảng dùng làm mã nội bộ
+    private final Product[] products;
+    private final String[] foldedNames;
+    private final String[] lowerNames;
+    // Cặp (token, vị trí product) sắp theo token
+    private final String[] tokens;
+    private final int[] postings;
+
+    ProductSearchIndex(List<Product> activeByName, ProductSearchIndex previous) {
+        this.products = activeByName.toArray(new Product[0]);
+        this.foldedNames = new String[products.length];
+        this.lowerNames = new String[products.length];
+
+        // Tái sử dụng tên đã fold của snapshot trước nếu product không đổi tên
+        IntObjectMap<String[]> reusable = previous != null ? previous.foldedById() : null;
+        int tokenCount = 0;
+        String[][] nameTokens = new String[products.length][];
+        for (int i = 0; i < products.length; i++) {
+            String[] cached = reusable != null ? reusable.get(products[i].getId()) : null;
+            foldedNames[i] = cached != null && cached[0].equals(products[i].getName())
+                    ? cached[1]
+                    : TextNormalizer.fold(products[i].getName());
+            lowerNames[i] = products[i].getName().toLowerCase();
+            nameTokens[i] = TextNormalizer.tokens(foldedNames[i]);
+            tokenCount += nameTokens[i].length;
+        }
+
+        Integer[] order = new Integer[tokenCount];
+        String[] rawTokens = new String[tokenCount];
+        int[] rawPostings = new int[tokenCount];
+        int n = 0;
+        for (int i = 0; i < products.length; i++) {
+            for (String token : nameTokens[i]) {
+                rawTokens[n] = token;
+                rawPostings[n] = i;
+                order[n] = n;
+                n++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = rawTokens[a].compareTo(rawTokens[b]);
+            return cmp != 0 ? cmp : Integer.compare(rawPostings[a], rawPostings[b]);
+        });
+
+        this.tokens = new String[tokenCount];
+        this.postings = new int[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            tokens[i] = rawTokens[order[i]];
+            postings[i] = rawPostings[order[i]];
+        }
+    }
+
+    /**
+     * Tìm products active theo từ khóa, kết quả xếp hạng:
+     * trùng tên > tên bắt đầu bằng từ khóa > khớp nguyên từ > khớp tiền tố từ > chuỗi con
+     * Cùng hạng thì tên chứa đúng từ khóa có dấu đứng trước ("cà" ưu tiên "Cà Phê" hơn "Cappuccino"), rồi theo tên
+     */
+    public List<Product> search(String keyword, int limit) {
+        String query = TextNormalizer.fold(keyword);
+        if (query.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        String[] queryTokens = TextNormalizer.tokens(query);
+        String exact = keyword.trim().toLowerCase();
+        boolean[] candidates = null;
+        for (String queryToken : queryTokens) {
+            boolean[] matched = new boolean[products.length];
+            for (int i = lowerBound(queryToken); i < tokens.length && tokens[i].startsWith(queryToken); i++) {
+                matched[postings[i]] = true;
+            }
+            if (candidates != null) {
+                for (int i = 0; i < matched.length; i++) {
+                    matched[i] &= candidates[i];
+                }
+            }
+            candidates = matched;
+        }
+
+        List<long[]> ranked = new ArrayList<>();
+        for (int i = 0; i < products.length; i++) {
+            if (candidates[i]) {
+                ranked.add(new long[]{score(rank(foldedNames[i], query, queryTokens), i, exact), i});
+            }
+        }
+
+        if (ranked.isEmpty()) {
+            for (int i = 0; i < products.length; i++) {
+                if (foldedNames[i].contains(query)) {
+                    ranked.add(new long[]{score(RANK_SUBSTRING, i, exact), i});
+                }
+            }
+        }
+
+        ranked.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        List<Product> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(products[(int) ranked.get(i)[1]]);
+        }
+        return result;
+    }
+
+    public int size() {
+        return products.length;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private long score(int rank, int index, String exact) {
+        boolean accentMatch = lowerNames[index].contains(exact);
+        return rank * 2L + (accentMatch ? 0 : 1);
+    }
+
+    private static int rank(String foldedName, String query, String[] queryTokens) {
+        if (foldedName.equals(query)) {
+            return RANK_EXACT;
+        }
+        if (foldedName.startsWith(query)) {
+            return RANK_NAME_PREFIX;
+        }
+        String padded = " " + foldedName + " ";
+        for (String queryToken : queryTokens) {
+            if (!padded.contains(" " + queryToken + " ")) {
+                return RANK_WORD_PREFIX;
+            }
+        }
+        return RANK_WHOLE_WORDS;
+    }
+
+    /**
+     * Vị trí token đầu tiên >= key
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = tokens.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tokens[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * id -> {tên gốc, tên đã fold}
+     */
+    private IntObjectMap<String[]> foldedById() {
+        IntObjectMap<String[]> map = new IntObjectMap<>(products.length);
+        for (int i = 0; i < products.length; i++) {
+            map.put(products[i].getId(), new String[]{products[i].getName(), foldedNames[i]});
+        }
+        return map;
+    }
+}
@@ -6,6 +6,8 @@ import com.example.ql_shopcoffee.dao.interfaces.ICategoryDAO;
 import com.example.ql_shopcoffee.dao.interfaces.IProductDAO;
 import com.example.ql_shopcoffee.models.Category;
 import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.models.User;
+import com.example.ql_shopcoffee.utils.ProfilingEvents;
 
 import java.util.List;
 
@@ -14,24 +16,33 @@ public class ProductService {
     private final IProductDAO productDAO;
     private final ICategoryDAO categoryDAO;
     private final SessionManager sessionManager;
+    private final ProductCatalogCache catalog;
 
     public ProductService() {
         this.productDAO = new ProductDAO();
         this.categoryDAO = new CategoryDAO();
         this.sessionManager = SessionManager.getInstance();
+        this.catalog = ProductCatalogCache.getInstance();
     }
 
+    // Constructor cho testing (catalog riêng dựng từ các DAO được truyền vào)
     public ProductService(IProductDAO productDAO, ICategoryDAO categoryDAO) {
+        this(productDAO, categoryDAO, new ProductCatalogCache(productDAO, categoryDAO, 0));
+    }
+
+    // Constructor cho testing (catalog do caller tạo và đóng)
+    public ProductService(IProductDAO productDAO, ICategoryDAO categoryDAO, ProductCatalogCache catalog) {
         this.productDAO = productDAO;
         this.categoryDAO = categoryDAO;
         this.sessionManager = SessionManager.getInstance();
+        this.catalog = catalog;
     }
 
     /**
      * Lấy tất cả products active
      */
     public List<Product> getAllProducts() {
-        return productDAO.findAll();
+        return catalog.getAll();
     }
 
     /**
@@ -40,9 +51,9 @@ public class ProductService {
     public List<Product> getAllProductsIncludingInactive() {
         if (!sessionManager.isManager()) {
             System.err.println("Chỉ Manager mới có quyền xem sản phẩm inactive");
-            return productDAO.findAll(); // Return only active
+            return catalog.getAll(); // Return only active
         }
-        return productDAO.findAllIncludingInactive();
+        return catalog.getAllIncludingInactive();
     }
 
     /**
@@ -53,7 +64,7 @@ public class ProductService {
             System.err.println("ID không hợp lệ");
             return null;
         }
-        return productDAO.findById(id);
+        return catalog.getById(id);
     }
 
     /**
@@ -64,23 +75,48 @@ public class ProductService {
             System.err.println("Category ID không hợp lệ");
             return List.of();
         }
-        return productDAO.findByCategory(categoryId);
+        return catalog.getByCategory(categoryId);
     }
 
     /**
      * Tìm kiếm products theo tên
+     * Gõ không dấu vẫn tìm được ("ca phe" -> "Cà Phê"), kết quả xếp hạng theo độ khớp
      */
     public List<Product> searchProducts(String keyword) {
+        return searchProducts(keyword, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Tìm kiếm products theo tên, tối đa limit kết quả (search-as-you-type)
+     */
+    public List<Product> searchProducts(String keyword, int limit) {
+        ProfilingEvents.ProductSearchEvent event = new ProfilingEvents.ProductSearchEvent();
+        event.begin();
+        boolean blank = keyword == null || keyword.trim().isEmpty();
+        List<Product> result = blank ? getAllProducts() : catalog.search(keyword, limit);
+        commitSearch(event, blank ? "all" : "catalog", keyword, limit, result);
+        return result;
+    }
+
+    /**
+     * Tìm kiếm toàn văn trong database (FTS5, xếp hạng bm25), offset/limit để phân trang
+     * Dùng cho tra cứu back-office trên danh mục lớn, quầy thu ngân dùng searchProducts
+     */
+    public List<Product> searchProductsFullText(String keyword, int offset, int limit) {
         if (keyword == null || keyword.trim().isEmpty()) {
-            return getAllProducts();
+            return List.of();
         }
-        return productDAO.findByName(keyword.trim());
+        ProfilingEvents.ProductSearchEvent event = new ProfilingEvents.ProductSearchEvent();
+        event.begin();
+        List<Product> result = productDAO.searchFullText(keyword, offset, limit);
+        commitSearch(event, "fts", keyword, limit, result);
+        return result;
     }
 
     /**
      * Thêm product mới - CHỈ Manager
      */
-    public boolean addProduct(String name, int categoryId, double price, String image) {
+    public boolean addProduct(String name, int categoryId, long price, String image) {
         // Kiểm tra quyền
         if (!sessionManager.hasPermission("MANAGE_PRODUCTS")) {
             System.err.println("Bạn không có quyền thêm sản phẩm");
@@ -126,6 +162,7 @@ public class ProductService {
         boolean result = productDAO.add(product);
 
         if (result) {
+            catalog.awaitRefresh();
             System.out.println("Thêm sản phẩm thành công: " + product.getName());
         }
 
@@ -135,7 +172,7 @@ public class ProductService {
     /**
      * Cập nhật product - CHỈ Manager
      */
-    public boolean updateProduct(int id, String name, int categoryId, double price, String image, boolean status) {
+    public boolean updateProduct(int id, String name, int categoryId, long price, String image, boolean status) {
         // Kiểm tra quyền
         if (!sessionManager.hasPermission("MANAGE_PRODUCTS")) {
             System.err.println("Bạn không có quyền sửa sản phẩm");
@@ -179,6 +216,7 @@ public class ProductService {
         boolean result = productDAO.update(product);
 
         if (result) {
+            catalog.awaitRefresh();
             System.out.println("Cập nhật sản phẩm thành công: " + product.getName());
         }
 
@@ -209,6 +247,7 @@ public class ProductService {
         boolean result = productDAO.delete(id);
 
         if (result) {
+            catalog.awaitRefresh();
             System.out.println("Xóa sản phẩm thành công: " + product.getName());
         }
 
@@ -231,7 +270,11 @@ public class ProductService {
         }
 
         product.activate();
-        return productDAO.update(product);
+        boolean result = productDAO.update(product);
+        if (result) {
+            catalog.awaitRefresh();
+        }
+        return result;
     }
 
     /**
@@ -250,13 +293,47 @@ public class ProductService {
         }
 
         product.deactivate();
-        return productDAO.update(product);
+        boolean result = productDAO.update(product);
+        if (result) {
+            catalog.awaitRefresh();
+        }
+        return result;
     }
 
     /**
      * Đếm số lượng products
      */
     public int getProductCount() {
-        return productDAO.count();
+        return catalog.countActive();
+    }
+
+    /**
+     * Version danh mục hiện tại, UI so với version đã render để bỏ qua render lại
+     */
+    public long getCatalogVersion() {
+        return catalog.getVersion();
+    }
+
+    /**
+     * Cache danh mục sản phẩm (xem thống kê)
+     */
+    public ProductCatalogCache getCatalog() {
+        return catalog;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void commitSearch(ProfilingEvents.ProductSearchEvent event, String source, String keyword,
+                              int limit, List<Product> result) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.keyword = keyword;
+            event.limit = limit;
+            event.resultCount = result.size();
+            User user = sessionManager.getCurrentUser();
+            event.userRole = user != null ? user.getRole() : null;
+            event.commit();
+        }
     }
 }
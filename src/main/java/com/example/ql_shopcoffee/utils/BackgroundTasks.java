@@ -0,0 +1,182 @@
+package com.example.ql_shopcoffee.utils;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Chạy công việc chậm (gọi DAO / service) ngoài JavaFX Application Thread
+ * - Công việc chạy trên pool giới hạn (hoặc virtual threads với -Dcf.ui.virtualThreads=true)
+ * - Future trả về được hoàn thành trên luồng UI (Platform.runLater) nên thenAccept(...) cập nhật control trực tiếp
+ * - supplyLatest(key, ...): yêu cầu mới hủy yêu cầu cũ cùng key (VD: gõ tìm kiếm), kết quả cũ không bao giờ tới UI
+ * - busyProperty() = true khi còn công việc đang chạy, dùng để hiện busy indicator
+ */
+public class BackgroundTasks {
+
+    private static BackgroundTasks instance;
+
+    private final ExecutorService executor;
+    private final Executor uiExecutor;
+    private final Map<String, CompletableFuture<?>> latest = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(false);
+
+    /**
+     * @param uiExecutor nơi hoàn thành future và cập nhật busy (Platform::runLater trong ứng dụng)
+     */
+    public BackgroundTasks(ExecutorService executor, Executor uiExecutor) {
+        this.executor = executor;
+        this.uiExecutor = uiExecutor;
+    }
+
+    /**
+     * -Dcf.ui.workers=4 (số luồng), -Dcf.ui.queueSize=256 (công việc chờ tối đa), -Dcf.ui.virtualThreads=false
+     */
+    public static synchronized BackgroundTasks getInstance() {
+        if (instance == null) {
+            ExecutorService executor = Boolean.getBoolean("cf.ui.virtualThreads")
+                    ? Executors.newVirtualThreadPerTaskExecutor()
+                    : newBoundedExecutor(Integer.getInteger("cf.ui.workers", 4), Integer.getInteger("cf.ui.queueSize", 256));
+            instance = new BackgroundTasks(executor, Platform::runLater);
+        }
+        return instance;
+    }
+
+    /**
+     * Dừng instance dùng chung, công việc đang chạy bị ngắt
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.executor.shutdownNow();
+            instance = null;
+        }
+    }
+
+    /**
+     * Chạy work trên luồng nền, future hoàn thành trên luồng UI
+     * cancel(true) trên future sẽ ngắt công việc (nếu chưa chạy thì bỏ qua luôn)
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        taskStarted();
+
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    T value = work.get();
+                    uiExecutor.execute(() -> result.complete(value));
+                } catch (Throwable e) {
+                    uiExecutor.execute(() -> result.completeExceptionally(e));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            System.err.println("Quá nhiều công việc nền đang chờ: " + e.getMessage());
+            taskFinished();
+            result.completeExceptionally(e);
+            return result;
+        }
+
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+            taskFinished();
+        });
+        return result;
+    }
+
+    /**
+     * Như supply, nhưng hủy yêu cầu trước đó cùng key nếu chưa xong
+     */
+    public <T> CompletableFuture<T> supplyLatest(String key, Supplier<T> work) {
+        CompletableFuture<T> result = supply(work);
+        CompletableFuture<?> previous = latest.put(key, result);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+        result.whenComplete((value, error) -> latest.remove(key, result));
+        return result;
+    }
+
+    /**
+     * Chạy công việc không có kết quả
+     */
+    public CompletableFuture<Void> run(Runnable work) {
+        return supply(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Hủy yêu cầu đang chạy của key (VD: đóng màn hình báo cáo)
+     */
+    public void cancel(String key) {
+        CompletableFuture<?> previous = latest.remove(key);
+        if (previous != null) {
+            previous.cancel(true);
+        }
+    }
+
+    public ReadOnlyBooleanProperty busyProperty() {
+        return busy.getReadOnlyProperty();
+    }
+
+    public boolean isBusy() {
+        return running.get() > 0;
+    }
+
+    public int getRunningCount() {
+        return running.get();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void taskStarted() {
+        if (running.getAndIncrement() == 0) {
+            uiExecutor.execute(this::publishBusy);
+        }
+    }
+
+    private void taskFinished() {
+        if (running.decrementAndGet() == 0) {
+            uiExecutor.execute(this::publishBusy);
+        }
+    }
+
+    /**
+     * Chạy trên luồng UI, đọc lại bộ đếm để các lần bật / tắt dồn dập không để lại trạng thái sai
+     */
+    private void publishBusy() {
+        busy.set(running.get() > 0);
+    }
+
+    private static ExecutorService newBoundedExecutor(int workers, int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                r -> {
+                    Thread thread = new Thread(r, "service-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+}
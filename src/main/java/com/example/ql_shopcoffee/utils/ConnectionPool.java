@@ -0,0 +1,338 @@
+package com.example.ql_shopcoffee.utils;
+
+import org.sqlite.SQLiteConfig;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool connection cho SQLite
+ * - Nhiều connection chỉ đọc dùng song song
+ * - Một connection ghi duy nhất, mỗi lúc chỉ một luồng được mượn
+ * Connection mượn ra phải được close() để trả về pool (dùng try-with-resources)
+ */
+public class ConnectionPool {
+    private final DatabaseConfig config;
+    private final BlockingQueue<PooledEntry> idleReaders;
+    private final Semaphore readPermits;
+    private final Semaphore writePermit = new Semaphore(1, true);
+    private final StatementCache.Stats statementCacheStats = new StatementCache.Stats();
+    private PooledEntry writer;
+    private volatile long lastWriteReleased = System.currentTimeMillis();
+    private volatile boolean closed;
+
+    public ConnectionPool(DatabaseConfig config) throws SQLException {
+        this.config = config;
+        this.idleReaders = new ArrayBlockingQueue<>(config.getReadPoolSize());
+        this.readPermits = new Semaphore(config.getReadPoolSize(), true);
+        this.writer = newEntry(false);
+    }
+
+    /**
+     * Mượn connection chỉ đọc
+     */
+    public Connection borrowRead() throws SQLException {
+        acquire(readPermits, "đọc", config.getBorrowTimeoutMillis());
+        try {
+            PooledEntry entry = idleReaders.poll();
+            if (entry == null || !isHealthy(entry)) {
+                if (entry != null) {
+                    entry.closeQuietly();
+                }
+                entry = newEntry(true);
+            }
+            return wrap(entry, true);
+        } catch (SQLException | RuntimeException e) {
+            readPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Mượn connection ghi (độc quyền cho tới khi close)
+     */
+    public Connection borrowWrite() throws SQLException {
+        return borrowWrite(config.getBorrowTimeoutMillis());
+    }
+
+    /**
+     * Mượn connection ghi với timeout riêng (0 = không chờ)
+     */
+    public Connection borrowWrite(long timeoutMillis) throws SQLException {
+        acquire(writePermit, "ghi", timeoutMillis);
+        try {
+            if (!isHealthy(writer)) {
+                writer.closeQuietly();
+                writer = newEntry(false);
+            }
+            return wrap(writer, false);
+        } catch (SQLException | RuntimeException e) {
+            writePermit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Số connection đọc đang rảnh
+     */
+    public int getIdleReadCount() {
+        return idleReaders.size();
+    }
+
+    /**
+     * Số connection đọc còn có thể mượn
+     */
+    public int getAvailableReadPermits() {
+        return readPermits.availablePermits();
+    }
+
+    /**
+     * Thời điểm connection ghi được trả về gần nhất
+     */
+    public long getLastWriteReleased() {
+        return lastWriteReleased;
+    }
+
+    /**
+     * Connection ghi có đang bị mượn không
+     */
+    public boolean isWriterBusy() {
+        return writePermit.availablePermits() == 0;
+    }
+
+    /**
+     * Thống kê cache PreparedStatement của toàn pool
+     */
+    public StatementCache.Stats getStatementCacheStats() {
+        return statementCacheStats;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Đóng toàn bộ connection, connection đang mượn sẽ bị đóng khi được trả về
+     */
+    public void close() {
+        closed = true;
+        PooledEntry entry;
+        while ((entry = idleReaders.poll()) != null) {
+            entry.closeQuietly();
+        }
+        if (writePermit.tryAcquire()) {
+            try {
+                writer.closeQuietly();
+            } finally {
+                writePermit.release();
+            }
+        }
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void acquire(Semaphore semaphore, String kind, long timeoutMillis) throws SQLException {
+        if (closed) {
+            throw new SQLException("Pool connection đã đóng");
+        }
+        try {
+            if (!semaphore.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Hết thời gian chờ connection " + kind + " (" + timeoutMillis + "ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Bị ngắt khi chờ connection " + kind, e);
+        }
+    }
+
+    private boolean isHealthy(PooledEntry entry) {
+        try {
+            if (entry.connection.isClosed()) {
+                return false;
+            }
+            long idle = System.currentTimeMillis() - entry.lastReleased;
+            if (idle < config.getValidationIntervalMillis()) {
+                return true;
+            }
+            return entry.connection.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledEntry newEntry(boolean readOnly) throws SQLException {
+        Connection connection = createConnection(readOnly);
+        StatementCache cache = config.getStatementCacheSize() > 0
+                ? new StatementCache(config.getStatementCacheSize(), statementCacheStats)
+                : null;
+        return new PooledEntry(connection, cache);
+    }
+
+    private Connection createConnection(boolean readOnly) throws SQLException {
+        SQLiteConfig sqliteConfig = new SQLiteConfig();
+        sqliteConfig.enforceForeignKeys(true);
+        sqliteConfig.setReadOnly(readOnly);
+        Connection connection = DriverManager.getConnection(config.getDbURL(), sqliteConfig.toProperties());
+        try {
+            config.getPragmaProfile().apply(connection, !readOnly);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        return connection;
+    }
+
+    private void release(PooledEntry entry, boolean readOnly) {
+        try {
+            // Không để trạng thái transaction rò rỉ sang lần mượn sau
+            if (!entry.connection.isClosed() && !entry.connection.getAutoCommit()) {
+                entry.connection.rollback();
+                entry.connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            System.err.println("Không thể reset connection, loại bỏ khỏi pool: " + e.getMessage());
+            entry.closeQuietly();
+        }
+        entry.lastReleased = System.currentTimeMillis();
+
+        if (readOnly) {
+            if (closed || !idleReaders.offer(entry)) {
+                entry.closeQuietly();
+            }
+            readPermits.release();
+        } else {
+            if (closed) {
+                entry.closeQuietly();
+            }
+            lastWriteReleased = entry.lastReleased;
+            writePermit.release();
+        }
+    }
+
+    private Connection wrap(PooledEntry entry, boolean readOnly) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new BorrowedConnectionHandler(entry, readOnly));
+    }
+
+    private static class PooledEntry {
+        private final Connection connection;
+        private final StatementCache statementCache;
+        private volatile long lastReleased;
+
+        PooledEntry(Connection connection, StatementCache statementCache) {
+            this.connection = connection;
+            this.statementCache = statementCache;
+            this.lastReleased = System.currentTimeMillis();
+        }
+
+        void closeQuietly() {
+            if (statementCache != null) {
+                statementCache.closeAll();
+            }
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private static boolean isCacheable(Object[] args) {
+        return args.length == 1 || (args.length == 2 && args[1] instanceof Integer);
+    }
+
+    /**
+     * Chặn close() để trả connection về pool thay vì đóng thật
+     */
+    private class BorrowedConnectionHandler implements InvocationHandler {
+        private final PooledEntry entry;
+        private final boolean readOnly;
+        private boolean returned;
+
+        BorrowedConnectionHandler(PooledEntry entry, boolean readOnly) {
+            this.entry = entry;
+            this.readOnly = readOnly;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(entry, readOnly);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || entry.connection.isClosed();
+                case "prepareStatement":
+                    // prepareStatement(sql) và prepareStatement(sql, autoGeneratedKeys) đi qua cache
+                    if (!returned && entry.statementCache != null && isCacheable(args)) {
+                        int autoGeneratedKeys = args.length == 2 ? (Integer) args[1] : Statement.NO_GENERATED_KEYS;
+                        return measure(entry.statementCache.prepare(entry.connection, (Connection) proxy, (String) args[0], autoGeneratedKeys), (String) args[0]);
+                    }
+                    if (!returned) {
+                        return measure(invokeRaw(method, args), (String) args[0]);
+                    }
+                    break;
+                case "createStatement":
+                    if (!returned) {
+                        return measure(invokeRaw(method, args), null);
+                    }
+                    break;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "BorrowedConnection[" + (readOnly ? "read" : "write") + "]";
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection đã được trả về pool");
+            }
+            return invokeRaw(method, args);
+        }
+
+        private Object invokeRaw(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Bọc statement để QueryMetrics đo thời gian (bỏ qua khi metrics tắt)
+         */
+        private Object measure(Object statement, String sql) {
+            QueryMetrics metrics = QueryMetrics.getInstance();
+            if (!metrics.isEnabled()) {
+                return statement;
+            }
+            if (statement instanceof PreparedStatement ps) {
+                return MeasuredStatement.wrap(ps, entry.connection, metrics, sql);
+            }
+            return MeasuredStatement.wrap((Statement) statement, entry.connection, metrics);
+        }
+    }
+}
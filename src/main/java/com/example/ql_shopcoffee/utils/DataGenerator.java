@@ -0,0 +1,367 @@
+package com.example.ql_shopcoffee.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Sinh dữ liệu bán hàng nhiều năm cho cf.db (benchmark, load test, thử giao diện với dữ liệu lớn)
+ * - Tất định theo seed: cùng seed + cùng database ban đầu cho ra cùng dữ liệu
+ * - Mùa vụ: tăng trưởng theo năm, cao điểm Tết / mùa hè, cuối tuần đông hơn, giờ cao điểm sáng / trưa / chiều
+ * - Nhanh: một transaction, insert theo lô với id tự cấp, tạm bỏ triggers / indexes phụ rồi dựng lại một lần
+ *
+ * CLI: java ... com.example.ql_shopcoffee.utils.DataGenerator db=cf.db years=3 ordersPerDay=400 seed=42
+ *      (hoặc from=2023-01-01 to=2025-12-31 orders=1000000)
+ */
+public class DataGenerator {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int OPEN_HOUR = 6;
+    // KiB (số âm theo quy ước SQLite), ~256MB
+    private static final int BULK_CACHE_SIZE = -262_144;
+
+    // Tỷ trọng orders theo giờ 6h - 21h: cao điểm sáng đi làm, trưa, tan tầm
+    private static final double[] HOURLY_WEIGHTS = {
+            4, 9, 10, 6, 4, 5, 9, 8, 5, 4, 5, 7, 8, 6, 4, 2
+    };
+
+    // Hệ số theo tháng: Tết (tháng 1-2) và mùa hè đông hơn
+    private static final double[] MONTHLY_FACTORS = {
+            1.25, 1.30, 0.95, 1.00, 1.10, 1.15, 1.15, 1.10, 0.95, 0.95, 1.00, 1.10
+    };
+
+    private static final double YEARLY_GROWTH = 0.15;
+    private static final double WEEKEND_FACTOR = 1.3;
+
+    private static final String[] NOTES = {
+            "Ít đường", "Không đá", "Mang đi", "Nhiều sữa", "Giao cho bàn 5", "Khách quen", "Ít ngọt, thêm đá"
+    };
+
+    private final DatabaseConnection db;
+    private long seed = 42;
+    private int productCount = 60;
+    private int employeeCount = 8;
+    private double cancelRate = 0.03;
+    private double noteRate = 0.02;
+
+    public DataGenerator() {
+        this.db = DatabaseConnection.getInstance();
+    }
+
+    // Constructor cho testing
+    public DataGenerator(DatabaseConnection db) {
+        this.db = db;
+    }
+
+    /**
+     * Sinh totalOrders orders trải từ from đến to (tính cả hai đầu), chia theo mùa vụ
+     * Database phải đã được DatabaseInitializer.initialize()
+     * @return số orders đã thêm, -1 nếu lỗi (không có gì được ghi)
+     */
+    public long generate(LocalDate from, LocalDate to, long totalOrders) {
+        if (to.isBefore(from) || totalOrders < 0) {
+            System.err.println("Khoảng ngày / số orders không hợp lệ");
+            return -1;
+        }
+
+        long[] ordersPerDay = distribute(from, to, totalOrders);
+        DatabaseInitializer initializer = new DatabaseInitializer();
+        Random random = new Random(seed);
+        long start = System.nanoTime();
+
+        try (Connection conn = db.getWriteConnection()) {
+            String synchronous = queryString(conn, "PRAGMA synchronous");
+            String cacheSize = queryString(conn, "PRAGMA cache_size");
+            try (Statement stmt = conn.createStatement()) {
+                // Dữ liệu sinh lại được, không cần fsync từng trang
+                stmt.execute("PRAGMA synchronous = OFF");
+                // Cache lớn cho lúc dựng lại indexes / bảng tổng hợp (sắp xếp hàng triệu dòng)
+                stmt.execute("PRAGMA cache_size = " + BULK_CACHE_SIZE);
+            }
+            conn.setAutoCommit(false);
+            try {
+                initializer.beginBulkLoad(conn);
+                List<Item> catalog = ensureProducts(conn, random);
+                int[] employees = ensureEmployees(conn);
+                long details = insertOrders(conn, random, from, ordersPerDay, catalog, employees);
+                System.out.printf("Đã sinh %d orders, %d dòng chi tiết trong %.1f s, đang dựng lại indexes / bảng tổng hợp...%n",
+                        totalOrders, details, (System.nanoTime() - start) / 1e9);
+                initializer.endBulkLoad(conn);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA synchronous = " + synchronous);
+                    stmt.execute("PRAGMA cache_size = " + cacheSize);
+                }
+            }
+            System.out.printf("Sinh dữ liệu xong trong %.1f s%n", (System.nanoTime() - start) / 1e9);
+            return totalOrders;
+        } catch (SQLException e) {
+            System.err.println("Lỗi khi sinh dữ liệu: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    // Setters
+    public void setSeed(long seed) { this.seed = seed; }
+    public void setProductCount(int productCount) { this.productCount = Math.max(1, productCount); }
+    public void setEmployeeCount(int employeeCount) { this.employeeCount = Math.max(1, employeeCount); }
+    public void setCancelRate(double cancelRate) { this.cancelRate = cancelRate; }
+    public void setNoteRate(double noteRate) { this.noteRate = noteRate; }
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                options.put(arg.substring(0, eq), arg.substring(eq + 1));
+            }
+        }
+
+        LocalDate to = LocalDate.parse(options.getOrDefault("to", LocalDate.now().minusDays(1).toString()));
+        LocalDate from = options.containsKey("from")
+                ? LocalDate.parse(options.get("from"))
+                : to.minusYears(Long.parseLong(options.getOrDefault("years", "3"))).plusDays(1);
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        long orders = options.containsKey("orders")
+                ? Long.parseLong(options.get("orders"))
+                : days * Long.parseLong(options.getOrDefault("ordersPerDay", "400"));
+
+        DatabaseConfig config = DatabaseConfig.fromSystemProperties();
+        config.setDbURL("jdbc:sqlite:" + options.getOrDefault("db", "cf.db"));
+        DatabaseConnection.initialize(config);
+        new DatabaseInitializer().initialize();
+
+        DataGenerator generator = new DataGenerator();
+        generator.setSeed(Long.parseLong(options.getOrDefault("seed", "42")));
+        generator.setProductCount(Integer.parseInt(options.getOrDefault("products", "60")));
+        generator.setEmployeeCount(Integer.parseInt(options.getOrDefault("employees", "8")));
+        long result = generator.generate(from, to, orders);
+
+        DatabaseConnection.getInstance().closeConnection();
+        System.exit(result < 0 ? 1 : 0);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private record Item(int id, String name, long price) {}
+
+    /**
+     * Chia totalOrders cho từng ngày theo hệ số mùa vụ (±10% nhiễu), tổng đúng bằng totalOrders
+     */
+    private long[] distribute(LocalDate from, LocalDate to, long totalOrders) {
+        Random random = new Random(~seed);
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+        double[] weights = new double[days];
+        double sum = 0;
+        for (int i = 0; i < days; i++) {
+            LocalDate day = from.plusDays(i);
+            double weight = MONTHLY_FACTORS[day.getMonthValue() - 1]
+                    * Math.pow(1 + YEARLY_GROWTH, i / 365.0)
+                    * (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY ? WEEKEND_FACTOR : 1)
+                    * Math.max(0.5, 1 + 0.1 * random.nextGaussian());
+            weights[i] = weight;
+            sum += weight;
+        }
+
+        long[] counts = new long[days];
+        long assigned = 0;
+        double cumulative = 0;
+        for (int i = 0; i < days; i++) {
+            // Làm tròn theo tổng tích lũy để tổng cuối cùng khớp chính xác
+            cumulative += weights[i];
+            long target = Math.round(totalOrders * cumulative / sum);
+            counts[i] = target - assigned;
+            assigned = target;
+        }
+        return counts;
+    }
+
+    private long insertOrders(Connection conn, Random random, LocalDate from, long[] ordersPerDay,
+                              List<Item> catalog, int[] employees) throws SQLException {
+        String sqlOrder = "INSERT INTO orders (id, employee_id, order_date, total_amount, status, note) VALUES (?, ?, ?, ?, ?, ?)";
+        String sqlDetail = "INSERT INTO order_details (order_id, product_id, product_name, quantity, price) VALUES (?, ?, ?, ?, ?)";
+
+        double[] hourCumulative = cumulative(HOURLY_WEIGHTS);
+        int shiftSize = (employees.length + 1) / 2;
+        long orderId = queryLong(conn, "SELECT COALESCE(MAX(id), 0) FROM orders");
+        long details = 0;
+        int pending = 0;
+
+        try (PreparedStatement orderStmt = conn.prepareStatement(sqlOrder);
+             PreparedStatement detailStmt = conn.prepareStatement(sqlDetail)) {
+            for (int d = 0; d < ordersPerDay.length; d++) {
+                long dayStart = EpochTime.toEpochMillis(from.plusDays(d).atTime(OPEN_HOUR, 0));
+                int count = (int) ordersPerDay[d];
+
+                // Giờ bán trong ngày, sắp xếp để id tăng theo thời gian như dữ liệu thật
+                long[] times = new long[count];
+                for (int i = 0; i < count; i++) {
+                    int hour = pick(hourCumulative, random.nextDouble());
+                    times[i] = dayStart + hour * 3_600_000L + random.nextInt(3_600_000);
+                }
+                Arrays.sort(times);
+
+                for (int i = 0; i < count; i++) {
+                    orderId++;
+                    // Ca sáng (trước 14h) một nửa nhân viên, ca chiều nửa còn lại
+                    boolean morning = times[i] - dayStart < 8 * 3_600_000L;
+                    int employee = employees[(morning ? 0 : employees.length - shiftSize) + random.nextInt(shiftSize)];
+
+                    long total = 0;
+                    int lines = randomLineCount(random);
+                    for (int j = 0; j < lines; j++) {
+                        Item item = catalog.get((int) (catalog.size() * Math.pow(random.nextDouble(), 2.5)));
+                        int quantity = random.nextInt(10) < 8 ? 1 : 2 + random.nextInt(2);
+                        total += quantity * item.price();
+                        detailStmt.setLong(1, orderId);
+                        detailStmt.setInt(2, item.id());
+                        detailStmt.setString(3, item.name());
+                        detailStmt.setInt(4, quantity);
+                        detailStmt.setLong(5, item.price());
+                        detailStmt.addBatch();
+                        details++;
+                    }
+
+                    orderStmt.setLong(1, orderId);
+                    orderStmt.setInt(2, employee);
+                    orderStmt.setLong(3, times[i]);
+                    orderStmt.setLong(4, total);
+                    orderStmt.setString(5, random.nextDouble() < cancelRate ? "CANCELLED" : "COMPLETED");
+                    orderStmt.setString(6, random.nextDouble() < noteRate ? NOTES[random.nextInt(NOTES.length)] : null);
+                    orderStmt.addBatch();
+
+                    if (++pending == BATCH_SIZE) {
+                        orderStmt.executeBatch();
+                        detailStmt.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            orderStmt.executeBatch();
+            detailStmt.executeBatch();
+        }
+        return details;
+    }
+
+    /**
+     * Thêm sản phẩm "Món <n>" cho đủ productCount món active, trả về danh mục để chọn món
+     */
+    private List<Item> ensureProducts(Connection conn, Random random) throws SQLException {
+        List<Item> catalog = loadProducts(conn);
+        if (catalog.size() < productCount) {
+            int categories = (int) queryLong(conn, "SELECT COUNT(*) FROM categories");
+            if (categories == 0) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("INSERT INTO categories (name, description) VALUES ('Đồ uống', 'Sinh tự động')");
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT OR IGNORE INTO products (name, category_id, price, status)"
+                            + " SELECT ?, id, ?, 1 FROM categories ORDER BY id LIMIT 1 OFFSET ?")) {
+                int count = Math.max(1, categories);
+                for (int i = catalog.size(); i < productCount; i++) {
+                    pstmt.setString(1, "Món " + (i + 1));
+                    pstmt.setLong(2, 15_000 + 1_000L * random.nextInt(46));
+                    pstmt.setInt(3, i % count);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+            catalog = loadProducts(conn);
+        }
+        return catalog;
+    }
+
+    /**
+     * Thêm nhân viên nv_gen_<n> cho đủ employeeCount, trả về id của các nhân viên
+     */
+    private int[] ensureEmployees(Connection conn) throws SQLException {
+        int existing = (int) queryLong(conn, "SELECT COUNT(*) FROM users WHERE role = 'EMPLOYEE'");
+        if (existing < employeeCount) {
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT OR IGNORE INTO users (username, password, full_name, role) VALUES (?, '123', ?, 'EMPLOYEE')")) {
+                for (int i = existing; i < employeeCount; i++) {
+                    pstmt.setString(1, "nv_gen_" + (i + 1));
+                    pstmt.setString(2, "Nhân viên " + (i + 1));
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+
+        List<Integer> ids = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id FROM users WHERE role = 'EMPLOYEE' ORDER BY id")) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private List<Item> loadProducts(Connection conn) throws SQLException {
+        List<Item> items = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT id, name, price FROM products WHERE status = 1 ORDER BY id")) {
+            while (rs.next()) {
+                items.add(new Item(rs.getInt(1), rs.getString(2), rs.getLong(3)));
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Số món mỗi order: đa số 1-2 món
+     */
+    private static int randomLineCount(Random random) {
+        double r = random.nextDouble();
+        return r < 0.4 ? 1 : r < 0.75 ? 2 : r < 0.9 ? 3 : 4;
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] result = new double[weights.length];
+        double sum = Arrays.stream(weights).sum();
+        double running = 0;
+        for (int i = 0; i < weights.length; i++) {
+            running += weights[i];
+            result[i] = running / sum;
+        }
+        return result;
+    }
+
+    private static int pick(double[] cumulative, double r) {
+        int index = Arrays.binarySearch(cumulative, r);
+        return Math.min(cumulative.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    private static long queryLong(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static String queryString(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.ql_shopcoffee.utils;
+
+/**
+ * Cấu hình kết nối cơ sở dữ liệu
+ * Giá trị mặc định có thể ghi đè bằng system property (VD: -Dcf.db.pool.size=6)
+ */
+public class DatabaseConfig {
+    private String dbURL = "jdbc:sqlite:cf.db";
+
+    // Số connection chỉ đọc trong pool (connection ghi luôn là 1)
+    private int readPoolSize = 4;
+
+    // Thời gian tối đa chờ mượn connection
+    private long borrowTimeoutMillis = 5000;
+
+    // Connection nhàn rỗi lâu hơn mốc này sẽ được kiểm tra isValid() trước khi cho mượn
+    private long validationIntervalMillis = 30000;
+
+    // Timeout cho isValid()
+    private int validationTimeoutSeconds = 2;
+
+    // Số PreparedStatement được cache trên mỗi connection, 0 = tắt
+    private int statementCacheSize = 64;
+
+    // PRAGMA áp dụng cho mọi connection
+    private PragmaProfile pragmaProfile = new PragmaProfile();
+
+    // Chu kỳ kiểm tra checkpoint WAL nền, 0 = tắt
+    private long checkpointIntervalMillis = 10000;
+
+    // Chỉ checkpoint khi connection ghi đã rảnh ít nhất khoảng này
+    private long checkpointIdleMillis = 3000;
+
+    // Đo thời gian từng câu SQL (QueryMetrics), mặc định tắt vì tốn thêm một lớp proxy cho mỗi statement
+    private boolean queryMetricsEnabled = false;
+
+    // Query chạy lâu hơn mốc này được ghi vào slow-query log
+    private long slowQueryMillis = 200;
+
+    public DatabaseConfig() {}
+
+    /**
+     * Đọc cấu hình từ system properties, thiếu thì dùng mặc định
+     */
+    public static DatabaseConfig fromSystemProperties() {
+        DatabaseConfig config = new DatabaseConfig();
+        config.setDbURL(System.getProperty("cf.db.url", config.getDbURL()));
+        config.setReadPoolSize(Integer.getInteger("cf.db.pool.size", config.getReadPoolSize()));
+        config.setBorrowTimeoutMillis(Long.getLong("cf.db.pool.borrowTimeoutMs", config.getBorrowTimeoutMillis()));
+        config.setValidationIntervalMillis(Long.getLong("cf.db.pool.validationIntervalMs", config.getValidationIntervalMillis()));
+        config.setValidationTimeoutSeconds(Integer.getInteger("cf.db.pool.validationTimeoutSec", config.getValidationTimeoutSeconds()));
+        config.setStatementCacheSize(Integer.getInteger("cf.db.statementCache.size", config.getStatementCacheSize()));
+        config.setPragmaProfile(PragmaProfile.fromSystemProperties());
+        config.setCheckpointIntervalMillis(Long.getLong("cf.db.checkpoint.intervalMs", config.getCheckpointIntervalMillis()));
+        config.setCheckpointIdleMillis(Long.getLong("cf.db.checkpoint.idleMs", config.getCheckpointIdleMillis()));
+        config.setQueryMetricsEnabled(Boolean.parseBoolean(System.getProperty("cf.db.metrics", String.valueOf(config.isQueryMetricsEnabled()))));
+        config.setSlowQueryMillis(Long.getLong("cf.db.slowQueryMs", config.getSlowQueryMillis()));
+        return config;
+    }
+
+    // Getters
+    public String getDbURL() { return dbURL; }
+    public int getReadPoolSize() { return readPoolSize; }
+    public long getBorrowTimeoutMillis() { return borrowTimeoutMillis; }
+    public long getValidationIntervalMillis() { return validationIntervalMillis; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public PragmaProfile getPragmaProfile() { return pragmaProfile; }
+    public long getCheckpointIntervalMillis() { return checkpointIntervalMillis; }
+    public long getCheckpointIdleMillis() { return checkpointIdleMillis; }
+    public boolean isQueryMetricsEnabled() { return queryMetricsEnabled; }
+    public long getSlowQueryMillis() { return slowQueryMillis; }
+
+    // Setters
+    public void setDbURL(String dbURL) { this.dbURL = dbURL; }
+    public void setReadPoolSize(int readPoolSize) { this.readPoolSize = Math.max(1, readPoolSize); }
+    public void setBorrowTimeoutMillis(long borrowTimeoutMillis) { this.borrowTimeoutMillis = borrowTimeoutMillis; }
+    public void setValidationIntervalMillis(long validationIntervalMillis) { this.validationIntervalMillis = validationIntervalMillis; }
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) { this.validationTimeoutSeconds = validationTimeoutSeconds; }
+    public void setStatementCacheSize(int statementCacheSize) { this.statementCacheSize = Math.max(0, statementCacheSize); }
+    public void setPragmaProfile(PragmaProfile pragmaProfile) { this.pragmaProfile = pragmaProfile; }
+    public void setCheckpointIntervalMillis(long checkpointIntervalMillis) { this.checkpointIntervalMillis = checkpointIntervalMillis; }
+    public void setCheckpointIdleMillis(long checkpointIdleMillis) { this.checkpointIdleMillis = checkpointIdleMillis; }
+    public void setQueryMetricsEnabled(boolean queryMetricsEnabled) { this.queryMetricsEnabled = queryMetricsEnabled; }
+    public void setSlowQueryMillis(long slowQueryMillis) { this.slowQueryMillis = Math.max(0, slowQueryMillis); }
+
+    @Override
+    public String toString() {
+        return String.format("DatabaseConfig[url = %s, readPool = %d, borrowTimeout = %dms, %s]",
+                dbURL, readPoolSize, borrowTimeoutMillis, pragmaProfile);
+    }
+}
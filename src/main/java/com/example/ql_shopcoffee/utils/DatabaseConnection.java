@@ -1,30 +1,30 @@
 package com.example.ql_shopcoffee.utils;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 /**
  * Singleton class để quản lý database connection
- * Chức năng: tạo vào quản lí connection
+ * Chức năng: tạo và quản lí pool connection (nhiều connection đọc, một connection ghi)
+ * DAO mượn connection cho từng thao tác và close() để trả lại pool
  */
 public class DatabaseConnection {
     private static DatabaseConnection instance;
-    private Connection connection;
-    private static final String dbURL = "jdbc:sqlite:cf.db";
+    private final DatabaseConfig config;
+    private volatile ConnectionPool pool;
+    private WalCheckpointScheduler checkpointScheduler;
 
-    private DatabaseConnection() {
+    private DatabaseConnection(DatabaseConfig config) {
+        this.config = config;
         try {
             // Tải driver JDBC
             Class.forName("org.sqlite.JDBC");
 
-            // Tạo connection
-            connection = DriverManager.getConnection(dbURL);
+            // Tạo pool connection (PRAGMA được áp dụng khi mở từng connection)
+            QueryMetrics.getInstance().configure(config);
+            openPool();
 
-            // Bật khóa phụ
-            connection.createStatement().execute("PRAGMA foreign_keys = ON;");
-
-            System.out.println(" Kết nối cơ sở dữ liệu đã được thiết lập thành công. ");
+            System.out.println(" Kết nối cơ sở dữ liệu đã được thiết lập thành công. " + config);
 
         } catch (ClassNotFoundException e) {
             System.err.println(" Không tìm thấy driver JDBC của SQLite");
@@ -38,51 +38,105 @@ public class DatabaseConnection {
     /**
      * Lấy instance duy nhất
      */
-    public static DatabaseConnection getInstance() {
+    public static synchronized DatabaseConnection getInstance() {
         if (instance == null) {
-            instance = new DatabaseConnection();
+            instance = new DatabaseConnection(DatabaseConfig.fromSystemProperties());
         }
         return instance;
     }
 
     /**
-     * Lấy connection object
-     * Tự động tạo lại nếu connection bị đóng
+     * Khởi tạo với cấu hình riêng (gọi trước lần getInstance() đầu tiên)
      */
-    public Connection getConnection() {
-        try {
-            if(connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(dbURL);
-                connection.createStatement().execute("PRAGMA foreign_keys = ON");
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+    public static synchronized DatabaseConnection initialize(DatabaseConfig config) {
+        if (instance != null) {
+            instance.closeConnection();
         }
-        return connection;
+        instance = new DatabaseConnection(config);
+        return instance;
+    }
+
+    public DatabaseConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Lịch checkpoint WAL nền (null nếu không dùng WAL)
+     */
+    public WalCheckpointScheduler getCheckpointScheduler() {
+        return checkpointScheduler;
+    }
+
+    /**
+     * Mượn connection chỉ đọc
+     * Tự động tạo lại pool nếu pool bị đóng
+     */
+    public Connection getReadConnection() throws SQLException {
+        return getPool().borrowRead();
+    }
+
+    /**
+     * Mượn connection ghi, dùng cho insert/update/delete và transaction
+     */
+    public Connection getWriteConnection() throws SQLException {
+        return getPool().borrowWrite();
+    }
+
+    /**
+     * Thống kê cache PreparedStatement (hit/miss/eviction)
+     */
+    public StatementCache.Stats getStatementCacheStats() {
+        ConnectionPool current = pool;
+        return current != null ? current.getStatementCacheStats() : new StatementCache.Stats();
+    }
+
+    /**
+     * Thời gian / số dòng theo câu SQL, method DAO, màn hình và slow-query log
+     */
+    public QueryMetrics getQueryMetrics() {
+        return QueryMetrics.getInstance();
     }
 
     /**
      * Kiểm tra connection có đang hoạt động không
      */
     public boolean isConnected() {
-        try {
-            return connection != null && !connection.isClosed();
-        } catch (SQLException e) {
-            return false;
-        }
+        return pool != null && !pool.isClosed();
     }
 
     /**
-     * Đóng connection khi ứng dụng kết thúc
+     * Đóng toàn bộ connection khi ứng dụng kết thúc
      */
-    public void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("✓ Database connection closed.");
+    public synchronized void closeConnection() {
+        if (pool != null && !pool.isClosed()) {
+            if (checkpointScheduler != null) {
+                checkpointScheduler.stop();
+                checkpointScheduler = null;
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            pool.close();
+            System.out.println("✓ Database connection closed.");
+        }
+    }
+
+    private ConnectionPool getPool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current != null && !current.isClosed()) {
+            return current;
+        }
+        synchronized (this) {
+            if (pool == null || pool.isClosed()) {
+                openPool();
+            }
+            return pool;
+        }
+    }
+
+    private void openPool() throws SQLException {
+        pool = new ConnectionPool(config);
+        if (config.getPragmaProfile().isWal()) {
+            checkpointScheduler = new WalCheckpointScheduler(pool,
+                    config.getCheckpointIntervalMillis(), config.getCheckpointIdleMillis());
+            checkpointScheduler.start();
         }
     }
 }
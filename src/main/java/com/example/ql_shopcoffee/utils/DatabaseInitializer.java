@@ -4,29 +4,83 @@ package com.example.ql_shopcoffee.utils;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Khởi tạo lược đồ cở sở dữ liệu và dữ liệu mẫu
  * Tạo tables, indexes, triggers và thêm dữ liệu mẫu
  */
 public class DatabaseInitializer {
-    private final Connection connection;
+
+    /**
+     * Tính lại daily_sales từ orders + order_details (backfill / rebuild)
+     */
+    public static final String DAILY_SALES_BACKFILL_SQL = """
+            INSERT INTO daily_sales (day, employee_id, status, order_count, revenue, item_count)
+            SELECT date(o.order_date / 1000, 'unixepoch', 'localtime'), o.employee_id, o.status,
+                   COUNT(*), SUM(o.total_amount), COALESCE(SUM(d.items), 0)
+            FROM orders o
+            LEFT JOIN (
+                SELECT order_id, SUM(quantity) AS items FROM order_details GROUP BY order_id
+            ) d ON d.order_id = o.id
+            GROUP BY date(o.order_date / 1000, 'unixepoch', 'localtime'), o.employee_id, o.status
+            """;
+
+    /**
+     * Tính lại product_sales từ order details của các orders COMPLETED
+     */
+    public static final String PRODUCT_SALES_BACKFILL_SQL = """
+            INSERT INTO product_sales (day, product_id, quantity, revenue)
+            SELECT date(o.order_date / 1000, 'unixepoch', 'localtime'), d.product_id, SUM(d.quantity), SUM(d.quantity * d.price)
+            FROM order_details d
+            JOIN orders o ON o.id = d.order_id
+            WHERE o.status = 'COMPLETED'
+            GROUP BY date(o.order_date / 1000, 'unixepoch', 'localtime'), d.product_id
+            """;
+
+    // Triggers của bảng tổng hợp, luôn được xóa và tạo lại khi khởi động để định nghĩa mới được áp dụng
+    private static final String[] ROLLUP_TRIGGERS = {
+            "daily_sales_order_insert", "daily_sales_order_amount", "daily_sales_order_update", "daily_sales_order_delete",
+            "daily_sales_item_insert", "daily_sales_item_update", "daily_sales_item_delete",
+            "product_sales_item_insert", "product_sales_item_update", "product_sales_item_delete",
+            "product_sales_order_update", "product_sales_order_delete"
+    };
+
+    // Triggers cộng / trừ total_amount theo order_details
+    private static final String[] ORDER_TOTAL_TRIGGERS = {
+            "update_order_total_insert", "update_order_total_update", "update_order_total_delete"
+    };
+
+    // Bảng có cột tiền, database cũ lưu REAL
+    private static final String[] MONEY_TABLES = {"products", "orders", "order_details"};
+
+    private final DatabaseConnection db;
 
     public DatabaseInitializer() {
-        this.connection = DatabaseConnection.getInstance().getConnection();
+        this.db = DatabaseConnection.getInstance();
     }
 
     /**
      * Khởi tạo toàn bộ database
      */
     public void initialize() {
-        try {
+        try (Connection connection = db.getWriteConnection()) {
             System.out.println(" Bắt đầu khởi tạo dữ liệu. ");
 
-            createTables();
-            createIndexes();
-            createTriggers();
-            insertSampleData();
+            migrateMoneyColumns(connection);
+            createTables(connection);
+            addMissingColumns(connection);
+            boolean migrated = migrateOrderDates(connection);
+            createIndexes(connection);
+            createTriggers(connection);
+            createFullTextSearch(connection);
+            createDailySales(connection);
+            createProductSales(connection);
+            if (migrated) {
+                rebuildRollups(connection);
+            }
+            insertSampleData(connection);
 
             System.out.println(" Khởi tạo cơ sở dữ liệu hoàn tất. ");
         } catch (SQLException e) {
@@ -35,10 +89,128 @@ public class DatabaseInitializer {
         }
     }
 
+    /**
+     * Chuyển cột tiền REAL cũ (products.price, orders.total_amount, order_details.price) sang INTEGER đồng
+     * SQLite không đổi được kiểu cột nên dựng lại bảng: đổi tên bảng cũ, tạo bảng mới, chép dữ liệu (làm tròn), xóa bảng cũ
+     * Triggers / indexes của bảng cũ bị xóa theo và được tạo lại ở các bước sau, bảng tổng hợp được backfill lại
+     */
+    private void migrateMoneyColumns(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            if (!"REAL".equalsIgnoreCase(columnType(stmt, "products", "price"))) {
+                return;
+            }
+
+            System.out.println("Chuyển cột tiền REAL sang INTEGER (đồng)...");
+            // Phải tắt ngoài transaction, bảng cũ bị xóa khi bảng con vẫn tham chiếu tới
+            stmt.execute("PRAGMA foreign_keys = OFF");
+            connection.setAutoCommit(false);
+            try {
+                for (String table : MONEY_TABLES) {
+                    dropTriggersOn(stmt, table);
+                }
+                stmt.execute("DROP TABLE IF EXISTS daily_sales");
+                stmt.execute("DROP TABLE IF EXISTS product_sales");
+                for (String table : MONEY_TABLES) {
+                    stmt.execute("ALTER TABLE " + table + " RENAME TO " + table + "_legacy");
+                }
+
+                createTables(connection);
+                stmt.execute("""
+                    INSERT INTO products (id, name, category_id, price, image, status, created_at, updated_at)
+                    SELECT id, name, category_id, CAST(ROUND(price) AS INTEGER), image, status, created_at, updated_at
+                    FROM products_legacy
+                """);
+                stmt.execute("""
+                    INSERT INTO orders (id, employee_id, order_date, total_amount, status, note)
+                    SELECT id, employee_id, order_date, CAST(ROUND(total_amount) AS INTEGER), status, note
+                    FROM orders_legacy
+                """);
+                stmt.execute("""
+                    INSERT INTO order_details (id, order_id, product_id, product_name, quantity, price)
+                    SELECT id, order_id, product_id, product_name, quantity, CAST(ROUND(price) AS INTEGER)
+                    FROM order_details_legacy
+                """);
+                // total_amount khớp đúng tổng các dòng sau khi làm tròn giá
+                stmt.execute("""
+                    UPDATE orders SET total_amount = d.total
+                    FROM (SELECT order_id, SUM(quantity * price) AS total FROM order_details GROUP BY order_id) d
+                    WHERE d.order_id = orders.id
+                """);
+
+                for (String table : MONEY_TABLES) {
+                    stmt.execute("DROP TABLE " + table + "_legacy");
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+                stmt.execute("PRAGMA foreign_keys = ON");
+            }
+        }
+    }
+
+    /**
+     * Thêm các cột mới vào bảng của database cũ
+     */
+    private void addMissingColumns(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            if (columnType(stmt, "orders", "receipt_no") == null) {
+                stmt.execute("ALTER TABLE orders ADD COLUMN receipt_no INTEGER");
+            }
+            if (columnType(stmt, "orders", "terminal_id") == null) {
+                stmt.execute("ALTER TABLE orders ADD COLUMN terminal_id TEXT");
+            }
+        }
+    }
+
+    /**
+     * Chuyển orders.order_date dạng text cũ ('yyyy-MM-dd HH:mm:ss', giờ địa phương) sang epoch millis
+     * Triggers tổng hợp đọc order_date bị xóa trước (tạo lại sau) để UPDATE không đụng bảng tổng hợp
+     * @return true nếu có dữ liệu được chuyển
+     */
+    private boolean migrateOrderDates(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            var rs = stmt.executeQuery("SELECT COUNT(*) FROM orders WHERE typeof(order_date) = 'text'");
+            int legacyRows = rs.next() ? rs.getInt(1) : 0;
+            rs.close();
+            if (legacyRows == 0) {
+                return false;
+            }
+
+            System.out.println("Chuyển " + legacyRows + " order_date sang epoch millis...");
+            dropRollupTriggers(stmt);
+
+            connection.setAutoCommit(false);
+            try (var select = connection.prepareStatement("SELECT id, order_date FROM orders WHERE typeof(order_date) = 'text'");
+                 var update = connection.prepareStatement("UPDATE orders SET order_date = ? WHERE id = ?");
+                 var rows = select.executeQuery()) {
+                int batched = 0;
+                while (rows.next()) {
+                    update.setLong(1, EpochTime.parseLegacy(rows.getString(2)));
+                    update.setInt(2, rows.getInt(1));
+                    update.addBatch();
+                    if (++batched % 1000 == 0) {
+                        update.executeBatch();
+                    }
+                }
+                update.executeBatch();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            return true;
+        }
+    }
+
     /**
      * Tạo tất cả tables
      */
-    private void createTables() throws SQLException {
+    private void createTables(Connection connection) throws SQLException {
         try(Statement stmt = connection.createStatement()) {
 
             // Bảng: users(người dùng)
@@ -70,7 +242,7 @@ public class DatabaseInitializer {
                 id INTEGER PRIMARY KEY AUTOINCREMENT,
                 name TEXT UNIQUE NOT NULL,
                 category_id INTEGER NOT NULL,
-                price REAL NOT NULL CHECK(price >= 0),
+                price INTEGER NOT NULL CHECK(price >= 0), -- đồng
                 image TEXT,
                 status INTEGER DEFAULT 1,
                 created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -84,10 +256,12 @@ public class DatabaseInitializer {
             CREATE TABLE IF NOT EXISTS orders (
                 id INTEGER PRIMARY KEY AUTOINCREMENT,
                 employee_id INTEGER NOT NULL,
-                order_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-                total_amount REAL NOT NULL DEFAULT 0 CHECK(total_amount >= 0),
+                order_date INTEGER NOT NULL DEFAULT (CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER)), -- epoch millis
+                total_amount INTEGER NOT NULL DEFAULT 0 CHECK(total_amount >= 0), -- đồng
                 status TEXT DEFAULT 'COMPLETED' CHECK(status IN ('PENDING', 'COMPLETED', 'CANCELLED')),
-                note TEXT
+                note TEXT,
+                receipt_no INTEGER, -- số hóa đơn cấp khi checkout qua hàng đợi
+                terminal_id TEXT -- máy quầy cấp receipt_no (số hóa đơn chỉ duy nhất trong một máy)
             )
             """);
 
@@ -99,7 +273,7 @@ public class DatabaseInitializer {
                 product_id INTEGER NOT NULL,
                 product_name TEXT NOT NULL,
                 quantity INTEGER NOT NULL CHECK(quantity > 0),
-                price REAL NOT NULL CHECK(price >= 0),
+                price INTEGER NOT NULL CHECK(price >= 0), -- đồng
                 FOREIGN KEY (order_id) REFERENCES orders (id) ON DELETE CASCADE,
                 FOREIGN KEY (product_id) REFERENCES products (id) ON DELETE RESTRICT
             )
@@ -112,7 +286,7 @@ public class DatabaseInitializer {
     /**
      * Tạo indexes để tăng hiệu suất
      */
-    private void createIndexes() throws SQLException {
+    private void createIndexes(Connection connection) throws SQLException {
         try(Statement stmt = connection.createStatement()) {
 
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_users_username ON users(username)"); // Tìm user nhanh hơn
@@ -121,6 +295,11 @@ public class DatabaseInitializer {
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_employee ON orders(employee_id)"); // Lấy đơn theo nhân viên
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_date ON orders(order_date)"); // Lấy đơn theo ngày
             stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_details_order ON order_details(order_id)"); // Lấy chi tiết đơn hàng nhanh
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_order_details_product ON order_details(product_id)"); // Tên lúc bán của top sản phẩm
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_date_id ON orders(order_date, id)"); // Phân trang keyset
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_employee_date_id ON orders(employee_id, order_date, id)"); // Phân trang theo nhân viên
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_orders_status_date_id ON orders(status, order_date, id)"); // Phân trang theo trạng thái
+            stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_orders_terminal_receipt ON orders(terminal_id, receipt_no)"); // Ghi lại hàng đợi checkout không bị trùng (mỗi máy quầy cấp số riêng)
 
             System.out.println("Tạo xong indexes");
         }
@@ -129,7 +308,7 @@ public class DatabaseInitializer {
     /**
      * Tạo triggers để tự động cập nhật dữ liệu
      */
-    private void createTriggers() throws SQLException {
+    private void createTriggers(Connection connection) throws SQLException {
         try(Statement stmt = connection.createStatement()) {
             // Trigger: Tự động cập nhật updated_at cho users
             stmt.execute("""
@@ -149,47 +328,45 @@ public class DatabaseInitializer {
             END
             """);
 
-            // Trigger: Tự động cập nhật  total_amount khi insert order_details
+            // Trigger total_amount cũ tính lại SUM toàn bộ order sau mỗi dòng (O(N²) khi checkout)
+            // -> xóa và tạo lại dạng cộng/trừ chênh lệch, mỗi dòng chỉ cập nhật O(1)
+            stmt.execute("DROP TRIGGER IF EXISTS update_order_total_insert");
+            stmt.execute("DROP TRIGGER IF EXISTS uppdate_order_total_update");
+            stmt.execute("DROP TRIGGER IF EXISTS update_order_total_update");
+            stmt.execute("DROP TRIGGER IF EXISTS update_order_total_delete");
+
+            // Trigger: Cộng thành tiền của dòng mới vào total_amount
             stmt.execute("""
-            CREATE TRIGGER IF NOT EXISTS update_order_total_insert
+            CREATE TRIGGER update_order_total_insert
             AFTER INSERT ON order_details
             BEGIN
                 UPDATE orders
-                SET total_amount = (
-                    SELECT SUM(quantity * price)
-                    FROM order_details
-                    WHERE order_id = NEW.order_id
-                )
+                SET total_amount = total_amount + NEW.quantity * NEW.price
                 WHERE id = NEW.order_id;
             END
             """);
 
-            // Trigger: Tự động cập nhật total_amount khi update order_details
+            // Trigger: Điều chỉnh total_amount theo chênh lệch khi update order_details
             stmt.execute("""
-            CREATE TRIGGER IF NOT EXISTS uppdate_order_total_update
-            AFTER UPDATE ON order_details
+            CREATE TRIGGER update_order_total_update
+            AFTER UPDATE OF order_id, quantity, price ON order_details
             BEGIN
                 UPDATE orders
-                SET total_amount = (
-                    SELECT SUM(quantity * price)
-                    FROM orders_details
-                    WHERE order_id = NEW.order_id
-                )
+                SET total_amount = MAX(total_amount - OLD.quantity * OLD.price, 0)
+                WHERE id = OLD.order_id;
+                UPDATE orders
+                SET total_amount = total_amount + NEW.quantity * NEW.price
                 WHERE id = NEW.order_id;
             END
             """);
 
-            // Trigger: Tự động cập nhật total_amount khi delete order_details
+            // Trigger: Trừ thành tiền của dòng bị xóa khỏi total_amount
             stmt.execute("""
-            CREATE TRIGGER IF NOT EXISTS update_order_total_delete
+            CREATE TRIGGER update_order_total_delete
             AFTER DELETE ON order_details
             BEGIN
-                UPDATE orders 
-                SET total_amount = (
-                    SELECT COALESCE(SUM(quantity * price), 0)
-                    FROM order_details 
-                    WHERE order_id = OLD.order_id
-                 )
+                UPDATE orders
+                SET total_amount = MAX(total_amount - OLD.quantity * OLD.price, 0)
                 WHERE id = OLD.order_id;
             END
             """);
@@ -198,10 +375,428 @@ public class DatabaseInitializer {
         }
     }
 
+    /**
+     * Tạo bảng FTS5 tìm kiếm toàn văn cho products.name và orders.note, giữ đồng bộ bằng triggers
+     * Nội dung được fold đ -> d trong trigger, tokenizer bỏ các dấu còn lại nên gõ không dấu vẫn tìm được
+     */
+    private void createFullTextSearch(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            boolean productsIndexed = tableExists(stmt, "products_fts");
+            boolean ordersIndexed = tableExists(stmt, "orders_fts");
+
+            stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS products_fts USING fts5(name, tokenize = 'unicode61 remove_diacritics 2')");
+            stmt.execute("CREATE VIRTUAL TABLE IF NOT EXISTS orders_fts USING fts5(note, tokenize = 'unicode61 remove_diacritics 2')");
+
+            // Trigger: products.name -> products_fts (rowid = products.id)
+            stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS products_fts_insert
+            AFTER INSERT ON products
+            BEGIN
+                INSERT INTO products_fts (rowid, name) VALUES (NEW.id, %s);
+            END
+            """.formatted(FullTextQuery.foldSql("NEW.name")));
+
+            stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS products_fts_update
+            AFTER UPDATE OF name ON products
+            BEGIN
+                UPDATE products_fts SET name = %s WHERE rowid = NEW.id;
+            END
+            """.formatted(FullTextQuery.foldSql("NEW.name")));
+
+            stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS products_fts_delete
+            AFTER DELETE ON products
+            BEGIN
+                DELETE FROM products_fts WHERE rowid = OLD.id;
+            END
+            """);
+
+            // Trigger: orders.note -> orders_fts (rowid = orders.id)
+            stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS orders_fts_insert
+            AFTER INSERT ON orders
+            BEGIN
+                INSERT INTO orders_fts (rowid, note) VALUES (NEW.id, %s);
+            END
+            """.formatted(FullTextQuery.foldSql("NEW.note")));
+
+            stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS orders_fts_update
+            AFTER UPDATE OF note ON orders
+            BEGIN
+                UPDATE orders_fts SET note = %s WHERE rowid = NEW.id;
+            END
+            """.formatted(FullTextQuery.foldSql("NEW.note")));
+
+            stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS orders_fts_delete
+            AFTER DELETE ON orders
+            BEGIN
+                DELETE FROM orders_fts WHERE rowid = OLD.id;
+            END
+            """);
+
+            // Database cũ: đánh chỉ mục dữ liệu đã có một lần khi mới tạo bảng FTS
+            if (!productsIndexed) {
+                stmt.execute("INSERT INTO products_fts (rowid, name) SELECT id, "
+                        + FullTextQuery.foldSql("name") + " FROM products");
+            }
+            if (!ordersIndexed) {
+                stmt.execute("INSERT INTO orders_fts (rowid, note) SELECT id, "
+                        + FullTextQuery.foldSql("note") + " FROM orders");
+            }
+
+            System.out.println("Tạo xong chỉ mục tìm kiếm toàn văn.");
+        }
+    }
+
+    /**
+     * Bảng tổng hợp doanh số theo (ngày, nhân viên, trạng thái), cập nhật bằng triggers trong cùng transaction
+     * Thống kê đọc từ đây thay vì quét orders
+     */
+    private void createDailySales(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            boolean exists = tableExists(stmt, "daily_sales");
+            dropRollupTriggers(stmt);
+
+            stmt.execute("""
+            CREATE TABLE IF NOT EXISTS daily_sales (
+                day TEXT NOT NULL,
+                employee_id INTEGER NOT NULL,
+                status TEXT NOT NULL,
+                order_count INTEGER NOT NULL DEFAULT 0,
+                revenue INTEGER NOT NULL DEFAULT 0,
+                item_count INTEGER NOT NULL DEFAULT 0,
+                PRIMARY KEY (day, employee_id, status)
+            ) WITHOUT ROWID
+            """);
+
+            // Trigger: order mới -> cộng vào nhóm (ngày, nhân viên, trạng thái)
+            stmt.execute("""
+            CREATE TRIGGER daily_sales_order_insert
+            AFTER INSERT ON orders
+            BEGIN
+                INSERT INTO daily_sales (day, employee_id, status, order_count, revenue, item_count)
+                VALUES (date(NEW.order_date / 1000, 'unixepoch', 'localtime'), NEW.employee_id, NEW.status, 1, NEW.total_amount, 0)
+                ON CONFLICT (day, employee_id, status) DO UPDATE SET
+                    order_count = order_count + 1,
+                    revenue = revenue + excluded.revenue;
+            END
+            """);
+
+            // Trigger: total_amount đổi trong cùng nhóm (thêm / sửa / xóa món) -> chỉ cộng chênh lệch doanh thu
+            // Số món đã được các trigger của order_details cập nhật, không cần đếm lại cả order
+            stmt.execute("""
+            CREATE TRIGGER daily_sales_order_amount
+            AFTER UPDATE OF total_amount ON orders
+            WHEN OLD.total_amount IS NOT NEW.total_amount
+              AND date(OLD.order_date / 1000, 'unixepoch', 'localtime') IS date(NEW.order_date / 1000, 'unixepoch', 'localtime')
+              AND OLD.employee_id IS NEW.employee_id AND OLD.status IS NEW.status
+            BEGIN
+                UPDATE daily_sales SET revenue = revenue + NEW.total_amount - OLD.total_amount
+                WHERE day = date(NEW.order_date / 1000, 'unixepoch', 'localtime') AND employee_id = NEW.employee_id AND status = NEW.status;
+            END
+            """);
+
+            // Trigger: đổi trạng thái (hủy đơn), đổi ngày hoặc nhân viên -> trừ khỏi nhóm cũ, cộng vào nhóm mới
+            stmt.execute("""
+            CREATE TRIGGER daily_sales_order_update
+            AFTER UPDATE OF order_date, employee_id, status ON orders
+            WHEN date(OLD.order_date / 1000, 'unixepoch', 'localtime') IS NOT date(NEW.order_date / 1000, 'unixepoch', 'localtime')
+              OR OLD.employee_id IS NOT NEW.employee_id OR OLD.status IS NOT NEW.status
+            BEGIN
+                UPDATE daily_sales SET
+                    order_count = order_count - 1,
+                    revenue = revenue - OLD.total_amount,
+                    item_count = item_count - (SELECT COALESCE(SUM(quantity), 0) FROM order_details WHERE order_id = OLD.id)
+                WHERE day = date(OLD.order_date / 1000, 'unixepoch', 'localtime') AND employee_id = OLD.employee_id AND status = OLD.status;
+
+                INSERT INTO daily_sales (day, employee_id, status, order_count, revenue, item_count)
+                VALUES (date(NEW.order_date / 1000, 'unixepoch', 'localtime'), NEW.employee_id, NEW.status, 1, NEW.total_amount,
+                        (SELECT COALESCE(SUM(quantity), 0) FROM order_details WHERE order_id = NEW.id))
+                ON CONFLICT (day, employee_id, status) DO UPDATE SET
+                    order_count = order_count + 1,
+                    revenue = revenue + excluded.revenue,
+                    item_count = item_count + excluded.item_count;
+            END
+            """);
+
+            // Trigger: xóa order -> trừ toàn bộ phần đóng góp
+            // Chạy BEFORE vì SQLite xóa order_details (cascade) sau khi dòng orders đã mất,
+            // lúc đó các trigger của order_details không còn tìm thấy order nên không trừ lặp
+            stmt.execute("""
+            CREATE TRIGGER daily_sales_order_delete
+            BEFORE DELETE ON orders
+            BEGIN
+                UPDATE daily_sales SET
+                    order_count = order_count - 1,
+                    revenue = revenue - OLD.total_amount,
+                    item_count = item_count - (SELECT COALESCE(SUM(quantity), 0) FROM order_details WHERE order_id = OLD.id)
+                WHERE day = date(OLD.order_date / 1000, 'unixepoch', 'localtime') AND employee_id = OLD.employee_id AND status = OLD.status;
+            END
+            """);
+
+            // Trigger: số món theo order details (doanh thu đã đi qua total_amount của orders)
+            stmt.execute("""
+            CREATE TRIGGER daily_sales_item_insert
+            AFTER INSERT ON order_details
+            BEGIN
+                UPDATE daily_sales SET item_count = item_count + NEW.quantity
+                WHERE (day, employee_id, status) =
+                      (SELECT date(order_date / 1000, 'unixepoch', 'localtime'), employee_id, status FROM orders WHERE id = NEW.order_id);
+            END
+            """);
+
+            stmt.execute("""
+            CREATE TRIGGER daily_sales_item_update
+            AFTER UPDATE OF order_id, quantity ON order_details
+            BEGIN
+                UPDATE daily_sales SET item_count = item_count - OLD.quantity
+                WHERE (day, employee_id, status) =
+                      (SELECT date(order_date / 1000, 'unixepoch', 'localtime'), employee_id, status FROM orders WHERE id = OLD.order_id);
+                UPDATE daily_sales SET item_count = item_count + NEW.quantity
+                WHERE (day, employee_id, status) =
+                      (SELECT date(order_date / 1000, 'unixepoch', 'localtime'), employee_id, status FROM orders WHERE id = NEW.order_id);
+            END
+            """);
+
+            stmt.execute("""
+            CREATE TRIGGER daily_sales_item_delete
+            AFTER DELETE ON order_details
+            BEGIN
+                UPDATE daily_sales SET item_count = item_count - OLD.quantity
+                WHERE (day, employee_id, status) =
+                      (SELECT date(order_date / 1000, 'unixepoch', 'localtime'), employee_id, status FROM orders WHERE id = OLD.order_id);
+            END
+            """);
+
+            // Database cũ: backfill một lần khi mới tạo bảng
+            if (!exists) {
+                stmt.execute(DAILY_SALES_BACKFILL_SQL);
+            }
+
+            System.out.println("Tạo xong bảng tổng hợp doanh số theo ngày.");
+        }
+    }
+
+    /**
+     * Bảng tổng hợp số lượng / doanh thu theo (ngày, sản phẩm), chỉ tính orders COMPLETED
+     * Cập nhật bằng triggers nên luôn cùng transaction với insert order / hủy order
+     */
+    private void createProductSales(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            boolean exists = tableExists(stmt, "product_sales");
+
+            stmt.execute("""
+            CREATE TABLE IF NOT EXISTS product_sales (
+                day TEXT NOT NULL,
+                product_id INTEGER NOT NULL,
+                quantity INTEGER NOT NULL DEFAULT 0,
+                revenue INTEGER NOT NULL DEFAULT 0,
+                PRIMARY KEY (day, product_id)
+            ) WITHOUT ROWID
+            """);
+
+            // Trigger: thêm món vào order COMPLETED
+            stmt.execute("""
+            CREATE TRIGGER product_sales_item_insert
+            AFTER INSERT ON order_details
+            WHEN (SELECT status FROM orders WHERE id = NEW.order_id) = 'COMPLETED'
+            BEGIN
+                INSERT INTO product_sales (day, product_id, quantity, revenue)
+                VALUES ((SELECT date(order_date / 1000, 'unixepoch', 'localtime') FROM orders WHERE id = NEW.order_id),
+                        NEW.product_id, NEW.quantity, NEW.quantity * NEW.price)
+                ON CONFLICT (day, product_id) DO UPDATE SET
+                    quantity = quantity + excluded.quantity,
+                    revenue = revenue + excluded.revenue;
+            END
+            """);
+
+            // Trigger: sửa món -> trừ giá trị cũ, cộng giá trị mới (mỗi bên chỉ khi order COMPLETED)
+            stmt.execute("""
+            CREATE TRIGGER product_sales_item_update
+            AFTER UPDATE OF order_id, product_id, quantity, price ON order_details
+            BEGIN
+                UPDATE product_sales SET
+                    quantity = quantity - OLD.quantity,
+                    revenue = revenue - OLD.quantity * OLD.price
+                WHERE product_id = OLD.product_id
+                  AND day = (SELECT date(order_date / 1000, 'unixepoch', 'localtime') FROM orders WHERE id = OLD.order_id AND status = 'COMPLETED');
+
+                INSERT INTO product_sales (day, product_id, quantity, revenue)
+                SELECT date(order_date / 1000, 'unixepoch', 'localtime'), NEW.product_id, NEW.quantity, NEW.quantity * NEW.price
+                FROM orders WHERE id = NEW.order_id AND status = 'COMPLETED'
+                ON CONFLICT (day, product_id) DO UPDATE SET
+                    quantity = quantity + excluded.quantity,
+                    revenue = revenue + excluded.revenue;
+            END
+            """);
+
+            // Trigger: xóa món (khi xóa cả order, dòng orders đã mất nên không trừ ở đây)
+            stmt.execute("""
+            CREATE TRIGGER product_sales_item_delete
+            AFTER DELETE ON order_details
+            BEGIN
+                UPDATE product_sales SET
+                    quantity = quantity - OLD.quantity,
+                    revenue = revenue - OLD.quantity * OLD.price
+                WHERE product_id = OLD.product_id
+                  AND day = (SELECT date(order_date / 1000, 'unixepoch', 'localtime') FROM orders WHERE id = OLD.order_id AND status = 'COMPLETED');
+            END
+            """);
+
+            // Trigger: hủy order / đổi ngày -> trừ toàn bộ món khỏi ngày cũ, cộng vào ngày mới nếu vẫn COMPLETED
+            stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS product_sales_order_update
+            AFTER UPDATE OF status, order_date ON orders
+            WHEN OLD.status IS NOT NEW.status OR OLD.order_date IS NOT NEW.order_date
+            BEGIN
+                UPDATE product_sales SET
+                    quantity = product_sales.quantity - d.sold_quantity,
+                    revenue = product_sales.revenue - d.sold_revenue
+                FROM (
+                    SELECT product_id, SUM(quantity) AS sold_quantity, SUM(quantity * price) AS sold_revenue
+                    FROM order_details WHERE order_id = OLD.id GROUP BY product_id
+                ) AS d
+                WHERE OLD.status = 'COMPLETED'
+                  AND product_sales.day = date(OLD.order_date / 1000, 'unixepoch', 'localtime')
+                  AND product_sales.product_id = d.product_id;
+
+                INSERT INTO product_sales (day, product_id, quantity, revenue)
+                SELECT date(NEW.order_date / 1000, 'unixepoch', 'localtime'), product_id, SUM(quantity), SUM(quantity * price)
+                FROM order_details
+                WHERE order_id = NEW.id AND NEW.status = 'COMPLETED'
+                GROUP BY product_id
+                ON CONFLICT (day, product_id) DO UPDATE SET
+                    quantity = quantity + excluded.quantity,
+                    revenue = revenue + excluded.revenue;
+            END
+            """);
+
+            // Trigger: xóa order COMPLETED -> trừ toàn bộ món (BEFORE, khi details còn nguyên)
+            stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS product_sales_order_delete
+            BEFORE DELETE ON orders
+            WHEN OLD.status = 'COMPLETED'
+            BEGIN
+                UPDATE product_sales SET
+                    quantity = product_sales.quantity - d.sold_quantity,
+                    revenue = product_sales.revenue - d.sold_revenue
+                FROM (
+                    SELECT product_id, SUM(quantity) AS sold_quantity, SUM(quantity * price) AS sold_revenue
+                    FROM order_details WHERE order_id = OLD.id GROUP BY product_id
+                ) AS d
+                WHERE product_sales.day = date(OLD.order_date / 1000, 'unixepoch', 'localtime')
+                  AND product_sales.product_id = d.product_id;
+            END
+            """);
+
+            // Database cũ: backfill một lần khi mới tạo bảng
+            if (!exists) {
+                stmt.execute(PRODUCT_SALES_BACKFILL_SQL);
+            }
+
+            System.out.println("Tạo xong bảng tổng hợp doanh số theo sản phẩm.");
+        }
+    }
+
+    /**
+     * Tính lại daily_sales và product_sales từ dữ liệu gốc
+     */
+    private void rebuildRollups(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("DELETE FROM daily_sales");
+            stmt.execute(DAILY_SALES_BACKFILL_SQL);
+            stmt.execute("DELETE FROM product_sales");
+            stmt.execute(PRODUCT_SALES_BACKFILL_SQL);
+            System.out.println("Tính lại xong bảng tổng hợp doanh số.");
+        }
+    }
+
+    // ========== NẠP DỮ LIỆU LỚN ==========
+
+    /**
+     * Chuẩn bị nạp dữ liệu lớn (DataGenerator) trên connection ghi: bỏ triggers tổng tiền / bảng tổng hợp / FTS
+     * của orders và indexes phụ của orders, order_details (dựng lại một lần khi xong nhanh hơn cập nhật từng dòng)
+     * Orders nạp vào phải có sẵn total_amount đúng và id tăng dần, gọi endBulkLoad khi xong
+     */
+    public void beginBulkLoad(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            dropRollupTriggers(stmt);
+            stmt.execute("DROP TRIGGER IF EXISTS orders_fts_insert");
+            for (String trigger : ORDER_TOTAL_TRIGGERS) {
+                stmt.execute("DROP TRIGGER IF EXISTS " + trigger);
+            }
+
+            List<String> indexes = new ArrayList<>();
+            try (var rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'index'"
+                    + " AND tbl_name IN ('orders', 'order_details') AND sql IS NOT NULL")) {
+                while (rs.next()) {
+                    indexes.add(rs.getString(1));
+                }
+            }
+            for (String index : indexes) {
+                stmt.execute("DROP INDEX IF EXISTS " + index);
+            }
+        }
+    }
+
+    /**
+     * Tạo lại indexes, triggers đã bỏ ở beginBulkLoad và tính lại bảng tổng hợp
+     * Caller commit cùng transaction với dữ liệu nên bị ngắt giữa chừng thì không có gì thay đổi
+     */
+    public void endBulkLoad(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            // Orders mới có id lớn hơn mọi rowid đã có trong orders_fts
+            stmt.execute("INSERT INTO orders_fts (rowid, note) SELECT id, " + FullTextQuery.foldSql("note")
+                    + " FROM orders WHERE id > (SELECT COALESCE(MAX(rowid), 0) FROM orders_fts)");
+        }
+        createIndexes(connection);
+        createTriggers(connection);
+        createFullTextSearch(connection);
+        createDailySales(connection);
+        createProductSales(connection);
+        rebuildRollups(connection);
+    }
+
+    private void dropRollupTriggers(Statement stmt) throws SQLException {
+        for (String trigger : ROLLUP_TRIGGERS) {
+            stmt.execute("DROP TRIGGER IF EXISTS " + trigger);
+        }
+    }
+
+    private void dropTriggersOn(Statement stmt, String table) throws SQLException {
+        List<String> triggers = new ArrayList<>();
+        try (var rs = stmt.executeQuery("SELECT name FROM sqlite_master WHERE type = 'trigger' AND tbl_name = '" + table + "'")) {
+            while (rs.next()) {
+                triggers.add(rs.getString(1));
+            }
+        }
+        for (String trigger : triggers) {
+            stmt.execute("DROP TRIGGER IF EXISTS " + trigger);
+        }
+    }
+
+    /**
+     * Kiểu khai báo của cột, null nếu bảng / cột không tồn tại
+     */
+    private String columnType(Statement stmt, String table, String column) throws SQLException {
+        try (var rs = stmt.executeQuery("SELECT type FROM pragma_table_info('" + table + "') WHERE name = '" + column + "'")) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    private boolean tableExists(Statement stmt, String name) throws SQLException {
+        try (var rs = stmt.executeQuery("SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + name + "'")) {
+            return rs.next();
+        }
+    }
+
     /**
      * Insert dữ liệu mẫu để test
      */
-    private void insertSampleData() throws SQLException {
+    private void insertSampleData(Connection connection) throws SQLException {
         try (Statement stmt = connection.createStatement()) {
 
             // Kiểm tra xem đã có dữ liệu chưa
@@ -254,7 +849,12 @@ public class DatabaseInitializer {
      * Xóa toàn bộ database
      */
     public void clearTables() throws SQLException {
-        try (Statement stmt = connection.createStatement()) {
+        try (Connection connection = db.getWriteConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute("DROP TABLE IF EXISTS product_sales");
+            stmt.execute("DROP TABLE IF EXISTS daily_sales");
+            stmt.execute("DROP TABLE IF EXISTS orders_fts");
+            stmt.execute("DROP TABLE IF EXISTS products_fts");
             stmt.execute("DROP TABLE IF EXISTS order_details");
             stmt.execute("DROP TABLE IF EXISTS orders");
             stmt.execute("DROP TABLE IF EXISTS products");
@@ -0,0 +1,82 @@
+package com.example.ql_shopcoffee.utils;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
+
+/**
+ * Chuyển đổi thời gian <-> epoch millis (cách lưu orders.order_date)
+ * Giờ địa phương theo múi giờ mặc định của máy, khớp với modifier 'localtime' của SQLite trong triggers
+ */
+public class EpochTime {
+
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+    private static final ZoneRules RULES = ZONE.getRules();
+
+    // Múi giờ không còn đổi giờ (VD: Asia/Ho_Chi_Minh từ 1975): sau lần chuyển cuối offset cố định,
+    // đổi thời gian không cần tra bảng múi giờ và không tạo Instant / ZonedDateTime trung gian
+    private static final ZoneOffset FIXED_OFFSET;
+    private static final long FIXED_SINCE_MILLIS;
+
+    static {
+        Instant now = Instant.now();
+        if (RULES.isFixedOffset() || RULES.nextTransition(now) == null) {
+            var last = RULES.previousTransition(now);
+            FIXED_OFFSET = RULES.getOffset(now);
+            FIXED_SINCE_MILLIS = last != null ? last.getInstant().toEpochMilli() : Long.MIN_VALUE;
+        } else {
+            FIXED_OFFSET = null;
+            FIXED_SINCE_MILLIS = Long.MAX_VALUE;
+        }
+    }
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        if (FIXED_OFFSET != null) {
+            long millis = dateTime.toEpochSecond(FIXED_OFFSET) * 1000 + dateTime.getNano() / 1_000_000;
+            if (millis >= FIXED_SINCE_MILLIS) {
+                return millis;
+            }
+        }
+        return dateTime.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    public static long toEpochMillis(LocalDate date) {
+        return toEpochMillis(date.atStartOfDay());
+    }
+
+    /**
+     * Không tạo Instant trung gian khi thời điểm nằm trong khoảng offset cố định
+     */
+    public static LocalDateTime fromEpochMillis(long epochMillis) {
+        long seconds = Math.floorDiv(epochMillis, 1000);
+        int nanos = (int) (Math.floorMod(epochMillis, 1000L) * 1_000_000L);
+        ZoneOffset offset = epochMillis >= FIXED_SINCE_MILLIS
+                ? FIXED_OFFSET
+                : RULES.getOffset(Instant.ofEpochSecond(seconds));
+        return LocalDateTime.ofEpochSecond(seconds, nanos, offset);
+    }
+
+    /**
+     * Định dạng 'yyyy-MM-dd HH:mm:ss' (giống cách lưu text trước đây)
+     */
+    public static String format(long epochMillis) {
+        return DISPLAY_FORMAT.format(fromEpochMillis(epochMillis));
+    }
+
+    /**
+     * Đọc text kiểu cũ 'yyyy-MM-dd HH:mm:ss[.SSS]' hoặc ISO 'yyyy-MM-ddTHH:mm:ss'
+     */
+    public static long parseLegacy(String text) {
+        String iso = text.trim().replace(' ', 'T');
+        if (iso.length() == 10) {
+            return toEpochMillis(LocalDate.parse(iso));
+        }
+        return toEpochMillis(LocalDateTime.parse(iso));
+    }
+}
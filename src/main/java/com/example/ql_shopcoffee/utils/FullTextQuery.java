@@ -0,0 +1,34 @@
+package com.example.ql_shopcoffee.utils;
+
+public class FullTextQuery {
+
+    /**
+     * Biểu thức SQL dùng trong trigger để đưa đ/Đ về d trước khi đánh chỉ mục FTS5
+     * (tokenizer unicode61 remove_diacritics tự bỏ các dấu còn lại)
+     */
+    public static String foldSql(String column) {
+        return "replace(replace(coalesce(" + column + ", ''), 'Đ', 'd'), 'đ', 'd')";
+    }
+
+    /**
+     * Chuyển từ khóa người dùng gõ thành biểu thức MATCH của FTS5
+     * Mỗi từ khớp tiền tố, các từ nối bằng AND: "banh sinh" -> "banh"* "sinh"*
+     * @return null nếu từ khóa không có chữ/số nào
+     */
+    public static String prefixQuery(String keyword) {
+        String[] tokens = TextNormalizer.tokens(TextNormalizer.fold(keyword));
+        if (tokens.length == 0) {
+            return null;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (String token : tokens) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            // Token chỉ gồm chữ/số nên không cần escape dấu "
+            sb.append('"').append(token).append("\"*");
+        }
+        return sb.toString();
+    }
+}
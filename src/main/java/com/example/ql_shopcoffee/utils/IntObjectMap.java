@@ -0,0 +1,70 @@
+package com.example.ql_shopcoffee.utils;
+
+/**
+ * Map khóa int nguyên thủy (open addressing, linear probing)
+ * Tra cứu không boxing Integer, không cấp phát bộ nhớ
+ * Chỉ put khi đang dựng, sau đó dùng read-only nên đọc từ nhiều luồng an toàn
+ */
+public class IntObjectMap<V> {
+    private final int[] keys;
+    private final Object[] values;
+    private final int mask;
+    private int size;
+
+    public IntObjectMap(int expectedSize) {
+        // Giữ load factor <= 0.5 để chuỗi dò ngắn
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Thêm hoặc thay giá trị (value không được null)
+     */
+    public void put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value không được null");
+        }
+        int index = indexOf(key);
+        if (values[index] == null) {
+            if (size + 1 > (mask + 1) / 2) {
+                throw new IllegalStateException("IntObjectMap đã đầy, tăng expectedSize");
+            }
+            size++;
+            keys[index] = key;
+        }
+        values[index] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        return (V) values[indexOf(key)];
+    }
+
+    public boolean containsKey(int key) {
+        return values[indexOf(key)] != null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Vị trí của key, hoặc ô trống đầu tiên nếu chưa có
+     */
+    private int indexOf(int key) {
+        int index = mix(key) & mask;
+        while (values[index] != null && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,278 @@
+package com.example.ql_shopcoffee.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bọc Statement / PreparedStatement của connection đã mượn để đo thời gian cho QueryMetrics
+ * - executeUpdate / executeBatch: đo đúng lời gọi, số dòng là update count
+ *   (executeBatch ghi tham số là "(batch of N)" thay vì tham số của dòng cuối)
+ * - executeQuery: đo từ lúc execute đến khi ResultSet đọc hết hoặc bị đóng, số dòng là số lần next() thành công
+ * Cùng quy tắc với connection: chỉ một luồng dùng tại một thời điểm nên không cần khóa
+ */
+class MeasuredStatement implements InvocationHandler {
+    private final Statement target;
+    private final Connection raw;
+    private final QueryMetrics metrics;
+    private final String method;
+    private final String preparedSql;
+    private final List<Object> params = new ArrayList<>();
+    private int batchSize;
+
+    // Query đang đọc dở ResultSet
+    private String pendingSql;
+    private long pendingStart;
+    private long pendingRows;
+    private long generation;
+
+    private MeasuredStatement(Statement target, Connection raw, QueryMetrics metrics, String method, String preparedSql) {
+        this.target = target;
+        this.raw = raw;
+        this.metrics = metrics;
+        this.method = method;
+        this.preparedSql = preparedSql;
+    }
+
+    /**
+     * @param raw connection thật, dùng để chạy EXPLAIN QUERY PLAN ngoài pool
+     */
+    static PreparedStatement wrap(PreparedStatement target, Connection raw, QueryMetrics metrics, String sql) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new MeasuredStatement(target, raw, metrics, metrics.callerLabel(), sql));
+    }
+
+    static Statement wrap(Statement target, Connection raw, QueryMetrics metrics) {
+        return (Statement) Proxy.newProxyInstance(
+                Statement.class.getClassLoader(),
+                new Class<?>[]{Statement.class},
+                new MeasuredStatement(target, raw, metrics, metrics.callerLabel(), null));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+        String name = m.getName();
+        if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+            bind(index, name.equals("setNull") ? null : args[1]);
+            return call(m, args);
+        }
+        switch (name) {
+            case "executeQuery":
+                return executeQuery(proxy, m, args);
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "execute":
+                return executeUpdate(m, args);
+            case "executeBatch":
+            case "executeLargeBatch":
+                params.clear();
+                params.add("(batch of " + batchSize + ")");
+                batchSize = 0;
+                try {
+                    return executeUpdate(m, args);
+                } finally {
+                    params.clear();
+                }
+            case "addBatch": {
+                Object result = call(m, args);
+                batchSize++;
+                params.clear();
+                return result;
+            }
+            case "clearBatch":
+                batchSize = 0;
+                params.clear();
+                break;
+            case "clearParameters":
+                params.clear();
+                break;
+            case "close":
+                finishPending(false);
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                break;
+        }
+        return call(m, args);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Object executeQuery(Object statementProxy, Method m, Object[] args) throws Throwable {
+        finishPending(false);
+        String sql = sqlOf(args);
+        long start = System.nanoTime();
+        ResultSet rs;
+        try {
+            rs = (ResultSet) call(m, args);
+        } catch (Throwable e) {
+            metrics.record(method, sql, params, System.nanoTime() - start, 0, true, raw);
+            throw e;
+        }
+        pendingSql = sql;
+        pendingStart = start;
+        pendingRows = 0;
+        generation++;
+        return Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                new MeasuredResultSet(rs, statementProxy, generation));
+    }
+
+    private Object executeUpdate(Method m, Object[] args) throws Throwable {
+        finishPending(false);
+        String sql = sqlOf(args);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = call(m, args);
+        } catch (Throwable e) {
+            metrics.record(method, sql, params, System.nanoTime() - start, 0, true, raw);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        long rows = switch (result) {
+            case Integer n -> n;
+            case Long n -> n;
+            case int[] counts -> sum(counts);
+            case long[] counts -> sum(counts);
+            // execute() trả true khi có ResultSet: không đếm được dòng
+            default -> Boolean.FALSE.equals(result) ? target.getUpdateCount() : 0;
+        };
+        metrics.record(method, sql, params, elapsed, rows, false, raw);
+        return result;
+    }
+
+    /**
+     * Kết thúc query đang đọc dở (ResultSet hết dòng / bị đóng / statement chạy lại hoặc đóng)
+     */
+    private void finishPending(boolean failed) {
+        if (pendingSql == null) {
+            return;
+        }
+        String sql = pendingSql;
+        pendingSql = null;
+        metrics.record(method, sql, params, System.nanoTime() - pendingStart, pendingRows, failed, raw);
+    }
+
+    private void bind(int index, Object value) {
+        while (params.size() < index) {
+            params.add(null);
+        }
+        params.set(index - 1, value);
+    }
+
+    private String sqlOf(Object[] args) {
+        return preparedSql != null ? preparedSql
+                : args != null && args.length > 0 && args[0] instanceof String sql ? sql : "(batch)";
+    }
+
+    private static long sum(int[] counts) {
+        long total = 0;
+        for (int n : counts) {
+            total += Math.max(0, n);
+        }
+        return total;
+    }
+
+    private static long sum(long[] counts) {
+        long total = 0;
+        for (long n : counts) {
+            total += Math.max(0, n);
+        }
+        return total;
+    }
+
+    private Object call(Method m, Object[] args) throws Throwable {
+        try {
+            return m.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ========== HELPER CLASSES ==========
+
+    /**
+     * Đếm số dòng đọc được, ghi nhận query khi next() trả false hoặc khi close()
+     */
+    private class MeasuredResultSet implements InvocationHandler {
+        private final ResultSet rs;
+        private final Object statementProxy;
+        private final long resultGeneration;
+
+        MeasuredResultSet(ResultSet rs, Object statementProxy, long resultGeneration) {
+            this.rs = rs;
+            this.statementProxy = statementProxy;
+            this.resultGeneration = resultGeneration;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method m, Object[] args) throws Throwable {
+            switch (m.getName()) {
+                case "next": {
+                    boolean hasRow;
+                    try {
+                        hasRow = (Boolean) invokeTarget(m, args);
+                    } catch (Throwable e) {
+                        finish(true);
+                        throw e;
+                    }
+                    if (hasRow) {
+                        if (isCurrent()) {
+                            pendingRows++;
+                        }
+                    } else {
+                        finish(false);
+                    }
+                    return hasRow;
+                }
+                case "close":
+                    finish(false);
+                    break;
+                case "getStatement":
+                    return statementProxy;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            return invokeTarget(m, args);
+        }
+
+        /**
+         * Statement đã chạy query khác thì ResultSet này không còn là query đang đo
+         */
+        private boolean isCurrent() {
+            return resultGeneration == generation && pendingSql != null;
+        }
+
+        private void finish(boolean failed) {
+            if (isCurrent()) {
+                finishPending(failed);
+            }
+        }
+
+        private Object invokeTarget(Method m, Object[] args) throws Throwable {
+            try {
+                return m.invoke(rs, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.ql_shopcoffee.utils;
+
+/**
+ * Tiền lưu dạng long theo đơn vị nhỏ nhất (đồng), cộng trừ nhân chính xác, không sai số làm tròn
+ * Định dạng hiển thị "1,234,000 đ" không qua String.format / Formatter
+ */
+public class Money {
+
+    private static final String SUFFIX = " đ";
+
+    /**
+     * VD: 1234000 -> "1,234,000 đ"
+     */
+    public static String format(long amount) {
+        return appendTo(new StringBuilder(24), amount).append(SUFFIX).toString();
+    }
+
+    /**
+     * Ghi số tiền có dấu phân cách hàng nghìn (không kèm " đ") vào sb
+     */
+    public static StringBuilder appendTo(StringBuilder sb, long amount) {
+        String digits = Long.toString(amount);
+        int first = amount < 0 ? 1 : 0;
+        sb.append(digits, 0, first);
+        for (int i = first; i < digits.length(); i++) {
+            if (i > first && (digits.length() - i) % 3 == 0) {
+                sb.append(',');
+            }
+            sb.append(digits.charAt(i));
+        }
+        return sb;
+    }
+
+    /**
+     * Đọc số tiền người dùng nhập ("25000", "25,000", "25.000 đ"), -1 nếu không hợp lệ
+     */
+    public static long parse(String text) {
+        if (text == null) {
+            return -1;
+        }
+        long amount = 0;
+        boolean hasDigit = false;
+        String value = text.trim();
+        if (value.endsWith("đ")) {
+            value = value.substring(0, value.length() - 1).trim();
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (amount > (Long.MAX_VALUE - (c - '0')) / 10) {
+                    return -1;
+                }
+                amount = amount * 10 + (c - '0');
+                hasDigit = true;
+            } else if (c != ',' && c != '.' && c != ' ') {
+                return -1;
+            }
+        }
+        return hasDigit ? amount : -1;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.ql_shopcoffee.utils;
+
+import com.example.ql_shopcoffee.models.OrderExportRow;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Ghi các dòng export ra CSV hoặc JSON Lines ngay khi nhận được
+ * Bộ nhớ cố định: một buffer ghi, không giữ lại dòng nào
+ */
+public class OrderExportWriter implements Consumer<OrderExportRow>, Closeable {
+
+    public enum Format { CSV, JSON_LINES }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "order_id,order_date,employee_id,status,note,total_amount,detail_id,product_id,product_name,quantity,price";
+
+    private final BufferedWriter out;
+    private final Format format;
+    private final LongConsumer progressListener;
+    private final int progressInterval;
+    private long rowCount;
+
+    public OrderExportWriter(Writer out, Format format) {
+        this(out, format, null, 10000);
+    }
+
+    /**
+     * @param progressListener nhận số dòng đã ghi sau mỗi progressInterval dòng (có thể null)
+     */
+    public OrderExportWriter(Writer out, Format format, LongConsumer progressListener, int progressInterval) {
+        this.out = new BufferedWriter(out, BUFFER_SIZE);
+        this.format = format;
+        this.progressListener = progressListener;
+        this.progressInterval = Math.max(1, progressInterval);
+
+        if (format == Format.CSV) {
+            write(CSV_HEADER);
+            write('\n');
+        }
+    }
+
+    @Override
+    public void accept(OrderExportRow row) {
+        if (format == Format.CSV) {
+            writeCsv(row);
+        } else {
+            writeJson(row);
+        }
+
+        rowCount++;
+        if (progressListener != null && rowCount % progressInterval == 0) {
+            progressListener.accept(rowCount);
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Flush dữ liệu còn trong buffer và báo tiến độ lần cuối
+     */
+    public void flush() throws IOException {
+        out.flush();
+        if (progressListener != null) {
+            progressListener.accept(rowCount);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void writeCsv(OrderExportRow row) {
+        write(Integer.toString(row.getOrderId()));
+        write(',');
+        write(EpochTime.format(row.getOrderDate()));
+        write(',');
+        write(Integer.toString(row.getEmployeeId()));
+        write(',');
+        writeCsvText(row.getStatus());
+        write(',');
+        writeCsvText(row.getNote());
+        write(',');
+        write(Long.toString(row.getTotalAmount()));
+        write(',');
+        write(Integer.toString(row.getDetailId()));
+        write(',');
+        write(Integer.toString(row.getProductId()));
+        write(',');
+        writeCsvText(row.getProductName());
+        write(',');
+        write(Integer.toString(row.getQuantity()));
+        write(',');
+        write(Long.toString(row.getPrice()));
+        write('\n');
+    }
+
+    private void writeJson(OrderExportRow row) {
+        write("{\"order_id\":");
+        write(Integer.toString(row.getOrderId()));
+        write(",\"order_date\":");
+        writeJsonText(EpochTime.format(row.getOrderDate()));
+        write(",\"employee_id\":");
+        write(Integer.toString(row.getEmployeeId()));
+        write(",\"status\":");
+        writeJsonText(row.getStatus());
+        write(",\"note\":");
+        writeJsonText(row.getNote());
+        write(",\"total_amount\":");
+        write(Long.toString(row.getTotalAmount()));
+        write(",\"detail_id\":");
+        write(Integer.toString(row.getDetailId()));
+        write(",\"product_id\":");
+        write(Integer.toString(row.getProductId()));
+        write(",\"product_name\":");
+        writeJsonText(row.getProductName());
+        write(",\"quantity\":");
+        write(Integer.toString(row.getQuantity()));
+        write(",\"price\":");
+        write(Long.toString(row.getPrice()));
+        write("}\n");
+    }
+
+    private void writeCsvText(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            write(value);
+            return;
+        }
+        write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                write('"');
+            }
+            write(c);
+        }
+        write('"');
+    }
+
+    private void writeJsonText(String value) {
+        if (value == null) {
+            write("null");
+            return;
+        }
+        write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> write("\\\"");
+                case '\\' -> write("\\\\");
+                case '\n' -> write("\\n");
+                case '\r' -> write("\\r");
+                case '\t' -> write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        write(String.format("\\u%04x", (int) c));
+                    } else {
+                        write(c);
+                    }
+                }
+            }
+        }
+        write('"');
+    }
+
+    private void write(String s) {
+        try {
+            out.write(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(char c) {
+        try {
+            out.write(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
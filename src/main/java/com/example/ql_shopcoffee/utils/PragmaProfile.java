@@ -0,0 +1,93 @@
+package com.example.ql_shopcoffee.utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Bộ PRAGMA áp dụng cho mọi connection SQLite mà ứng dụng mở
+ * Mặc định: WAL + synchronous=NORMAL, checkpoint chạy nền lúc rảnh (xem WalCheckpointScheduler)
+ */
+public class PragmaProfile {
+    private String journalMode = "WAL";
+    private String synchronous = "NORMAL";
+
+    // Số âm = KiB (SQLite quy ước), -16000 ~ 16MB mỗi connection
+    private int cacheSize = -16000;
+    private long mmapSize = 64L * 1024 * 1024;
+    private String tempStore = "MEMORY";
+    private int busyTimeoutMillis = 5000;
+
+    // Ngưỡng an toàn khi checkpoint nền chưa kịp chạy (trang), 0 = tắt
+    private int walAutocheckpoint = 10000;
+
+    public PragmaProfile() {}
+
+    /**
+     * Đọc PRAGMA từ system properties, thiếu thì dùng mặc định
+     */
+    public static PragmaProfile fromSystemProperties() {
+        PragmaProfile profile = new PragmaProfile();
+        profile.setJournalMode(System.getProperty("cf.db.pragma.journalMode", profile.getJournalMode()));
+        profile.setSynchronous(System.getProperty("cf.db.pragma.synchronous", profile.getSynchronous()));
+        profile.setCacheSize(Integer.getInteger("cf.db.pragma.cacheSize", profile.getCacheSize()));
+        profile.setMmapSize(Long.getLong("cf.db.pragma.mmapSize", profile.getMmapSize()));
+        profile.setTempStore(System.getProperty("cf.db.pragma.tempStore", profile.getTempStore()));
+        profile.setBusyTimeoutMillis(Integer.getInteger("cf.db.pragma.busyTimeoutMs", profile.getBusyTimeoutMillis()));
+        profile.setWalAutocheckpoint(Integer.getInteger("cf.db.pragma.walAutocheckpoint", profile.getWalAutocheckpoint()));
+        return profile;
+    }
+
+    /**
+     * Áp dụng profile cho connection vừa mở
+     * journal_mode được lưu trong file nên chỉ đặt trên connection ghi
+     */
+    public void apply(Connection connection, boolean writer) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMillis);
+
+            if (writer) {
+                try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode = " + journalMode)) {
+                    if (rs.next() && !journalMode.equalsIgnoreCase(rs.getString(1))) {
+                        System.err.println("Không thể bật journal_mode = " + journalMode + ", đang dùng: " + rs.getString(1));
+                    }
+                }
+                stmt.execute("PRAGMA wal_autocheckpoint = " + walAutocheckpoint);
+            }
+
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+    public boolean isWal() {
+        return "WAL".equalsIgnoreCase(journalMode);
+    }
+
+    // Getters
+    public String getJournalMode() { return journalMode; }
+    public String getSynchronous() { return synchronous; }
+    public int getCacheSize() { return cacheSize; }
+    public long getMmapSize() { return mmapSize; }
+    public String getTempStore() { return tempStore; }
+    public int getBusyTimeoutMillis() { return busyTimeoutMillis; }
+    public int getWalAutocheckpoint() { return walAutocheckpoint; }
+
+    // Setters
+    public void setJournalMode(String journalMode) { this.journalMode = journalMode; }
+    public void setSynchronous(String synchronous) { this.synchronous = synchronous; }
+    public void setCacheSize(int cacheSize) { this.cacheSize = cacheSize; }
+    public void setMmapSize(long mmapSize) { this.mmapSize = mmapSize; }
+    public void setTempStore(String tempStore) { this.tempStore = tempStore; }
+    public void setBusyTimeoutMillis(int busyTimeoutMillis) { this.busyTimeoutMillis = busyTimeoutMillis; }
+    public void setWalAutocheckpoint(int walAutocheckpoint) { this.walAutocheckpoint = walAutocheckpoint; }
+
+    @Override
+    public String toString() {
+        return String.format("PragmaProfile[journal = %s, sync = %s, cache = %d, mmap = %d, busy = %dms]",
+                journalMode, synchronous, cacheSize, mmapSize, busyTimeoutMillis);
+    }
+}
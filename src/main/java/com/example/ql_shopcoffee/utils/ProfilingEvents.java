@@ -0,0 +1,224 @@
+package com.example.ql_shopcoffee.utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Event JFR của ứng dụng: checkout, đăng nhập, tìm sản phẩm, báo cáo thống kê, chuyển màn hình
+ * - Khi không có recording, begin() / commit() gần như không tốn gì (JIT loại bỏ cả việc cấp phát event)
+ * - Profile bundled: /com/example/ql_shopcoffee/jfr/coffeeshop.jfc (ngưỡng + bật / tắt từng event)
+ * - Chạy kèm JVM: -XX:StartFlightRecording:settings=default,settings=coffeeshop.jfc
+ *   hoặc bật recording trong ứng dụng bằng -Dcf.jfr=true (xem startRecording)
+ */
+public final class ProfilingEvents {
+    public static final String SETTINGS_RESOURCE = "/com/example/ql_shopcoffee/jfr/coffeeshop.jfc";
+
+    private static final String CATEGORY = "Coffee Shop";
+    private static Recording recording;
+
+    private ProfilingEvents() {}
+
+    // ========== EVENTS ==========
+
+    @Name("com.example.ql_shopcoffee.Checkout")
+    @Label("Checkout")
+    @Description("OrderService.checkout: từ lúc kiểm tra order đến khi order vào hàng đợi / database")
+    @Category({CATEGORY, "Orders"})
+    @StackTrace(false)
+    public static class CheckoutEvent extends Event {
+        @Label("Mode")
+        @Description("queue, group hoặc direct")
+        public String mode;
+
+        @Label("Lines")
+        public int lineCount;
+
+        @Label("Items")
+        public int itemCount;
+
+        @Label("Total Amount")
+        @Description("Tổng tiền (đồng)")
+        public long totalAmount;
+
+        @Label("User Role")
+        public String userRole;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("com.example.ql_shopcoffee.Login")
+    @Label("Login")
+    @Category({CATEGORY, "Auth"})
+    @StackTrace(false)
+    public static class LoginEvent extends Event {
+        @Label("Username")
+        public String username;
+
+        @Label("User Role")
+        public String userRole;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    @Name("com.example.ql_shopcoffee.ProductSearch")
+    @Label("Product Search")
+    @Description("ProductService.searchProducts / searchProductsFullText")
+    @Category({CATEGORY, "Products"})
+    @StackTrace(false)
+    @Threshold("10 ms")
+    public static class ProductSearchEvent extends Event {
+        @Label("Source")
+        @Description("catalog (cache trong bộ nhớ), all (từ khóa rỗng) hoặc fts (FTS5 trong database)")
+        public String source;
+
+        @Label("Keyword")
+        public String keyword;
+
+        @Label("Limit")
+        public int limit;
+
+        @Label("Result Count")
+        public int resultCount;
+
+        @Label("User Role")
+        public String userRole;
+    }
+
+    @Name("com.example.ql_shopcoffee.ReportQuery")
+    @Label("Report Query")
+    @Description("Các method thống kê của OrderDAO")
+    @Category({CATEGORY, "Reports"})
+    @StackTrace(false)
+    public static class ReportQueryEvent extends Event {
+        @Label("Operation")
+        public String operation;
+
+        @Label("Range Start")
+        public String rangeStart;
+
+        @Label("Range End")
+        public String rangeEnd;
+
+        @Label("Row Count")
+        @Description("Số dòng kết quả (1 với truy vấn trả về một giá trị)")
+        public int rowCount;
+    }
+
+    @Name("com.example.ql_shopcoffee.SceneSwitch")
+    @Label("Scene Switch")
+    @Description("SceneManager.switchScene: load FXML, khởi tạo controller và gắn scene")
+    @Category({CATEGORY, "UI"})
+    @StackTrace(false)
+    public static class SceneSwitchEvent extends Event {
+        @Label("FXML")
+        public String fxmlPath;
+
+        @Label("Title")
+        public String title;
+
+        @Label("Success")
+        public boolean success;
+    }
+
+    /**
+     * Chạy một truy vấn thống kê trong ReportQueryEvent
+     * Kết quả là Collection thì số dòng là size(), còn lại tính là 1
+     */
+    public static <T> T reportQuery(String operation, Object rangeStart, Object rangeEnd, Supplier<T> query) {
+        ReportQueryEvent event = new ReportQueryEvent();
+        event.begin();
+        T result = query.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.rangeStart = rangeStart != null ? rangeStart.toString() : null;
+            event.rangeEnd = rangeEnd != null ? rangeEnd.toString() : null;
+            event.rowCount = result instanceof Collection<?> rows ? rows.size() : 1;
+            event.commit();
+        }
+        return result;
+    }
+
+    // ========== RECORDING ==========
+
+    /**
+     * Bật recording trong ứng dụng khi chạy với -Dcf.jfr=true (dùng cho máy quầy không sửa được lệnh chạy JVM)
+     * - Settings: profile "default" của JDK + coffeeshop.jfc
+     * - Giữ tối đa cf.jfr.maxAgeMinutes (30) phút / cf.jfr.maxSizeMb (64) MB gần nhất
+     * - Ghi ra cf.jfr.file (cf-recording.jfr) khi ứng dụng thoát hoặc gọi stopRecording()
+     */
+    public static synchronized void startRecording() {
+        if (recording != null || !Boolean.getBoolean("cf.jfr")) {
+            return;
+        }
+        try {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            settings.putAll(loadSettings().getSettings());
+
+            Recording r = new Recording(settings);
+            r.setName("coffeeshop");
+            r.setMaxAge(Duration.ofMinutes(Long.getLong("cf.jfr.maxAgeMinutes", 30)));
+            r.setMaxSize(Long.getLong("cf.jfr.maxSizeMb", 64) * 1024 * 1024);
+            r.setDestination(Path.of(System.getProperty("cf.jfr.file", "cf-recording.jfr")));
+            r.setDumpOnExit(true);
+            r.start();
+            recording = r;
+            System.out.println("✓ JFR recording started: " + r.getDestination());
+        } catch (IOException | ParseException | RuntimeException e) {
+            System.err.println("Lỗi khi bật JFR recording: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Dừng recording và ghi file (no-op nếu chưa bật)
+     */
+    public static synchronized void stopRecording() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.stop();
+            System.out.println("✓ JFR recording saved: " + recording.getDestination());
+        } catch (RuntimeException e) {
+            System.err.println("Lỗi khi dừng JFR recording: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    /**
+     * Đọc profile bundled trong jar
+     */
+    public static Configuration loadSettings() throws IOException, ParseException {
+        try (InputStream in = ProfilingEvents.class.getResourceAsStream(SETTINGS_RESOURCE)) {
+            if (in == null) {
+                throw new IOException("Không tìm thấy " + SETTINGS_RESOURCE);
+            }
+            return Configuration.create(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package com.example.ql_shopcoffee.utils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Đo thời gian mọi câu SQL đi qua ConnectionPool
+ * - Histogram thời gian + số dòng theo từng câu SQL, gộp lại theo method DAO và theo màn hình đang mở
+ * - Query chậm hơn ngưỡng (cf.db.slowQueryMs) được ghi vào log kèm tham số và EXPLAIN QUERY PLAN
+ * - Mặc định tắt (mỗi statement thêm một lớp proxy + StackWalker khi prepare), bật bằng -Dcf.db.metrics=true khi cần đo
+ */
+public class QueryMetrics {
+    private static final QueryMetrics instance = new QueryMetrics();
+
+    // Số query chậm gần nhất được giữ lại
+    private static final int SLOW_LOG_CAPACITY = 100;
+
+    // Các class hạ tầng bỏ qua khi tìm method DAO gọi query
+    private static final Set<String> INFRASTRUCTURE = Set.of(
+            ConnectionPool.class.getName(), StatementCache.class.getName(),
+            MeasuredStatement.class.getName(), QueryMetrics.class.getName(),
+            DatabaseConnection.class.getName(), ProfilingEvents.class.getName());
+    private static final String APP_PACKAGE = "com.example.ql_shopcoffee.";
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private final Map<QueryKey, Stats> queries = new ConcurrentHashMap<>();
+    private final Map<String, Stats> screens = new ConcurrentHashMap<>();
+    private final Map<String, String> plans = new ConcurrentHashMap<>();
+    private final Deque<SlowQuery> slowQueries = new ArrayDeque<>(SLOW_LOG_CAPACITY);
+    private final AtomicLong slowQueryCount = new AtomicLong();
+
+    private volatile boolean enabled;
+    private volatile long slowQueryNanos = 200_000_000L;
+    private volatile String screen = "(khởi động)";
+
+    private QueryMetrics() {}
+
+    public static QueryMetrics getInstance() {
+        return instance;
+    }
+
+    /**
+     * Áp dụng cấu hình bật / tắt và ngưỡng query chậm
+     */
+    public void configure(DatabaseConfig config) {
+        setEnabled(config.isQueryMetricsEnabled());
+        setSlowQueryMillis(config.getSlowQueryMillis());
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public long getSlowQueryMillis() { return slowQueryNanos / 1_000_000L; }
+    public void setSlowQueryMillis(long millis) { this.slowQueryNanos = Math.max(0, millis) * 1_000_000L; }
+
+    public String getScreen() { return screen; }
+
+    /**
+     * Gán màn hình đang hiển thị, query chạy sau đó được tính cho màn hình này
+     */
+    public void setScreen(String screen) {
+        this.screen = screen;
+    }
+
+    // ========== SNAPSHOT API ==========
+
+    /**
+     * Thống kê theo từng câu SQL, sắp xếp theo tổng thời gian giảm dần
+     */
+    public List<Stats> getQueryStats() {
+        return sorted(new ArrayList<>(queries.values()));
+    }
+
+    /**
+     * Thống kê gộp theo method DAO (VD: "OrderDAO.findById")
+     */
+    public List<Stats> getMethodStats() {
+        Map<String, Stats> byMethod = new HashMap<>();
+        for (Stats stats : queries.values()) {
+            byMethod.computeIfAbsent(stats.getMethod(), m -> new Stats(m, null)).merge(stats);
+        }
+        return sorted(new ArrayList<>(byMethod.values()));
+    }
+
+    /**
+     * Thống kê theo màn hình: màn hình nào đang gọi database nhiều nhất
+     */
+    public List<Stats> getScreenStats() {
+        return sorted(new ArrayList<>(screens.values()));
+    }
+
+    /**
+     * Các query chậm gần nhất, mới nhất đứng đầu
+     */
+    public List<SlowQuery> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public long getSlowQueryCount() {
+        return slowQueryCount.get();
+    }
+
+    public void reset() {
+        queries.clear();
+        screens.clear();
+        plans.clear();
+        slowQueryCount.set(0);
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    /**
+     * Bảng tóm tắt top câu SQL tốn thời gian nhất (in ra console / log)
+     */
+    public String summary(int limit) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("QueryMetrics[queries = %d, slow = %d (>= %d ms)]%n",
+                queries.values().stream().mapToLong(Stats::getCount).sum(), getSlowQueryCount(), getSlowQueryMillis()));
+        List<Stats> stats = getQueryStats();
+        for (int i = 0; i < Math.min(limit, stats.size()); i++) {
+            sb.append("  ").append(stats.get(i)).append(System.lineSeparator());
+        }
+        return sb.toString();
+    }
+
+    // ========== RECORDING ==========
+
+    /**
+     * Tìm method DAO (hoặc service) đang chuẩn bị statement
+     * Helper private trong cùng class được tính cho method ngoài cùng (VD: OrderDAO.findByDate thay vì findOrders)
+     */
+    String callerLabel() {
+        return WALKER.walk(frames -> {
+            String owner = null;
+            String method = null;
+            Iterator<StackWalker.StackFrame> it = frames.iterator();
+            while (it.hasNext()) {
+                StackWalker.StackFrame frame = it.next();
+                String className = outerName(frame.getClassName());
+                if (owner == null) {
+                    if (className.startsWith(APP_PACKAGE) && !INFRASTRUCTURE.contains(className)) {
+                        owner = className;
+                        method = frame.getMethodName();
+                    }
+                } else if (className.equals(owner)) {
+                    method = frame.getMethodName();
+                } else if (!INFRASTRUCTURE.contains(className)) {
+                    break;
+                }
+            }
+            return owner == null ? "(không rõ)" : simpleName(owner) + "." + lambdaOwner(method);
+        });
+    }
+
+    /**
+     * Ghi nhận một lần thực thi
+     * @param raw connection thật (không qua pool) để chạy EXPLAIN QUERY PLAN khi query chậm
+     */
+    void record(String method, String sql, List<Object> params, long elapsedNanos, long rows,
+                boolean failed, Connection raw) {
+        queries.computeIfAbsent(new QueryKey(method, sql), k -> new Stats(method, sql))
+                .add(elapsedNanos, rows, failed);
+        String currentScreen = screen;
+        screens.computeIfAbsent(currentScreen, s -> new Stats(s, null)).add(elapsedNanos, rows, failed);
+
+        if (elapsedNanos >= slowQueryNanos) {
+            logSlowQuery(new SlowQuery(System.currentTimeMillis(), currentScreen, method, sql,
+                    Collections.unmodifiableList(new ArrayList<>(params)), elapsedNanos, rows, explain(sql, params, raw)));
+        }
+    }
+
+    private void logSlowQuery(SlowQuery slow) {
+        slowQueryCount.incrementAndGet();
+        synchronized (slowQueries) {
+            if (slowQueries.size() >= SLOW_LOG_CAPACITY) {
+                slowQueries.removeLast();
+            }
+            slowQueries.addFirst(slow);
+        }
+        System.err.println("Query chậm: " + slow);
+    }
+
+    /**
+     * EXPLAIN QUERY PLAN cho câu SQL, mỗi câu chỉ chạy một lần rồi cache
+     */
+    private String explain(String sql, List<Object> params, Connection raw) {
+        if (raw == null || !isExplainable(sql)) {
+            return "";
+        }
+        String cached = plans.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String plan;
+        try (PreparedStatement ps = raw.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            // Lô executeBatch chỉ có nhãn "(batch of N)" thay cho tham số
+            int count = Math.min(params.size(), ps.getParameterMetaData().getParameterCount());
+            for (int i = 0; i < count; i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            plan = formatPlan(ps.executeQuery());
+        } catch (SQLException e) {
+            plan = "(không lấy được query plan: " + e.getMessage() + ")";
+        }
+        plans.put(sql, plan);
+        return plan;
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static boolean isExplainable(String sql) {
+        String head = sql.stripLeading();
+        int end = 0;
+        while (end < head.length() && Character.isLetter(head.charAt(end))) {
+            end++;
+        }
+        return switch (head.substring(0, end).toUpperCase(Locale.ROOT)) {
+            case "SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "REPLACE" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Plan dạng cây: mỗi node thụt vào theo độ sâu (cột id / parent của EXPLAIN QUERY PLAN)
+     */
+    private static String formatPlan(ResultSet rs) throws SQLException {
+        Map<Integer, Integer> depth = new HashMap<>();
+        StringBuilder sb = new StringBuilder();
+        try (rs) {
+            while (rs.next()) {
+                int level = depth.getOrDefault(rs.getInt("parent"), -1) + 1;
+                depth.put(rs.getInt("id"), level);
+                if (!sb.isEmpty()) {
+                    sb.append('\n');
+                }
+                sb.append("  ".repeat(level)).append(rs.getString("detail"));
+            }
+        }
+        return sb.toString();
+    }
+
+    // Class lồng / lambda được tính cho class chứa nó
+    private static String outerName(String className) {
+        int nested = className.indexOf('$');
+        return nested < 0 ? className : className.substring(0, nested);
+    }
+
+    // "lambda$getDailySales$3" -> "getDailySales"
+    private static String lambdaOwner(String method) {
+        if (!method.startsWith("lambda$")) {
+            return method;
+        }
+        int end = method.indexOf('$', "lambda$".length());
+        return end < 0 ? method : method.substring("lambda$".length(), end);
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static List<Stats> sorted(List<Stats> stats) {
+        stats.sort(Comparator.comparingLong(Stats::getTotalNanos).reversed());
+        return stats;
+    }
+
+    private record QueryKey(String method, String sql) {}
+
+    // ========== HELPER CLASSES ==========
+
+    /**
+     * Histogram thời gian theo bucket lũy thừa 2 (micro giây): bucket i chứa [2^(i-1), 2^i) µs
+     */
+    public static class Stats {
+        private static final int BUCKETS = 32;
+
+        private final String method;
+        private final String sql;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        Stats(String method, String sql) {
+            this.method = method;
+            this.sql = sql;
+        }
+
+        void add(long nanos, long rowCount, boolean failed) {
+            count.increment();
+            totalNanos.add(nanos);
+            rows.add(Math.max(0, rowCount));
+            if (failed) {
+                errors.increment();
+            }
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            buckets.incrementAndGet(bucket(nanos));
+        }
+
+        void merge(Stats other) {
+            count.add(other.getCount());
+            errors.add(other.getErrors());
+            rows.add(other.getRows());
+            totalNanos.add(other.getTotalNanos());
+            maxNanos.accumulateAndGet(other.maxNanos.get(), Math::max);
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.addAndGet(i, other.buckets.get(i));
+            }
+        }
+
+        /** Tên method DAO, hoặc tên màn hình với thống kê theo màn hình */
+        public String getMethod() { return method; }
+        /** null với thống kê đã gộp */
+        public String getSql() { return sql; }
+        public long getCount() { return count.sum(); }
+        public long getErrors() { return errors.sum(); }
+        public long getRows() { return rows.sum(); }
+        public long getTotalNanos() { return totalNanos.sum(); }
+
+        public double getTotalMillis() { return getTotalNanos() / 1e6; }
+        public double getMaxMillis() { return maxNanos.get() / 1e6; }
+
+        public double getMeanMillis() {
+            long n = getCount();
+            return n == 0 ? 0.0 : getTotalMillis() / n;
+        }
+
+        /**
+         * Percentile xấp xỉ theo cận trên của bucket (sai số tối đa 2 lần)
+         * @param percentile 0-100 (VD: 99)
+         */
+        public double getPercentileMillis(double percentile) {
+            long n = getCount();
+            if (n == 0) {
+                return 0.0;
+            }
+            long target = (long) Math.ceil(n * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= target) {
+                    return Math.min((1L << i) / 1000.0, getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+        /**
+         * Số lần thực thi theo bucket, phần tử i đếm các lần chạy dưới 2^i µs
+         */
+        public long[] getHistogram() {
+            long[] result = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                result[i] = buckets.get(i);
+            }
+            return result;
+        }
+
+        private static int bucket(long nanos) {
+            long micros = nanos / 1000;
+            return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%s: count = %d, rows = %d, errors = %d, total = %.1f ms, mean = %.3f ms, p50 = %.3f ms, p99 = %.3f ms, max = %.3f ms%s",
+                    method, getCount(), getRows(), getErrors(), getTotalMillis(), getMeanMillis(),
+                    getPercentileMillis(50), getPercentileMillis(99), getMaxMillis(),
+                    sql != null ? " | " + sql.replaceAll("\\s+", " ").strip() : "");
+        }
+    }
+
+    /**
+     * Một lần thực thi vượt ngưỡng chậm
+     */
+    public static class SlowQuery {
+        private final long timestamp;
+        private final String screen;
+        private final String method;
+        private final String sql;
+        private final List<Object> params;
+        private final long elapsedNanos;
+        private final long rows;
+        private final String plan;
+
+        SlowQuery(long timestamp, String screen, String method, String sql, List<Object> params,
+                  long elapsedNanos, long rows, String plan) {
+            this.timestamp = timestamp;
+            this.screen = screen;
+            this.method = method;
+            this.sql = sql;
+            this.params = params;
+            this.elapsedNanos = elapsedNanos;
+            this.rows = rows;
+            this.plan = plan;
+        }
+
+        /** Epoch millis lúc query kết thúc */
+        public long getTimestamp() { return timestamp; }
+        public String getScreen() { return screen; }
+        public String getMethod() { return method; }
+        public String getSql() { return sql; }
+        public List<Object> getParams() { return params; }
+        public double getElapsedMillis() { return elapsedNanos / 1e6; }
+        public long getRows() { return rows; }
+        public String getPlan() { return plan; }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.1f ms, %d dòng, %s @ %s%n  SQL: %s%n  params: %s%s",
+                    getElapsedMillis(), rows, method, screen, sql.replaceAll("\\s+", " ").strip(), params,
+                    plan.isEmpty() ? "" : System.lineSeparator() + "  plan:" + System.lineSeparator()
+                            + plan.indent(4).stripTrailing());
+        }
+    }
+}
@@ -34,7 +34,12 @@ public class SceneManager {
      * @param title tiêu đề window
      */
     public void switchScene(String fxmlPath, String title) {
+        ProfilingEvents.SceneSwitchEvent event = new ProfilingEvents.SceneSwitchEvent();
+        event.begin();
+        boolean success = false;
         try {
+            // Query chạy từ initialize() của controller mới được tính cho màn hình mới
+            QueryMetrics.getInstance().setScreen(screenName(fxmlPath));
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
             Parent root = loader.load();
 
@@ -42,11 +47,14 @@ public class SceneManager {
             primaryStage.setScene(scene);
             primaryStage.setTitle(title);
             primaryStage.centerOnScreen();
+            success = true;
 
         } catch (IOException e) {
             System.err.println("Lỗi khi tải FXML: " + fxmlPath);
             e.printStackTrace();
             AlertUtil.showError("Lỗi", "Không thể tải màn hình: " + fxmlPath);
+        } finally {
+            commitSwitch(event, fxmlPath, title, success);
         }
     }
 
@@ -54,7 +62,12 @@ public class SceneManager {
      * Chuyển scene và set size
      */
     public void switchScene(String fxmlPath, String title, double width, double height) {
+        ProfilingEvents.SceneSwitchEvent event = new ProfilingEvents.SceneSwitchEvent();
+        event.begin();
+        boolean success = false;
         try {
+            // Query chạy từ initialize() của controller mới được tính cho màn hình mới
+            QueryMetrics.getInstance().setScreen(screenName(fxmlPath));
             FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
             Parent root = loader.load();
 
@@ -62,11 +75,14 @@ public class SceneManager {
             primaryStage.setScene(scene);
             primaryStage.setTitle(title);
             primaryStage.centerOnScreen();
+            success = true;
 
         } catch (IOException e) {
             System.err.println("Lỗi khi tải FXML: " + fxmlPath);
             e.printStackTrace();
             AlertUtil.showError("Lỗi", "Không thể tải màn hình: " + fxmlPath);
+        } finally {
+            commitSwitch(event, fxmlPath, title, success);
         }
     }
 
@@ -85,4 +101,25 @@ public class SceneManager {
             return null;
         }
     }
+
+    // ========== HELPER METHODS ==========
+
+    private static void commitSwitch(ProfilingEvents.SceneSwitchEvent event, String fxmlPath, String title,
+                                     boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.fxmlPath = fxmlPath;
+            event.title = title;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    /**
+     * "/com/coffeeshop/views/login.fxml" -> "login"
+     */
+    private static String screenName(String fxmlPath) {
+        String name = fxmlPath.substring(fxmlPath.lastIndexOf('/') + 1);
+        return name.endsWith(".fxml") ? name.substring(0, name.length() - ".fxml".length()) : name;
+    }
 }
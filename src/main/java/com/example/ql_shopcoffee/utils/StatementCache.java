@@ -0,0 +1,222 @@
+package com.example.ql_shopcoffee.utils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache PreparedStatement theo câu SQL cho một connection (LRU)
+ * DAO vẫn close() như bình thường, statement chỉ được trả về cache chứ không bị đóng thật
+ * Mỗi connection chỉ được một luồng mượn tại một thời điểm nên cache không cần khóa
+ */
+public class StatementCache {
+    private final int capacity;
+    private final Stats stats;
+    private final LinkedHashMap<String, CachedStatement> statements;
+
+    public StatementCache(int capacity, Stats stats) {
+        this.capacity = capacity;
+        this.stats = stats;
+        this.statements = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= StatementCache.this.capacity) {
+                    return false;
+                }
+                StatementCache.this.stats.evictions.incrementAndGet();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Lấy statement từ cache, chưa có thì prepare mới
+     * @param borrowed connection đang được mượn (trả về cho Statement.getConnection())
+     */
+    public PreparedStatement prepare(Connection raw, Connection borrowed, String sql, int autoGeneratedKeys) throws SQLException {
+        String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "#keys#" + sql : sql;
+        CachedStatement cached = statements.get(key);
+
+        if (cached != null && !cached.inUse) {
+            stats.hits.incrementAndGet();
+        } else if (cached != null) {
+            // Cùng câu SQL đang được dùng lồng nhau: prepare riêng, không cache
+            stats.misses.incrementAndGet();
+            return raw.prepareStatement(sql, autoGeneratedKeys);
+        } else {
+            stats.misses.incrementAndGet();
+            cached = new CachedStatement(key, raw.prepareStatement(sql, autoGeneratedKeys));
+            statements.put(key, cached);
+        }
+
+        cached.inUse = true;
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new CachedStatementHandler(cached, borrowed));
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    /**
+     * Đóng toàn bộ statement (gọi trước khi đóng connection thật)
+     */
+    public void closeAll() {
+        Iterator<CachedStatement> it = statements.values().iterator();
+        while (it.hasNext()) {
+            it.next().evict();
+            it.remove();
+        }
+    }
+
+    /**
+     * Thống kê dùng chung cho mọi cache trong pool
+     */
+    public static class Stats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        public long getHits() { return hits.get(); }
+        public long getMisses() { return misses.get(); }
+        public long getEvictions() { return evictions.get(); }
+
+        public double getHitRate() {
+            long total = getHits() + getMisses();
+            return total == 0 ? 0.0 : (double) getHits() / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("StatementCache[hits = %d, misses = %d, evictions = %d, hitRate = %.1f%%]",
+                    getHits(), getMisses(), getEvictions(), getHitRate() * 100);
+        }
+    }
+
+    // ========== HELPER CLASSES ==========
+
+    private class CachedStatement {
+        private final String key;
+        private final PreparedStatement statement;
+        private final List<ResultSet> openResults = new ArrayList<>(2);
+        private boolean inUse;
+        private boolean evicted;
+
+        CachedStatement(String key, PreparedStatement statement) {
+            this.key = key;
+            this.statement = statement;
+        }
+
+        /**
+         * Reset statement để lần mượn sau dùng lại: đóng ResultSet còn mở, xóa tham số và batch
+         * ResultSet còn mở sẽ giữ read transaction của SQLite nên phải đóng ngay
+         */
+        void release() {
+            inUse = false;
+            try {
+                for (ResultSet rs : openResults) {
+                    rs.close();
+                }
+                openResults.clear();
+                statement.clearParameters();
+                statement.clearBatch();
+            } catch (SQLException e) {
+                evicted = true;
+                statements.remove(key, this);
+            }
+            if (evicted) {
+                closeQuietly();
+            }
+        }
+
+        void track(ResultSet rs) throws SQLException {
+            // Statement chạy nhiều lần trước khi close: bỏ các ResultSet đã đóng
+            if (openResults.size() >= 4) {
+                Iterator<ResultSet> it = openResults.iterator();
+                while (it.hasNext()) {
+                    if (it.next().isClosed()) {
+                        it.remove();
+                    }
+                }
+            }
+            openResults.add(rs);
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    private static class CachedStatementHandler implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection borrowed;
+        private boolean returned;
+
+        CachedStatementHandler(CachedStatement cached, Connection borrowed) {
+            this.cached = cached;
+            this.borrowed = borrowed;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        cached.release();
+                    }
+                    return null;
+                case "isClosed":
+                    return returned;
+                case "getConnection":
+                    return borrowed;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.key + "]";
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Statement đã được đóng");
+            }
+            try {
+                Object result = method.invoke(cached.statement, args);
+                if (result instanceof ResultSet rs) {
+                    cached.track(rs);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
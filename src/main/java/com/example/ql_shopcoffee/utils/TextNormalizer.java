@@ -0,0 +1,46 @@
+package com.example.ql_shopcoffee.utils;
+
+import java.text.Normalizer;
+
+public class TextNormalizer {
+
+    /**
+     * Bỏ dấu tiếng Việt, chữ thường, ký tự không phải chữ/số thành một khoảng trắng
+     * VD: "Cà Phê Sữa (Đá)" -> "ca phe sua da"
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (c == 'đ' || c == 'Đ') {
+                c = 'd';
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                pendingSpace = false;
+                sb.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Tách chuỗi đã fold thành các từ
+     */
+    public static String[] tokens(String folded) {
+        return folded.isEmpty() ? new String[0] : folded.split(" ");
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.ql_shopcoffee.utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkpoint WAL chạy nền khi connection ghi rảnh
+ * Tránh để commit của checkout phải gánh chi phí checkpoint
+ */
+public class WalCheckpointScheduler {
+    private final ConnectionPool pool;
+    private final long intervalMillis;
+    private final long idleMillis;
+    private ScheduledExecutorService executor;
+    private volatile long lastCheckpointAt;
+    private volatile long checkpointCount;
+
+    public WalCheckpointScheduler(ConnectionPool pool, long intervalMillis, long idleMillis) {
+        this.pool = pool;
+        this.intervalMillis = intervalMillis;
+        this.idleMillis = idleMillis;
+    }
+
+    /**
+     * Bắt đầu lịch checkpoint
+     */
+    public synchronized void start() {
+        if (executor != null || intervalMillis <= 0) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "wal-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::checkpointIfIdle, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Dừng lịch và checkpoint TRUNCATE lần cuối để thu gọn file WAL
+     */
+    public synchronized void stop() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        executor = null;
+        checkpoint("TRUNCATE");
+    }
+
+    public long getLastCheckpointAt() {
+        return lastCheckpointAt;
+    }
+
+    public long getCheckpointCount() {
+        return checkpointCount;
+    }
+
+    private void checkpointIfIdle() {
+        long lastWrite = pool.getLastWriteReleased();
+        if (pool.isClosed() || pool.isWriterBusy()) {
+            return;
+        }
+        // Không có ghi mới kể từ lần checkpoint trước
+        if (lastWrite <= lastCheckpointAt) {
+            return;
+        }
+        if (System.currentTimeMillis() - lastWrite < idleMillis) {
+            return;
+        }
+        checkpoint("PASSIVE");
+    }
+
+    private void checkpoint(String mode) {
+        boolean done = false;
+
+        // Không chờ: nếu có người vừa mượn connection ghi thì để lần sau
+        try (Connection conn = pool.borrowWrite(0);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA wal_checkpoint(" + mode + ")")) {
+            done = rs.next() && rs.getInt(1) == 0;
+        } catch (SQLException e) {
+            // Pool bận hoặc đã đóng, bỏ qua lần này
+        }
+
+        // Ghi nhận sau khi đã trả connection để lần trả đó không bị tính là ghi mới
+        if (done) {
+            lastCheckpointAt = System.currentTimeMillis();
+            checkpointCount++;
+        }
+    }
+}
@@ -12,6 +12,7 @@ module com.example.ql_shopcoffee {
     requires eu.hansolo.tilesfx;
     requires com.almasb.fxgl.all;
     requires java.sql;
+    requires jdk.jfr;
 
     opens com.example.ql_shopcoffee to javafx.fxml;
     opens com.example.ql_shopcoffee.controllers to javafx.fxml;
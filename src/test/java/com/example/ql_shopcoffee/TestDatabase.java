@@ -0,0 +1,120 @@
+package com.example.ql_shopcoffee;
+
+import com.example.ql_shopcoffee.dao.impl.OrderDAO;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderDetail;
+import com.example.ql_shopcoffee.utils.DatabaseConfig;
+import com.example.ql_shopcoffee.utils.DatabaseConnection;
+import com.example.ql_shopcoffee.utils.DatabaseInitializer;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+/**
+ * Database SQLite tạm cho test: file cf.db trong thư mục @TempDir, đủ schema + dữ liệu mẫu
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {}
+
+    /**
+     * Cấu hình trỏ tới file trong dir, tắt checkpoint nền để test không có luồng chạy ngầm
+     */
+    public static DatabaseConfig config(Path dir) {
+        DatabaseConfig config = new DatabaseConfig();
+        config.setDbURL("jdbc:sqlite:" + dir.resolve("cf.db"));
+        config.setCheckpointIntervalMillis(0);
+        return config;
+    }
+
+    /**
+     * Khởi tạo DatabaseConnection dùng chung trên file tạm và tạo schema + dữ liệu mẫu
+     */
+    public static void open(Path dir) {
+        DatabaseConnection.initialize(config(dir));
+        new DatabaseInitializer().initialize();
+    }
+
+    public static void close() {
+        DatabaseConnection.getInstance().closeConnection();
+    }
+
+    /**
+     * Giá trị cột đầu tiên của dòng đầu tiên (0 nếu không có dòng)
+     */
+    public static long queryLong(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    public static int execute(String sql) throws SQLException {
+        try (Connection conn = DatabaseConnection.getInstance().getWriteConnection();
+             Statement stmt = conn.createStatement()) {
+            return stmt.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * Order cho test, mặc định nhân viên 2 (nhanvien1), giờ hiện tại, PENDING, chưa có món
+     * VD: TestDatabase.order().at(day.atTime(9, 0)).item(1, "Cà Phê Đen", 2, 25000).completed().insert()
+     */
+    public static OrderBuilder order() {
+        return new OrderBuilder();
+    }
+
+    public static final class OrderBuilder {
+        private final Order order = new Order(2);
+
+        private OrderBuilder() {}
+
+        public OrderBuilder employee(int employeeId) {
+            order.setEmployeeId(employeeId);
+            return this;
+        }
+
+        public OrderBuilder at(LocalDateTime orderDate) {
+            order.setOrderDate(orderDate);
+            return this;
+        }
+
+        public OrderBuilder status(String status) {
+            order.setStatus(status);
+            return this;
+        }
+
+        public OrderBuilder completed() {
+            return status("COMPLETED");
+        }
+
+        public OrderBuilder note(String note) {
+            order.setNote(note);
+            return this;
+        }
+
+        public OrderBuilder item(int productId, String productName, int quantity, long price) {
+            order.addItem(new OrderDetail(productId, productName, quantity, price));
+            return this;
+        }
+
+        public Order build() {
+            return order;
+        }
+
+        /**
+         * Ghi order qua OrderDAO (id được gán vào order), lỗi thì ném IllegalStateException
+         */
+        public Order insert() {
+            if (!new OrderDAO().insert(order)) {
+                throw new IllegalStateException("Không thêm được order " + order);
+            }
+            return order;
+        }
+    }
+}
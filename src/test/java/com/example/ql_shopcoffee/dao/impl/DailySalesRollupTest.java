@@ -0,0 +1,167 @@
+package com.example.ql_shopcoffee.dao.impl;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderDetail;
+import com.example.ql_shopcoffee.utils.DatabaseConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DailySalesRollupTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 5, 10);
+
+    @TempDir
+    Path dir;
+
+    private OrderDAO orderDAO;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        orderDAO = new OrderDAO();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.close();
+    }
+
+    @Test
+    void insertAddsToDayEmployeeAndStatus() {
+        TestDatabase.order().at(DAY.atTime(9, 0)).item(1, "Cà Phê Đen", 2, 25000).completed().insert();
+        TestDatabase.order().at(DAY.atTime(15, 30)).item(2, "Cà Phê Sữa", 1, 30000).item(11, "Bánh Flan", 3, 20000).completed().insert();
+        TestDatabase.order().employee(3).at(DAY.plusDays(1).atTime(8, 0)).item(5, "Trà Đào", 1, 35000).completed().insert();
+
+        List<Object[]> days = orderDAO.getDailySales(DAY, DAY.plusDays(1));
+        assertEquals(2, days.size());
+        assertEquals(DAY, days.get(0)[0]);
+        assertEquals(2, days.get(0)[1]);
+        assertEquals(140000L, days.get(0)[2]);
+        assertEquals(6, days.get(0)[3]);
+        assertEquals(35000L, days.get(1)[2]);
+    }
+
+    @Test
+    void cancelMovesOrderOutOfCompletedRevenue() {
+        Order kept = TestDatabase.order().at(DAY.atTime(9, 0)).item(1, "Cà Phê Đen", 2, 25000).completed().insert();
+        Order cancelled = TestDatabase.order().at(DAY.atTime(10, 0)).item(4, "Cappuccino", 1, 45000).completed().insert();
+
+        cancelled.cancel();
+        assertTrue(orderDAO.update(cancelled));
+
+        List<Object[]> days = orderDAO.getDailySales(DAY, DAY);
+        assertEquals(1, days.get(0)[1]);
+        assertEquals(kept.getTotalAmount(), days.get(0)[2]);
+        assertEquals(2, days.get(0)[3]);
+    }
+
+    @Test
+    void revenueRangeCombinesRollupAndPartialDays() {
+        TestDatabase.order().at(DAY.atTime(9, 0)).item(1, "Cà Phê Đen", 1, 25000).completed().insert();
+        TestDatabase.order().at(DAY.plusDays(1).atTime(9, 0)).item(2, "Cà Phê Sữa", 1, 30000).completed().insert();
+        TestDatabase.order().at(DAY.plusDays(2).atTime(18, 0)).item(5, "Trà Đào", 1, 35000).completed().insert();
+
+        // Trọn ngày DAY + 1 từ rollup, nửa đầu DAY + 2 (trước 12:00) đọc từ orders
+        assertEquals(90000, orderDAO.getRevenueByDateRange(DAY.atStartOfDay(), DAY.plusDays(2).atTime(23, 59, 59)));
+        assertEquals(30000, orderDAO.getRevenueByDateRange(DAY.atTime(12, 0), DAY.plusDays(2).atTime(12, 0)));
+    }
+
+    @Test
+    void multiLineOrderKeepsRevenueAndItemCount() throws SQLException {
+        // Mỗi dòng thêm vào làm total_amount đổi một lần: chỉ cộng chênh lệch, không đếm lại cả order
+        TestDatabase.OrderBuilder builder = TestDatabase.order().at(DAY.atTime(9, 0)).completed();
+        for (int productId = 1; productId <= 10; productId++) {
+            builder.item(productId, "Món " + productId, productId, 1000);
+        }
+        Order order = builder.insert();
+
+        List<Object[]> days = orderDAO.getDailySales(DAY, DAY);
+        assertEquals(1, days.get(0)[1]);
+        assertEquals(55000L, days.get(0)[2]);
+        assertEquals(55, days.get(0)[3]);
+
+        // Sửa rồi xóa một dòng trong cùng ngày / nhân viên / trạng thái
+        OrderDetail line = orderDAO.findOrderDetailsByOrderId(order.getId()).get(9);
+        line.setQuantity(1);
+        assertTrue(orderDAO.updateOrderDetail(line));
+        assertTrue(orderDAO.deleteOrderDetail(orderDAO.findOrderDetailsByOrderId(order.getId()).get(0).getId()));
+
+        days = orderDAO.getDailySales(DAY, DAY);
+        assertEquals(1, days.get(0)[1]);
+        assertEquals(45000L, days.get(0)[2]);
+        assertEquals(45, days.get(0)[3]);
+
+        // Đổi giờ trong cùng ngày rồi chuyển sang ngày hôm sau
+        TestDatabase.execute("UPDATE orders SET order_date = order_date + 3600000 WHERE id = " + order.getId());
+        assertEquals(45000L, orderDAO.getDailySales(DAY, DAY).get(0)[2]);
+        TestDatabase.execute("UPDATE orders SET order_date = order_date + 86400000 WHERE id = " + order.getId());
+        assertEquals(0L, orderDAO.getDailySales(DAY, DAY).get(0)[2]);
+        days = orderDAO.getDailySales(DAY.plusDays(1), DAY.plusDays(1));
+        assertEquals(1, days.get(0)[1]);
+        assertEquals(45000L, days.get(0)[2]);
+        assertEquals(45, days.get(0)[3]);
+
+        List<String> maintained = snapshot();
+        assertTrue(orderDAO.rebuildDailySales());
+        assertEquals(snapshot(), maintained);
+    }
+
+    @Test
+    void triggersMatchFullRebuildAfterMixedChanges() throws SQLException {
+        Order a = TestDatabase.order().at(DAY.atTime(9, 0)).item(1, "Cà Phê Đen", 2, 25000).item(5, "Trà Đào", 1, 35000).completed().insert();
+        Order b = TestDatabase.order().employee(3).at(DAY.atTime(11, 0)).item(2, "Cà Phê Sữa", 1, 30000).completed().insert();
+        Order c = TestDatabase.order().at(DAY.plusDays(1).atTime(7, 0)).item(11, "Bánh Flan", 4, 20000).completed().insert();
+
+        // Sửa / xóa món, hủy order, đổi ngày, xóa order
+        OrderDetail line = orderDAO.findOrderDetailsByOrderId(a.getId()).get(0);
+        line.setQuantity(5);
+        assertTrue(orderDAO.updateOrderDetail(line));
+        assertTrue(orderDAO.deleteOrderDetail(orderDAO.findOrderDetailsByOrderId(a.getId()).get(1).getId()));
+        b.cancel();
+        assertTrue(orderDAO.update(b));
+        TestDatabase.execute("UPDATE orders SET order_date = order_date + 86400000 WHERE id = " + a.getId());
+        assertTrue(orderDAO.delete(c.getId()));
+
+        List<String> maintained = snapshot();
+        assertTrue(orderDAO.rebuildDailySales());
+        assertEquals(snapshot(), maintained);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Các nhóm khác 0 của daily_sales (trigger trừ về 0 thì dòng vẫn còn, rebuild thì không)
+     */
+    private static List<String> snapshot() throws SQLException {
+        List<String> rows = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("""
+                     SELECT day, employee_id, status, order_count, revenue, item_count FROM daily_sales
+                     WHERE order_count <> 0 OR revenue <> 0 OR item_count <> 0
+                     ORDER BY day, employee_id, status
+                     """)) {
+            while (rs.next()) {
+                rows.add(rs.getString(1) + "|" + rs.getInt(2) + "|" + rs.getString(3) + "|"
+                        + rs.getInt(4) + "|" + rs.getLong(5) + "|" + rs.getInt(6));
+            }
+        }
+        return rows;
+    }
+}
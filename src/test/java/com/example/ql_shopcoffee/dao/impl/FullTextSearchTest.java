@@ -0,0 +1,102 @@
+package com.example.ql_shopcoffee.dao.impl;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.Product;
+import com.example.ql_shopcoffee.utils.FullTextQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FullTextSearchTest {
+
+    @TempDir
+    Path dir;
+
+    private ProductDAO productDAO;
+    private OrderDAO orderDAO;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        productDAO = new ProductDAO();
+        orderDAO = new OrderDAO();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.close();
+    }
+
+    @Test
+    void queryIsFoldedToPrefixTerms() {
+        assertEquals("\"banh\"* \"sinh\"*", FullTextQuery.prefixQuery("  Bánh, SINH! "));
+        assertEquals("\"dao\"*", FullTextQuery.prefixQuery("Đào"));
+        assertNull(FullTextQuery.prefixQuery(" ?! "));
+    }
+
+    @Test
+    void unaccentedKeywordFindsAccentedNames() {
+        assertEquals(Set.of("Cà Phê Đen", "Cà Phê Sữa"), productNames("ca phe"));
+        assertEquals(Set.of("Trà Đào"), productNames("tra dao"));
+        // Có dấu, viết hoa, đ/Đ đều được fold như nhau
+        assertEquals(Set.of("Trà Đào"), productNames("TRÀ đào"));
+        assertEquals(Set.of("Cà Phê Đen"), productNames("den"));
+    }
+
+    @Test
+    void termsMatchByPrefix() {
+        assertEquals(Set.of("Bánh Flan", "Bánh Tiramisu", "Bánh Croissant"), productNames("ban"));
+        assertEquals(Set.of("Sinh Tố Xoài"), productNames("sinh x"));
+        assertTrue(productNames("xyz").isEmpty());
+        assertTrue(productNames("...").isEmpty());
+    }
+
+    @Test
+    void indexFollowsRenameAndHidesInactive() {
+        Product product = productDAO.findById(3);
+        product.setName("Bạc Xỉu Đá");
+        assertTrue(productDAO.update(product));
+        assertEquals(Set.of("Bạc Xỉu Đá"), productNames("bac xiu da"));
+
+        assertTrue(productDAO.delete(3));
+        assertTrue(productNames("bac xiu").isEmpty());
+    }
+
+    @Test
+    void orderNotesAreFoldedAndKeptInSync() {
+        Order sweet = TestDatabase.order().note("Ít đường, nhiều đá").item(1, "Cà Phê Đen", 1, 25000).insert();
+        Order plain = TestDatabase.order().employee(3).note("Không đá").item(1, "Cà Phê Đen", 1, 25000).insert();
+        TestDatabase.order().item(1, "Cà Phê Đen", 1, 25000).insert();
+
+        assertEquals(List.of(sweet.getId()), noteIds("it duong"));
+        assertEquals(Set.of(sweet.getId(), plain.getId()), Set.copyOf(noteIds("đá")));
+        assertEquals(List.of(plain.getId()),
+                orderDAO.searchByEmployeeAndNote(3, "da", 0, 10).stream().map(Order::getId).toList());
+
+        plain.setNote("Mang về");
+        assertTrue(orderDAO.update(plain));
+        assertEquals(List.of(sweet.getId()), noteIds("da"));
+        assertEquals(List.of(plain.getId()), noteIds("mang ve"));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private Set<String> productNames(String keyword) {
+        return productDAO.searchFullText(keyword, 0, 20).stream().map(Product::getName).collect(Collectors.toSet());
+    }
+
+    private List<Integer> noteIds(String keyword) {
+        return orderDAO.searchByNote(keyword, 0, 20).stream().map(Order::getId).toList();
+    }
+}
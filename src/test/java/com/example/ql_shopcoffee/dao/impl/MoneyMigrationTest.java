@@ -0,0 +1,78 @@
+package com.example.ql_shopcoffee.dao.impl;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Database cũ lưu tiền dạng REAL: khởi động phải làm tròn về đồng và tính lại tổng từ các dòng đã làm tròn
+ */
+class MoneyMigrationTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.close();
+    }
+
+    @Test
+    void legacyRealAmountsAreRoundedToDong() throws SQLException {
+        createLegacyDatabase();
+        TestDatabase.open(dir);
+
+        assertEquals(0, TestDatabase.queryLong("SELECT COUNT(*) FROM products WHERE typeof(price) <> 'integer'"));
+        assertEquals(25000, TestDatabase.queryLong("SELECT price FROM products WHERE id = 1"));
+        assertEquals(12500, TestDatabase.queryLong("SELECT price FROM order_details WHERE id = 1"));
+        assertEquals(29999, TestDatabase.queryLong("SELECT price FROM order_details WHERE id = 2"));
+        // 2 * 12500 + 29999, không phải ROUND(54998.7)
+        assertEquals(54999, TestDatabase.queryLong("SELECT total_amount FROM orders WHERE id = 1"));
+        assertEquals(0, new OrderDAO().countInconsistentTotals());
+        assertEquals(54999, TestDatabase.queryLong("SELECT SUM(revenue) FROM daily_sales"));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void createLegacyDatabase() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(TestDatabase.config(dir).getDbURL());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TABLE users (id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT UNIQUE NOT NULL,
+                    password TEXT NOT NULL, full_name TEXT NOT NULL, role TEXT NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)
+            """);
+            stmt.execute("CREATE TABLE categories (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT UNIQUE NOT NULL, description TEXT)");
+            stmt.execute("""
+                CREATE TABLE products (id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT UNIQUE NOT NULL, category_id INTEGER NOT NULL,
+                    price REAL NOT NULL, image TEXT, status INTEGER DEFAULT 1,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP, updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)
+            """);
+            stmt.execute("""
+                CREATE TABLE orders (id INTEGER PRIMARY KEY AUTOINCREMENT, employee_id INTEGER NOT NULL,
+                    order_date INTEGER NOT NULL, total_amount REAL NOT NULL DEFAULT 0, status TEXT DEFAULT 'COMPLETED', note TEXT)
+            """);
+            stmt.execute("""
+                CREATE TABLE order_details (id INTEGER PRIMARY KEY AUTOINCREMENT, order_id INTEGER NOT NULL, product_id INTEGER NOT NULL,
+                    product_name TEXT NOT NULL, quantity INTEGER NOT NULL, price REAL NOT NULL)
+            """);
+            stmt.execute("INSERT INTO users (username, password, full_name, role) VALUES ('nhanvien1', '123', 'Nguyễn Văn A', 'EMPLOYEE')");
+            stmt.execute("INSERT INTO categories (name) VALUES ('Cà Phê')");
+            stmt.execute("INSERT INTO products (name, category_id, price) VALUES ('Cà Phê Đen', 1, 25000.4), ('Bạc Xỉu', 1, 29999.4)");
+            stmt.execute("INSERT INTO orders (employee_id, order_date, total_amount, status) VALUES (1, 1709280000000, 54998.7, 'COMPLETED')");
+            stmt.execute("""
+                INSERT INTO order_details (order_id, product_id, product_name, quantity, price) VALUES
+                (1, 1, 'Cà Phê Đen', 2, 12499.5), (1, 2, 'Bạc Xỉu', 1, 29999.4)
+            """);
+        }
+    }
+}
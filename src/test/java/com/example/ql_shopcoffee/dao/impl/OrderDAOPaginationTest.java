@@ -0,0 +1,133 @@
+package com.example.ql_shopcoffee.dao.impl;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderDAOPaginationTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    @TempDir
+    Path dir;
+
+    private OrderDAO orderDAO;
+    private List<Order> inserted;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        orderDAO = new OrderDAO();
+        inserted = new ArrayList<>();
+        // Cứ 3 orders chung một order_date để thứ tự phải dựa vào id khi trùng thời điểm
+        for (int i = 0; i < 11; i++) {
+            inserted.add(TestDatabase.order()
+                    .employee(i % 2 == 0 ? 2 : 3)
+                    .at(BASE.plusMinutes(i / 3))
+                    .item(1, "Cà Phê Đen", 1 + i % 3, 25000)
+                    .completed()
+                    .insert());
+        }
+        // Thứ tự mong đợi: order_date DESC, id DESC
+        inserted.sort(Comparator.comparing(Order::getOrderDate).thenComparingInt(Order::getId).reversed());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.close();
+    }
+
+    @Test
+    void pagesWalkAllOrdersWithoutGapsOrDuplicates() {
+        List<Integer> seen = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            OrderPage page = orderDAO.findAllPage(token, 4);
+            assertTrue(page.size() <= 4);
+            page.getOrders().forEach(order -> seen.add(order.getId()));
+            token = page.getNextPageToken();
+            pages++;
+        } while (token != null);
+
+        assertEquals(3, pages);
+        assertEquals(inserted.stream().map(Order::getId).toList(), seen);
+    }
+
+    @Test
+    void tokenResumesInsideTiedTimestamps() {
+        // Trang 2 phần tử cắt ngang nhóm 3 orders cùng order_date
+        OrderPage first = orderDAO.findAllPage(null, 2);
+        OrderPage second = orderDAO.findAllPage(first.getNextPageToken(), 2);
+
+        assertEquals(inserted.get(2).getId(), second.getOrders().get(0).getId());
+        assertEquals(inserted.get(3).getId(), second.getOrders().get(1).getId());
+    }
+
+    @Test
+    void sameTokenReturnsSamePage() {
+        String token = orderDAO.findAllPage(null, 5).getNextPageToken();
+        assertNotNull(token);
+
+        List<Integer> a = orderDAO.findAllPage(token, 5).getOrders().stream().map(Order::getId).toList();
+        List<Integer> b = orderDAO.findAllPage(token, 5).getOrders().stream().map(Order::getId).toList();
+        assertEquals(a, b);
+    }
+
+    @Test
+    void lastPageHasNoToken() {
+        OrderPage page = orderDAO.findAllPage(null, 11);
+        assertEquals(11, page.size());
+        assertFalse(page.hasMore());
+        assertNull(page.getNextPageToken());
+    }
+
+    @Test
+    void pageLoadsDetails() {
+        OrderPage page = orderDAO.findAllPage(null, 3);
+        for (Order order : page.getOrders()) {
+            assertTrue(order.isDetailsLoaded());
+            assertEquals(1, order.getOrderDetails().size());
+        }
+    }
+
+    @Test
+    void filteredPagesOnlyContainMatchingOrders() {
+        List<Integer> seen = new ArrayList<>();
+        String token = null;
+        do {
+            OrderPage page = orderDAO.findByEmployeePage(2, token, 2);
+            for (Order order : page.getOrders()) {
+                assertEquals(2, order.getEmployeeId());
+                seen.add(order.getId());
+            }
+            token = page.getNextPageToken();
+        } while (token != null);
+
+        List<Integer> expected = inserted.stream().filter(o -> o.getEmployeeId() == 2).map(Order::getId).toList();
+        assertEquals(expected, seen);
+    }
+
+    @Test
+    void invalidTokenReturnsEmptyPage() {
+        OrderPage page = orderDAO.findAllPage("không-phải-token", 5);
+        assertEquals(0, page.size());
+        assertFalse(page.hasMore());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.ql_shopcoffee.dao.impl;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.models.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderDateRangeTest {
+
+    // Thứ Sáu
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 1);
+
+    @TempDir
+    Path dir;
+
+    private OrderDAO orderDAO;
+    private Order lastOfPrevDay;
+    private Order startOfDay;
+    private Order endOfDay;
+    private Order startOfNextDay;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        orderDAO = new OrderDAO();
+        lastOfPrevDay = insertAt(DAY.minusDays(1).atTime(LocalTime.MAX));
+        startOfDay = insertAt(DAY.atStartOfDay());
+        endOfDay = insertAt(DAY.atTime(LocalTime.MAX));
+        startOfNextDay = insertAt(DAY.plusDays(1).atStartOfDay());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.close();
+    }
+
+    @Test
+    void dayIncludesBothEndsAndExcludesNextMidnight() {
+        assertEquals(Set.of(startOfDay.getId(), endOfDay.getId()), ids(orderDAO.findByDate(DAY)));
+        assertEquals(Set.of(startOfNextDay.getId()), ids(orderDAO.findByDate(DAY.plusDays(1))));
+    }
+
+    @Test
+    void weekStartsOnMonday() {
+        // 01/03/2024 thuộc tuần 26/02 - 03/03, cả bốn orders đều trong tuần
+        Set<Integer> all = Set.of(lastOfPrevDay.getId(), startOfDay.getId(), endOfDay.getId(), startOfNextDay.getId());
+        assertEquals(all, ids(orderDAO.findByWeek(DAY)));
+        assertEquals(all, ids(orderDAO.findByWeek(LocalDate.of(2024, 2, 26))));
+
+        Order nextMonday = insertAt(LocalDate.of(2024, 3, 4).atStartOfDay());
+        assertEquals(all, ids(orderDAO.findByWeek(LocalDate.of(2024, 3, 3))));
+        assertEquals(Set.of(nextMonday.getId()), ids(orderDAO.findByWeek(LocalDate.of(2024, 3, 4))));
+    }
+
+    @Test
+    void monthSplitsAtFirstDay() {
+        assertEquals(Set.of(lastOfPrevDay.getId()), ids(orderDAO.findByMonth(YearMonth.of(2024, 2))));
+        assertEquals(Set.of(startOfDay.getId(), endOfDay.getId(), startOfNextDay.getId()),
+                ids(orderDAO.findByMonth(YearMonth.of(2024, 3))));
+    }
+
+    @Test
+    void dateRangeIsInclusiveToTheMillisecond() {
+        LocalDateTime end = DAY.atTime(LocalTime.MAX);
+        assertEquals(Set.of(startOfDay.getId(), endOfDay.getId()),
+                ids(orderDAO.findByDateRange(DAY.atStartOfDay(), end)));
+        assertEquals(Set.of(startOfDay.getId()),
+                ids(orderDAO.findByDateRange(DAY.atStartOfDay(), end.minusNanos(1_000_000))));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static Order insertAt(LocalDateTime orderDate) {
+        return TestDatabase.order().at(orderDate).item(1, "Cà Phê Đen", 1, 25000).insert();
+    }
+
+    private static Set<Integer> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).collect(Collectors.toSet());
+    }
+}
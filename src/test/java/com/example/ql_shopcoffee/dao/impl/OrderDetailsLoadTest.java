@@ -0,0 +1,107 @@
+package com.example.ql_shopcoffee.dao.impl;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderDetailsLoadTest {
+
+    @TempDir
+    Path dir;
+
+    private OrderDAO orderDAO;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        orderDAO = new OrderDAO();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.close();
+    }
+
+    @Test
+    void detailsAreGroupedIntoTheirOwnOrders() {
+        Order a = TestDatabase.order().item(1, "Cà Phê Đen", 2, 25000).item(5, "Trà Đào", 1, 35000).insert();
+        Order b = TestDatabase.order().employee(3).item(11, "Bánh Flan", 3, 20000).insert();
+        Order empty = TestDatabase.order().insert();
+
+        Map<Integer, Order> byId = new HashMap<>();
+        for (Order order : orderDAO.findAll()) {
+            assertTrue(order.isDetailsLoaded());
+            byId.put(order.getId(), order);
+        }
+
+        assertEquals(List.of(1, 5), productIds(byId.get(a.getId())));
+        assertEquals(List.of(11), productIds(byId.get(b.getId())));
+        assertTrue(byId.get(empty.getId()).getOrderDetails().isEmpty());
+        assertEquals(85000, byId.get(a.getId()).getTotalAmount());
+    }
+
+    @Test
+    void loadsAcrossMoreThanOneInBatch() {
+        // Hơn 500 orders: details phải đủ cả ở lô IN (...) thứ hai
+        for (int i = 1; i <= 520; i++) {
+            TestDatabase.order().item(1 + i % 5, "Món " + i, i, 1000).insert();
+        }
+
+        List<Order> orders = orderDAO.findAll();
+        assertEquals(520, orders.size());
+        for (Order order : orders) {
+            assertEquals(1, order.getOrderDetails().size());
+            OrderDetail line = order.getOrderDetails().get(0);
+            assertEquals("Món " + line.getQuantity(), line.getProductName());
+            assertEquals(order.getId(), line.getOrderId());
+        }
+    }
+
+    @Test
+    void headersOnlyLoadDetailsOnFirstAccess() {
+        Order inserted = TestDatabase.order().item(1, "Cà Phê Đen", 2, 25000).item(4, "Cappuccino", 1, 45000).insert();
+
+        Order header = orderDAO.findAll(false).get(0);
+        assertFalse(header.isDetailsLoaded());
+        // Tổng tiền lấy từ database, chưa cần details
+        assertEquals(95000, header.getTotalAmount());
+
+        assertEquals(List.of(1, 4), productIds(header));
+        assertTrue(header.isDetailsLoaded());
+        assertEquals(inserted.getId(), header.getOrderDetails().get(0).getOrderId());
+    }
+
+    @Test
+    void filteredListsUseTheSameLoader() {
+        TestDatabase.order().item(1, "Cà Phê Đen", 1, 25000).completed().insert();
+        TestDatabase.order().employee(3).item(2, "Cà Phê Sữa", 1, 30000).insert();
+
+        List<Order> completed = orderDAO.findByStatus("COMPLETED");
+        assertEquals(1, completed.size());
+        assertEquals(List.of(1), productIds(completed.get(0)));
+
+        List<Order> byEmployee = orderDAO.findByEmployee(3, false);
+        assertEquals(1, byEmployee.size());
+        assertFalse(byEmployee.get(0).isDetailsLoaded());
+        assertEquals(List.of(2), productIds(byEmployee.get(0)));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static List<Integer> productIds(Order order) {
+        return order.getOrderDetails().stream().map(OrderDetail::getProductId).sorted().toList();
+    }
+}
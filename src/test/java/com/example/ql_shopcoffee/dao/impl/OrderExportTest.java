@@ -0,0 +1,83 @@
+package com.example.ql_shopcoffee.dao.impl;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderExportRow;
+import com.example.ql_shopcoffee.utils.OrderExportWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderExportTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 8, 0);
+
+    @TempDir
+    Path dir;
+
+    private OrderDAO orderDAO;
+    private Order early;
+    private Order late;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        orderDAO = new OrderDAO();
+        late = TestDatabase.order().at(BASE.plusHours(1))
+                .item(1, "Cà Phê Đen", 2, 25000).item(5, "Trà Đào", 1, 35000).completed().insert();
+        early = TestDatabase.order().at(BASE).item(4, "Cappuccino", 1, 45000).completed().insert();
+        TestDatabase.order().at(BASE.plusDays(1)).item(11, "Bánh Flan", 1, 20000).completed().insert();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.close();
+    }
+
+    @Test
+    void rowsStreamInDateOrderThroughOneReusedObject() {
+        List<Integer> orderIds = new ArrayList<>();
+        Set<OrderExportRow> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        long rows = orderDAO.exportByDateRange(BASE.minusMinutes(1), BASE.plusHours(2), row -> {
+            orderIds.add(row.getOrderId());
+            instances.add(row);
+        });
+
+        assertEquals(3, rows);
+        assertEquals(List.of(early.getId(), late.getId(), late.getId()), orderIds);
+        // Không tạo object mới cho mỗi dòng
+        assertEquals(1, instances.size());
+    }
+
+    @Test
+    void writerReceivesEveryDetailLine() throws IOException {
+        StringWriter out = new StringWriter();
+        OrderExportWriter writer = new OrderExportWriter(out, OrderExportWriter.Format.JSON_LINES);
+
+        long rows = orderDAO.exportByDateRange(BASE.minusMinutes(1), BASE.plusDays(2), writer);
+        writer.flush();
+
+        assertEquals(4, rows);
+        assertEquals(4, writer.getRowCount());
+        assertEquals(4, out.toString().lines().count());
+    }
+
+    @Test
+    void emptyRangeExportsNothing() {
+        assertEquals(0, orderDAO.exportByDateRange(BASE.minusDays(2), BASE.minusDays(1), row -> {}));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ql_shopcoffee.dao.impl;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderTotalTriggerTest {
+
+    @TempDir
+    Path dir;
+
+    private OrderDAO orderDAO;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        orderDAO = new OrderDAO();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.close();
+    }
+
+    @Test
+    void insertSumsDetailLines() throws SQLException {
+        Order order = TestDatabase.order().item(1, "Cà Phê Đen", 2, 25000).item(5, "Trà Đào", 1, 35000).completed().insert();
+
+        assertEquals(85000, storedTotal(order.getId()));
+        assertEquals(85000, order.getTotalAmount());
+        assertEquals(0, orderDAO.countInconsistentTotals());
+    }
+
+    @Test
+    void updateAppliesDifference() throws SQLException {
+        Order order = TestDatabase.order().item(1, "Cà Phê Đen", 2, 25000).item(5, "Trà Đào", 1, 35000).completed().insert();
+        OrderDetail line = detailOf(order.getId(), 1);
+
+        line.setQuantity(4);
+        line.setPrice(26000);
+        assertTrue(orderDAO.updateOrderDetail(line));
+
+        assertEquals(4 * 26000 + 35000, storedTotal(order.getId()));
+        assertEquals(0, orderDAO.countInconsistentTotals());
+    }
+
+    @Test
+    void deleteSubtractsLine() throws SQLException {
+        Order order = TestDatabase.order().item(1, "Cà Phê Đen", 2, 25000).item(5, "Trà Đào", 1, 35000).completed().insert();
+
+        assertTrue(orderDAO.deleteOrderDetail(detailOf(order.getId(), 5).getId()));
+        assertEquals(50000, storedTotal(order.getId()));
+
+        assertTrue(orderDAO.deleteAllOrderDetails(order.getId()));
+        assertEquals(0, storedTotal(order.getId()));
+    }
+
+    @Test
+    void movingLineUpdatesBothOrders() throws SQLException {
+        Order from = TestDatabase.order().item(1, "Cà Phê Đen", 2, 25000).item(5, "Trà Đào", 1, 35000).completed().insert();
+        Order to = TestDatabase.order().item(2, "Cà Phê Sữa", 1, 30000).completed().insert();
+        int lineId = detailOf(from.getId(), 5).getId();
+
+        TestDatabase.execute("UPDATE order_details SET order_id = " + to.getId() + " WHERE id = " + lineId);
+
+        assertEquals(50000, storedTotal(from.getId()));
+        assertEquals(65000, storedTotal(to.getId()));
+    }
+
+    @Test
+    void repairFixesOnlyDriftedOrders() throws SQLException {
+        Order ok = TestDatabase.order().item(1, "Cà Phê Đen", 1, 25000).completed().insert();
+        Order drifted = TestDatabase.order().item(2, "Cà Phê Sữa", 3, 30000).completed().insert();
+
+        // Lệch 1 đồng vẫn phải bị phát hiện (tiền là số nguyên)
+        TestDatabase.execute("UPDATE orders SET total_amount = total_amount + 1 WHERE id = " + drifted.getId());
+        assertEquals(1, orderDAO.countInconsistentTotals());
+
+        assertTrue(orderDAO.repairOrderTotals() >= 1);
+        assertEquals(0, orderDAO.countInconsistentTotals());
+        assertEquals(90000, storedTotal(drifted.getId()));
+        assertEquals(25000, storedTotal(ok.getId()));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private OrderDetail detailOf(int orderId, int productId) {
+        List<OrderDetail> details = orderDAO.findOrderDetailsByOrderId(orderId);
+        return details.stream().filter(d -> d.getProductId() == productId).findFirst().orElseThrow();
+    }
+
+    private static long storedTotal(int orderId) throws SQLException {
+        return TestDatabase.queryLong("SELECT total_amount FROM orders WHERE id = " + orderId);
+    }
+}
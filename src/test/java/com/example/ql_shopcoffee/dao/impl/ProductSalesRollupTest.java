@@ -0,0 +1,121 @@
+package com.example.ql_shopcoffee.dao.impl;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderDetail;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSalesRollupTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 1);
+
+    @TempDir
+    Path dir;
+
+    private OrderDAO orderDAO;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        orderDAO = new OrderDAO();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestDatabase.close();
+    }
+
+    @Test
+    void topSellersRankByQuantityThenRevenue() {
+        TestDatabase.order().at(DAY.atTime(9, 0)).item(1, "Cà Phê Đen", 3, 25000).item(4, "Cappuccino", 2, 45000).completed().insert();
+        TestDatabase.order().at(DAY.atTime(10, 0)).item(2, "Cà Phê Sữa", 2, 30000).completed().insert();
+
+        List<Object[]> top = orderDAO.getTopSellingProducts(DAY, DAY, 10);
+        assertEquals(3, top.size());
+        assertEquals("Cà Phê Đen", top.get(0)[0]);
+        assertEquals(3, top.get(0)[1]);
+        assertEquals(75000L, top.get(0)[2]);
+        // Cùng số lượng: doanh thu cao hơn đứng trước
+        assertEquals("Cappuccino", top.get(1)[0]);
+        assertEquals("Cà Phê Sữa", top.get(2)[0]);
+
+        assertEquals(1, orderDAO.getTopSellingProducts(DAY, DAY, 1).size());
+    }
+
+    @Test
+    void onlyCompletedOrdersCount() {
+        TestDatabase.order().at(DAY.atTime(9, 0)).item(1, "Cà Phê Đen", 5, 25000).status("PENDING").insert();
+        Order completed = TestDatabase.order().at(DAY.atTime(10, 0)).item(1, "Cà Phê Đen", 1, 25000).completed().insert();
+
+        assertEquals(1, orderDAO.getTopSellingProducts(DAY, DAY, 10).get(0)[1]);
+
+        completed.cancel();
+        assertTrue(orderDAO.update(completed));
+        assertTrue(orderDAO.getTopSellingProducts(DAY, DAY, 10).isEmpty());
+        assertEquals(0, orderDAO.countProductSalesMismatches());
+    }
+
+    @Test
+    void dateFilterUsesLocalDay() {
+        TestDatabase.order().at(DAY.atTime(23, 30)).item(1, "Cà Phê Đen", 1, 25000).completed().insert();
+        TestDatabase.order().at(DAY.plusDays(1).atTime(0, 30)).item(5, "Trà Đào", 2, 35000).completed().insert();
+
+        assertEquals("Cà Phê Đen", orderDAO.getTopSellingProducts(DAY, DAY, 10).get(0)[0]);
+        assertEquals("Trà Đào", orderDAO.getTopSellingProducts(DAY.plusDays(1), DAY.plusDays(1), 10).get(0)[0]);
+        assertEquals(2, orderDAO.getTopSellingProducts(DAY, DAY.plusDays(1), 10).size());
+    }
+
+    @Test
+    void triggersMatchRawDataAfterMixedChanges() throws SQLException {
+        Order a = TestDatabase.order().at(DAY.atTime(9, 0)).item(1, "Cà Phê Đen", 2, 25000).item(5, "Trà Đào", 1, 35000).completed().insert();
+        Order b = TestDatabase.order().at(DAY.atTime(11, 0)).item(1, "Cà Phê Đen", 1, 25000).completed().insert();
+        Order c = TestDatabase.order().at(DAY.atTime(12, 0)).item(2, "Cà Phê Sữa", 1, 30000).status("PENDING").insert();
+        Order d = TestDatabase.order().at(DAY.plusDays(1).atTime(8, 0)).item(11, "Bánh Flan", 4, 20000).completed().insert();
+
+        OrderDetail line = orderDAO.findOrderDetailsByOrderId(a.getId()).get(0);
+        line.setQuantity(6);
+        line.setPrice(24000);
+        assertTrue(orderDAO.updateOrderDetail(line));
+        assertTrue(orderDAO.deleteOrderDetail(orderDAO.findOrderDetailsByOrderId(a.getId()).get(1).getId()));
+        TestDatabase.execute("UPDATE order_details SET product_id = 3, product_name = 'Bạc Xỉu' WHERE order_id = " + b.getId());
+        c.complete();
+        assertTrue(orderDAO.update(c));
+        TestDatabase.execute("UPDATE orders SET order_date = order_date - 86400000 WHERE id = " + b.getId());
+        assertTrue(orderDAO.delete(d.getId()));
+
+        assertEquals(0, orderDAO.countProductSalesMismatches());
+
+        // Rollup bị sửa tay thì bị phát hiện và rebuild khôi phục
+        TestDatabase.execute("UPDATE product_sales SET quantity = quantity + 1 WHERE product_id = 1");
+        assertTrue(orderDAO.countProductSalesMismatches() > 0);
+        assertTrue(orderDAO.rebuildProductSales());
+        assertEquals(0, orderDAO.countProductSalesMismatches());
+    }
+
+    @Test
+    void topSellersKeepNameAtTimeOfSale() throws SQLException {
+        TestDatabase.order().at(DAY.atTime(9, 0)).item(1, "Cà Phê Đen", 2, 25000).completed().insert();
+        TestDatabase.execute("UPDATE products SET name = 'Cà Phê Đen Đá' WHERE id = 1");
+
+        assertEquals("Cà Phê Đen", orderDAO.getTopSellingProducts(DAY, DAY, 10).get(0)[0]);
+
+        // Bán tiếp sau khi đổi tên: lấy tên của lần bán mới nhất
+        TestDatabase.order().at(DAY.atTime(10, 0)).item(1, "Cà Phê Đen Đá", 1, 25000).completed().insert();
+        List<Object[]> top = orderDAO.getTopSellingProducts(DAY, DAY, 10);
+        assertEquals(1, top.size());
+        assertEquals("Cà Phê Đen Đá", top.get(0)[0]);
+        assertEquals(3, top.get(0)[1]);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.ql_shopcoffee.models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderTest {
+
+    @Test
+    void addingSameProductMergesIntoOneLine() {
+        Order order = new Order(2);
+        order.addItem(new OrderDetail(1, "Cà Phê Đen", 2, 25000));
+        order.addItem(new OrderDetail(5, "Trà Đào", 1, 35000));
+        order.addItem(new OrderDetail(1, "Cà Phê Đen", 1, 25000));
+
+        assertEquals(2, order.getOrderDetails().size());
+        assertEquals(3, order.findItem(1).getQuantity());
+        assertEquals(110000, order.getTotalAmount());
+        assertEquals(4, order.getItemCount());
+        // Giữ thứ tự thêm để hiển thị
+        assertEquals(List.of(1, 5), order.getOrderDetails().stream().map(OrderDetail::getProductId).toList());
+    }
+
+    @Test
+    void updateAndRemoveAdjustRunningTotals() {
+        Order order = new Order(2);
+        order.addItem(new OrderDetail(1, "Cà Phê Đen", 2, 25000));
+        order.addItem(new OrderDetail(4, "Cappuccino", 1, 45000));
+
+        order.updateItemQuantity(4, 3);
+        assertEquals(185000, order.getTotalAmount());
+        assertEquals(5, order.getItemCount());
+
+        order.removeItem(new OrderDetail(1, "Cà Phê Đen", 1, 25000));
+        assertNull(order.findItem(1));
+        assertEquals(135000, order.getTotalAmount());
+        assertEquals(3, order.getItemCount());
+
+        // Product không có trong giỏ: bỏ qua
+        order.removeItem(new OrderDetail(99, "Không có", 1, 1000));
+        order.updateItemQuantity(99, 5);
+        assertEquals(135000, order.getTotalAmount());
+    }
+
+    @Test
+    void totalsMatchFullRecalculation() {
+        Order order = new Order(2);
+        for (int i = 0; i < 200; i++) {
+            int productId = 1 + i % 13;
+            if (i % 7 == 0) {
+                order.removeItem(new OrderDetail(productId, "Món " + productId, 1, 0));
+            } else if (i % 5 == 0) {
+                order.updateItemQuantity(productId, 1 + i % 4);
+            } else {
+                order.addItem(new OrderDetail(productId, "Món " + productId, 1 + i % 3, 1000L * productId));
+            }
+        }
+        long total = order.getTotalAmount();
+        int count = order.getItemCount();
+
+        order.recalculateTotal();
+        assertEquals(order.getTotalAmount(), total);
+        assertEquals(order.getItemCount(), count);
+    }
+
+    @Test
+    void loadedDetailsRebuildIndexAndTotals() {
+        Order order = new Order(7, 2, null, 0, "COMPLETED", null);
+        order.setOrderDetails(new ArrayList<>(List.of(
+                new OrderDetail(1, "Cà Phê Đen", 2, 25000),
+                new OrderDetail(11, "Bánh Flan", 1, 20000))));
+
+        assertEquals(70000, order.getTotalAmount());
+        assertEquals(3, order.getItemCount());
+        assertSame(order.getOrderDetails().get(1), order.findItem(11));
+        // Sửa giỏ phải qua Order để map và tổng không lệch
+        assertThrows(UnsupportedOperationException.class, () -> order.getOrderDetails().clear());
+    }
+
+    @Test
+    void removeDropsEveryLineOfTheProduct() {
+        // Order nạp từ database có thể có hai dòng cùng product
+        Order order = new Order(7, 2, LocalDateTime.of(2024, 3, 1, 8, 0), 0, "COMPLETED", null);
+        order.setOrderDetails(new ArrayList<>(List.of(
+                new OrderDetail(1, "Cà Phê Đen", 2, 25000),
+                new OrderDetail(5, "Trà Đào", 1, 35000),
+                new OrderDetail(1, "Cà Phê Đen", 1, 24000))));
+        assertEquals(109000, order.getTotalAmount());
+
+        order.removeItem(new OrderDetail(1, "Cà Phê Đen", 1, 25000));
+        assertEquals(List.of(5), order.getOrderDetails().stream().map(OrderDetail::getProductId).toList());
+        assertEquals(35000, order.getTotalAmount());
+        assertEquals(1, order.getItemCount());
+    }
+
+    @Test
+    void toStringAndItemCountDoNotLoadDetails() {
+        AtomicInteger loads = new AtomicInteger();
+        Order order = new Order(7, 2, LocalDateTime.of(2024, 3, 1, 8, 0), 50000, "COMPLETED", null);
+        order.setDetailsLoader(() -> {
+            loads.incrementAndGet();
+            return new ArrayList<>(List.of(new OrderDetail(1, "Cà Phê Đen", 2, 25000)));
+        });
+
+        assertTrue(order.toString().contains("chưa nạp"));
+        order.getItemCount();
+        assertEquals(0, loads.get());
+
+        assertEquals(1, order.getOrderDetails().size());
+        assertEquals(2, order.getItemCount());
+        assertEquals(1, loads.get());
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.dao.impl.OrderDAO;
+import com.example.ql_shopcoffee.dao.interfaces.IOrderDAO;
+import com.example.ql_shopcoffee.models.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CheckoutQueueTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @TempDir
+    Path dir;
+
+    private Path file;
+    private final List<CheckoutQueue> queues = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        file = dir.resolve("checkout-queue.log");
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (CheckoutQueue queue : queues) {
+            queue.close(TIMEOUT_MILLIS);
+        }
+        TestDatabase.close();
+    }
+
+    @Test
+    void submittedOrdersAreWrittenAndFileTruncated() throws Exception {
+        CheckoutQueue queue = open(new OrderDAO(), file, "T1");
+        assertEquals(1, queue.submit(newOrder()));
+        assertEquals(2, queue.submit(newOrder()));
+        assertEquals(3, queue.submit(newOrder()));
+
+        assertTrue(queue.awaitDrained(TIMEOUT_MILLIS));
+        assertEquals(3, queue.getCommitted());
+        assertEquals(3, countOrders("T1"));
+        assertEquals(0, Files.size(file));
+    }
+
+    @Test
+    void pendingOrdersAreRecoveredAfterRestart() throws Exception {
+        crashWithPending(2);
+        assertTrue(Files.size(file) > 0);
+
+        CheckoutQueue queue = open(new OrderDAO(), file, "T1");
+        assertTrue(queue.awaitDrained(TIMEOUT_MILLIS));
+        assertEquals(2, queue.getCommitted());
+        assertEquals(2, countOrders("T1"));
+        // Số hóa đơn tiếp tục sau số lớn nhất trong file
+        assertEquals(3, queue.submit(newOrder()));
+    }
+
+    @Test
+    void tornTrailingRecordIsDropped() throws Exception {
+        crashWithPending(2);
+        // Bản ghi thứ 3 ghi dở: có độ dài nhưng thiếu dữ liệu và CRC
+        Files.write(file, ByteBuffer.allocate(10).putInt(200).array(), StandardOpenOption.APPEND);
+
+        CheckoutQueue queue = open(new OrderDAO(), file, "T1");
+        assertTrue(queue.awaitDrained(TIMEOUT_MILLIS));
+        assertEquals(2, countOrders("T1"));
+        assertEquals(0, queue.getFailed());
+        assertEquals(3, queue.submit(newOrder()));
+    }
+
+    @Test
+    void badChecksumStopsRecoveryAtThatRecord() throws Exception {
+        crashWithPending(3);
+        byte[] bytes = Files.readAllBytes(file);
+        int first = recordLength(bytes, 0);
+        int second = recordLength(bytes, first);
+        // Lật một bit trong CRC của bản ghi thứ 2: bản ghi 2 và 3 bị bỏ
+        bytes[first + second - 1] ^= 1;
+        Files.write(file, bytes);
+
+        CheckoutQueue queue = open(new OrderDAO(), file, "T1");
+        assertTrue(queue.awaitDrained(TIMEOUT_MILLIS));
+        assertEquals(1, queue.getCommitted());
+        assertEquals(1, countOrders("T1"));
+        assertEquals(2, queue.submit(newOrder()));
+    }
+
+    @Test
+    void replayOfCommittedOrdersIsNotWrittenTwice() throws Exception {
+        crashWithPending(2);
+        // Lô đã commit nhưng máy tắt trước khi kịp cắt file
+        List<Order> committed = new ArrayList<>();
+        for (long receiptNo = 1; receiptNo <= 2; receiptNo++) {
+            Order order = newOrder();
+            order.setTerminalId("T1");
+            order.setReceiptNo(receiptNo);
+            committed.add(order);
+        }
+        assertEquals(2, new OrderDAO().insertBatch(committed));
+
+        CheckoutQueue queue = open(new OrderDAO(), file, "T1");
+        assertTrue(queue.awaitDrained(TIMEOUT_MILLIS));
+        assertEquals(2, queue.getCommitted());
+        assertEquals(0, queue.getFailed());
+        assertEquals(2, countOrders("T1"));
+    }
+
+    @Test
+    void receiptTakenByAnotherOrderGoesToFailedFile() throws Exception {
+        // Hai queue cấu hình nhầm cùng mã máy: cả hai đều cấp số 1
+        CheckoutQueue first = open(new OrderDAO(), file, "T1");
+        CheckoutQueue second = open(new OrderDAO(), dir.resolve("other-queue.log"), "T1");
+
+        assertEquals(1, first.submit(newOrder()));
+        assertTrue(first.awaitDrained(TIMEOUT_MILLIS));
+        assertEquals(1, second.submit(newOrder()));
+        assertTrue(second.awaitDrained(TIMEOUT_MILLIS));
+
+        assertEquals(0, second.getCommitted());
+        assertEquals(1, second.getFailed());
+        assertTrue(Files.size(dir.resolve("other-queue.log.failed")) > 0);
+        assertEquals(1, countOrders("T1"));
+    }
+
+    @Test
+    void terminalsSharingDatabaseNumberIndependently() throws Exception {
+        CheckoutQueue a = open(new OrderDAO(), file, "T1");
+        CheckoutQueue b = open(new OrderDAO(), dir.resolve("other-queue.log"), "T2");
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(i, a.submit(newOrder()));
+            assertEquals(i, b.submit(newOrder()));
+        }
+
+        assertTrue(a.awaitDrained(TIMEOUT_MILLIS));
+        assertTrue(b.awaitDrained(TIMEOUT_MILLIS));
+        assertEquals(3, countOrders("T1"));
+        assertEquals(3, countOrders("T2"));
+        assertEquals(0, a.getFailed() + b.getFailed());
+    }
+
+    @Test
+    void runtimeExceptionFromDaoIsRetried() throws Exception {
+        CheckoutQueue queue = open(flaky(2, true), file, "T1");
+        queue.submit(newOrder());
+
+        assertTrue(queue.awaitDrained(TIMEOUT_MILLIS));
+        assertEquals(2, queue.getRetries());
+        assertEquals(1, queue.getCommitted());
+        assertEquals(1, countOrders("T1"));
+    }
+
+    @Test
+    void generatedTerminalIdIsReused() {
+        CheckoutQueue queue = open(new OrderDAO(), file, null);
+        String terminalId = queue.getTerminalId();
+        queue.close(TIMEOUT_MILLIS);
+        queues.remove(queue);
+
+        assertFalse(terminalId.isEmpty());
+        assertEquals(terminalId, open(new OrderDAO(), file, null).getTerminalId());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private CheckoutQueue open(IOrderDAO orderDAO, Path queueFile, String terminalId) {
+        CheckoutQueue queue = new CheckoutQueue(orderDAO, queueFile, false, 16, terminalId);
+        queue.start();
+        queues.add(queue);
+        return queue;
+    }
+
+    /**
+     * Submit count orders với DAO luôn lỗi rồi đóng: orders chỉ còn trong file, giống máy tắt giữa chừng
+     */
+    private void crashWithPending(int count) {
+        CheckoutQueue queue = open(flaky(Integer.MAX_VALUE, false), file, "T1");
+        for (int i = 0; i < count; i++) {
+            queue.submit(newOrder());
+        }
+        queue.close(TIMEOUT_MILLIS);
+        queues.remove(queue);
+    }
+
+    /**
+     * OrderDAO thật, riêng insertBatch lỗi failures lần đầu (trả về -1 hoặc ném RuntimeException)
+     */
+    private static IOrderDAO flaky(int failures, boolean throwing) {
+        OrderDAO real = new OrderDAO();
+        AtomicInteger remaining = new AtomicInteger(failures);
+        return (IOrderDAO) Proxy.newProxyInstance(IOrderDAO.class.getClassLoader(), new Class<?>[]{IOrderDAO.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("insertBatch") && remaining.getAndDecrement() > 0) {
+                        if (throwing) {
+                            throw new IllegalStateException("lỗi giả lập");
+                        }
+                        return -1;
+                    }
+                    try {
+                        return method.invoke(real, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static Order newOrder() {
+        return TestDatabase.order().item(1, "Cà Phê Đen", 1, 25000).build();
+    }
+
+    private static int recordLength(byte[] bytes, int offset) {
+        return ByteBuffer.wrap(bytes, offset, Integer.BYTES).getInt() + 2 * Integer.BYTES;
+    }
+
+    private static long countOrders(String terminalId) throws SQLException {
+        return TestDatabase.queryLong("SELECT COUNT(*) FROM orders WHERE terminal_id = '" + terminalId + "'");
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.dao.impl.OrderDAO;
+import com.example.ql_shopcoffee.dao.interfaces.IOrderDAO;
+import com.example.ql_shopcoffee.models.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupCommitCoordinatorTest {
+
+    private static final Object DELEGATE = new Object();
+
+    @TempDir
+    Path dir;
+
+    private GroupCommitCoordinator coordinator;
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (coordinator != null) {
+            coordinator.close();
+        }
+        TestDatabase.close();
+    }
+
+    @Test
+    void ordersArrivingInWindowShareOneBatch() throws SQLException {
+        coordinator = new GroupCommitCoordinator(new OrderDAO(), 200, 64);
+        List<Order> orders = new ArrayList<>();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Order order = newOrder(null);
+            orders.add(order);
+            futures.add(coordinator.submit(order));
+        }
+
+        for (int i = 0; i < 5; i++) {
+            int id = futures.get(i).join();
+            assertTrue(id > 0);
+            assertEquals(orders.get(i).getId(), id);
+        }
+        assertEquals(1, coordinator.getBatches());
+        assertEquals(5, coordinator.getLargestBatch());
+        assertEquals(5, TestDatabase.queryLong("SELECT COUNT(*) FROM orders"));
+    }
+
+    @Test
+    void rolledBackBatchFallsBackToSingleInserts() throws SQLException {
+        OrderDAO real = new OrderDAO();
+        IOrderDAO dao = intercept(real, "insertBatch", args -> -1);
+        // Order có ghi chú "hỏng" không ghi được kể cả khi ghi riêng
+        dao = intercept(dao, "insert", args -> "hỏng".equals(((Order) args[0]).getNote()) ? (Object) false : DELEGATE);
+        coordinator = new GroupCommitCoordinator(dao, 200, 64);
+
+        CompletableFuture<Integer> good = coordinator.submit(newOrder(null));
+        CompletableFuture<Integer> bad = coordinator.submit(newOrder("hỏng"));
+        CompletableFuture<Integer> other = coordinator.submit(newOrder(null));
+
+        assertTrue(good.join() > 0);
+        assertEquals(-1, bad.join());
+        assertTrue(other.join() > 0);
+        assertEquals(1, coordinator.getFallbacks());
+        assertEquals(2, TestDatabase.queryLong("SELECT COUNT(*) FROM orders"));
+    }
+
+    @Test
+    void runtimeExceptionFailsBatchButNotCommitter() {
+        AtomicInteger calls = new AtomicInteger();
+        IOrderDAO dao = intercept(new OrderDAO(), "insertBatch", args -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new IllegalStateException("lỗi giả lập");
+            }
+            return DELEGATE;
+        });
+        coordinator = new GroupCommitCoordinator(dao, 0, 64);
+
+        assertFalse(coordinator.insert(newOrder(null)));
+        assertTrue(coordinator.insert(newOrder(null)));
+    }
+
+    @Test
+    void errorRestartsCommitterThread() {
+        AtomicInteger calls = new AtomicInteger();
+        IOrderDAO dao = intercept(new OrderDAO(), "insertBatch", args -> {
+            if (calls.getAndIncrement() == 0) {
+                throw new AssertionError("lỗi giả lập");
+            }
+            return DELEGATE;
+        });
+        coordinator = new GroupCommitCoordinator(dao, 0, 64);
+
+        assertFalse(coordinator.insert(newOrder(null)));
+        assertTrue(coordinator.insert(newOrder(null)));
+    }
+
+    @Test
+    void insertGivesUpAfterTimeoutButOrderIsStillWritten() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        IOrderDAO dao = intercept(new OrderDAO(), "insertBatch", args -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return DELEGATE;
+        });
+        coordinator = new GroupCommitCoordinator(dao, 0, 64, 100);
+
+        Order order = newOrder(null);
+        long start = System.nanoTime();
+        assertFalse(coordinator.insert(order));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+
+        release.countDown();
+        coordinator.close();
+        assertTrue(order.getId() > 0);
+    }
+
+    @Test
+    void closedCoordinatorRejectsOrders() {
+        coordinator = new GroupCommitCoordinator(new OrderDAO(), 0, 64);
+        coordinator.close();
+
+        assertEquals(-1, coordinator.submit(newOrder(null)).join());
+        assertFalse(coordinator.insert(newOrder(null)));
+    }
+
+    // ========== HELPER METHODS ==========
+
+    /**
+     * Bọc DAO, thay method tên methodName bằng override (override trả DELEGATE thì gọi DAO gốc)
+     */
+    private static IOrderDAO intercept(IOrderDAO target, String methodName, Function<Object[], Object> override) {
+        return (IOrderDAO) Proxy.newProxyInstance(IOrderDAO.class.getClassLoader(), new Class<?>[]{IOrderDAO.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals(methodName)) {
+                        Object result = override.apply(args);
+                        if (result != DELEGATE) {
+                            return result;
+                        }
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static Order newOrder(String note) {
+        return TestDatabase.order().note(note).item(1, "Cà Phê Đen", 1, 25000).build();
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import com.example.ql_shopcoffee.dao.impl.CategoryDAO;
+import com.example.ql_shopcoffee.dao.impl.ProductDAO;
+import com.example.ql_shopcoffee.dao.interfaces.IProductDAO;
+import com.example.ql_shopcoffee.models.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCatalogCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private ProductDAO productDAO;
+    private final List<ProductCatalogCache> caches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        TestDatabase.open(dir);
+        productDAO = new ProductDAO();
+    }
+
+    @AfterEach
+    void tearDown() {
+        caches.forEach(ProductCatalogCache::close);
+        TestDatabase.close();
+    }
+
+    @Test
+    void unchangedReloadKeepsSnapshotAndVersion() {
+        ProductCatalogCache cache = newCache(productDAO);
+        CatalogSnapshot first = cache.snapshot();
+        assertEquals(1, first.getVersion());
+        assertEquals(13, first.getActiveProducts().size());
+
+        assertSame(first, cache.awaitRefresh());
+        assertEquals(1, cache.getVersion());
+        assertEquals(1, cache.getUnchangedLoads());
+    }
+
+    @Test
+    void changeSwapsInNewSnapshotAndOldOneStaysIntact() {
+        ProductCatalogCache cache = newCache(productDAO);
+        CatalogSnapshot before = cache.snapshot();
+
+        Product product = productDAO.findById(1);
+        product.setName("Cà Phê Đen Đá");
+        assertTrue(productDAO.update(product));
+        CatalogSnapshot after = cache.awaitRefresh();
+
+        assertNotSame(before, after);
+        assertEquals(2, after.getVersion());
+        assertEquals("Cà Phê Đen Đá", after.getProduct(1).getName());
+        // Luồng đang giữ snapshot cũ vẫn đọc được dữ liệu nhất quán
+        assertEquals("Cà Phê Đen", before.getProduct(1).getName());
+        assertEquals(13, before.getActiveProducts().size());
+    }
+
+    @Test
+    void emptyReloadIsTreatedAsReadError() {
+        AtomicBoolean empty = new AtomicBoolean();
+        ProductCatalogCache cache = newCache(intercept(args -> empty.get() ? List.of() : null));
+        CatalogSnapshot loaded = cache.snapshot();
+
+        empty.set(true);
+        assertSame(loaded, cache.awaitRefresh());
+        assertEquals(13, cache.countActive());
+    }
+
+    @Test
+    void refreshRequestsWaitingBehindARebuildAreCoalesced() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean block = new AtomicBoolean();
+        ProductCatalogCache cache = newCache(intercept(args -> {
+            if (block.compareAndSet(true, false)) {
+                entered.countDown();
+                release.await();
+            }
+            return null;
+        }));
+        cache.snapshot();
+        long loads = cache.getLoads();
+
+        block.set(true);
+        CompletableFuture<CatalogSnapshot> running = cache.refresh();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+        CompletableFuture<CatalogSnapshot> a = cache.refresh();
+        CompletableFuture<CatalogSnapshot> b = cache.refresh();
+        CompletableFuture<CatalogSnapshot> c = cache.refresh();
+        release.countDown();
+
+        assertSame(a, b);
+        assertSame(b, c);
+        running.get(5, TimeUnit.SECONDS);
+        c.get(5, TimeUnit.SECONDS);
+        assertEquals(loads + 2, cache.getLoads());
+    }
+
+    @Test
+    void hitsAndMissesAreCounted() throws Exception {
+        ProductCatalogCache cache = newCache(productDAO);
+        cache.getAll();
+        cache.getByCategory(1);
+        assertEquals("Cà Phê Đen", cache.getById(1).getName());
+        assertNull(cache.getById(999));
+
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.75, cache.getHitRate(), 1e-9);
+
+        // Product thêm thẳng vào database (máy khác): miss rồi refresh nền
+        TestDatabase.execute("INSERT INTO products (id, name, category_id, price, status) VALUES (50, 'Trà Vải', 2, 35000, 1)");
+        assertEquals("Trà Vải", cache.getById(50).getName());
+        assertEquals(2, cache.getMisses());
+        assertEquals("Trà Vải", cache.awaitRefresh().getProduct(50).getName());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private ProductCatalogCache newCache(IProductDAO dao) {
+        ProductCatalogCache cache = new ProductCatalogCache(dao, new CategoryDAO(), 0);
+        caches.add(cache);
+        return cache;
+    }
+
+    /**
+     * ProductDAO thật, riêng findAllIncludingInactive chạy interceptor trước (trả null thì đọc database)
+     */
+    private static IProductDAO intercept(Interceptor interceptor) {
+        ProductDAO real = new ProductDAO();
+        return (IProductDAO) Proxy.newProxyInstance(IProductDAO.class.getClassLoader(), new Class<?>[]{IProductDAO.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAllIncludingInactive")) {
+                        Object result = interceptor.apply(args);
+                        if (result != null) {
+                            return result;
+                        }
+                    }
+                    try {
+                        return method.invoke(real, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private interface Interceptor {
+        Object apply(Object[] args) throws Exception;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.ql_shopcoffee.services;
+
+import com.example.ql_shopcoffee.models.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex(products(
+            product(1, "Cà Phê Đen"),
+            product(2, "Cà Phê Sữa"),
+            product(3, "Bạc Xỉu"),
+            product(4, "Cappuccino"),
+            product(5, "Trà Đào"),
+            product(6, "Trà Đào Cam Sả"),
+            product(11, "Bánh Flan")), null);
+
+    @Test
+    void unaccentedKeywordMatchesAccentedNames() {
+        assertEquals(Set.of("Cà Phê Đen", "Cà Phê Sữa"), Set.copyOf(names("ca phe")));
+        assertEquals(List.of("Cà Phê Đen"), names("DEN"));
+        assertEquals(List.of("Bạc Xỉu"), names("bac x"));
+    }
+
+    @Test
+    void exactNameRanksFirst() {
+        assertEquals(List.of("Trà Đào", "Trà Đào Cam Sả"), names("tra dao"));
+        assertEquals(List.of("Trà Đào Cam Sả"), names("dao cam"));
+    }
+
+    @Test
+    void accentedKeywordPrefersAccentedMatch() {
+        // Cùng hạng tiền tố tên: gõ có dấu thì "Cà Phê" trước, không dấu thì "Cappuccino" trước
+        List<String> accented = names("cà");
+        assertEquals(Set.of("Cà Phê Đen", "Cà Phê Sữa"), Set.copyOf(accented.subList(0, 2)));
+        // Tiền tố của một từ giữa tên xếp sau tiền tố của cả tên
+        assertEquals(List.of("Cappuccino", "Trà Đào Cam Sả"), accented.subList(2, 4));
+        assertEquals("Cappuccino", names("ca").get(0));
+    }
+
+    @Test
+    void substringIsLastResort() {
+        assertEquals(List.of("Cappuccino"), names("uccin"));
+        assertTrue(names("xyz").isEmpty());
+        assertTrue(names("  ").isEmpty());
+    }
+
+    @Test
+    void limitCutsRankedList() {
+        assertEquals(List.of("Trà Đào"), index.search("tra", 1).stream().map(Product::getName).toList());
+    }
+
+    @Test
+    void rebuiltIndexSeesRenamedProducts() {
+        ProductSearchIndex rebuilt = new ProductSearchIndex(products(
+                product(1, "Cà Phê Muối"),
+                product(2, "Cà Phê Sữa")), index);
+
+        assertEquals(List.of("Cà Phê Muối"), rebuilt.search("muoi", 10).stream().map(Product::getName).toList());
+        assertTrue(rebuilt.search("den", 10).isEmpty());
+        assertEquals(2, rebuilt.size());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private List<String> names(String keyword) {
+        return index.search(keyword, 10).stream().map(Product::getName).toList();
+    }
+
+    private static Product product(int id, String name) {
+        return new Product(id, name, 1, 25000, null, true, null, null);
+    }
+
+    private static List<Product> products(Product... products) {
+        List<Product> sorted = new ArrayList<>(List.of(products));
+        sorted.sort(Comparator.comparing(Product::getName));
+        return sorted;
+    }
+}
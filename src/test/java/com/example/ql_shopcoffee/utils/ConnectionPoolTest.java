@@ -0,0 +1,143 @@
+package com.example.ql_shopcoffee.utils;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DatabaseConfig config = TestDatabase.config(dir);
+        config.setReadPoolSize(2);
+        config.setBorrowTimeoutMillis(100);
+        pool = new ConnectionPool(config);
+        try (Connection conn = pool.borrowWrite();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE items (id INTEGER PRIMARY KEY, name TEXT)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void readConnectionReturnsToPoolOnClose() throws SQLException {
+        Connection first = pool.borrowRead();
+        assertEquals(1, pool.getAvailableReadPermits());
+
+        first.close();
+        assertTrue(first.isClosed());
+        assertEquals(2, pool.getAvailableReadPermits());
+        assertEquals(1, pool.getIdleReadCount());
+
+        // Lần mượn sau dùng lại connection rảnh thay vì mở mới
+        try (Connection second = pool.borrowRead()) {
+            assertEquals(0, pool.getIdleReadCount());
+            assertFalse(second.isClosed());
+        }
+    }
+
+    @Test
+    void doubleCloseReleasesOnlyOnce() throws SQLException {
+        Connection conn = pool.borrowRead();
+        conn.close();
+        conn.close();
+        assertEquals(2, pool.getAvailableReadPermits());
+    }
+
+    @Test
+    void borrowReadTimesOutWhenPoolIsExhausted() throws SQLException {
+        try (Connection a = pool.borrowRead(); Connection b = pool.borrowRead()) {
+            assertThrows(SQLException.class, pool::borrowRead);
+        }
+        try (Connection c = pool.borrowRead()) {
+            assertFalse(c.isClosed());
+        }
+    }
+
+    @Test
+    void writeConnectionIsExclusive() throws SQLException {
+        try (Connection writer = pool.borrowWrite()) {
+            assertTrue(pool.isWriterBusy());
+            assertThrows(SQLException.class, () -> pool.borrowWrite(0));
+        }
+        assertFalse(pool.isWriterBusy());
+        try (Connection writer = pool.borrowWrite(0)) {
+            assertFalse(writer.isClosed());
+        }
+    }
+
+    @Test
+    void readConnectionRejectsWrites() throws SQLException {
+        try (Connection reader = pool.borrowRead();
+             Statement stmt = reader.createStatement()) {
+            assertThrows(SQLException.class, () -> stmt.executeUpdate("INSERT INTO items (name) VALUES ('x')"));
+        }
+    }
+
+    @Test
+    void openTransactionIsRolledBackOnRelease() throws SQLException {
+        try (Connection writer = pool.borrowWrite();
+             Statement stmt = writer.createStatement()) {
+            writer.setAutoCommit(false);
+            stmt.executeUpdate("INSERT INTO items (name) VALUES ('chưa commit')");
+            // Quên commit / rollback
+        }
+
+        try (Connection writer = pool.borrowWrite()) {
+            assertTrue(writer.getAutoCommit());
+        }
+        try (Connection reader = pool.borrowRead();
+             Statement stmt = reader.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM items")) {
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    @Test
+    void committedWriteIsVisibleToReaders() throws SQLException {
+        try (Connection writer = pool.borrowWrite();
+             Statement stmt = writer.createStatement()) {
+            writer.setAutoCommit(false);
+            stmt.executeUpdate("INSERT INTO items (name) VALUES ('cà phê')");
+            writer.commit();
+            writer.setAutoCommit(true);
+        }
+        try (Connection reader = pool.borrowRead();
+             Statement stmt = reader.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT name FROM items")) {
+            assertTrue(rs.next());
+            assertEquals("cà phê", rs.getString(1));
+        }
+    }
+
+    @Test
+    void closedPoolRejectsBorrow() {
+        pool.close();
+        assertTrue(pool.isClosed());
+        assertThrows(SQLException.class, pool::borrowRead);
+        assertThrows(SQLException.class, pool::borrowWrite);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ql_shopcoffee.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EpochTimeTest {
+
+    @Test
+    void matchesJavaTimeForMillisAcrossEras() {
+        // Trước 1970 (millis âm), quanh 0, trước/sau lần đổi múi giờ cuối, hiện tại
+        long[] samples = {-5_000_000_000_000L, -86_400_001L, -1L, 0L, 1L, 999L, 1_000L,
+                170_000_000_000L, 1_709_280_000_123L, System.currentTimeMillis()};
+        ZoneId zone = ZoneId.systemDefault();
+        for (long millis : samples) {
+            LocalDateTime expected = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+            assertEquals(expected, EpochTime.fromEpochMillis(millis), "fromEpochMillis(" + millis + ")");
+            assertEquals(millis, EpochTime.toEpochMillis(expected), "toEpochMillis(" + expected + ")");
+        }
+    }
+
+    @Test
+    void negativeMillisKeepSubSecondPart() {
+        LocalDateTime justBefore = EpochTime.fromEpochMillis(-1);
+        assertEquals(999_000_000, justBefore.getNano());
+        assertEquals(EpochTime.fromEpochMillis(0).minusNanos(1_000_000), justBefore);
+    }
+
+    @Test
+    void dateIsStartOfLocalDay() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        assertEquals(EpochTime.toEpochMillis(day.atStartOfDay()), EpochTime.toEpochMillis(day));
+        assertEquals(86_400_000L, EpochTime.toEpochMillis(day.plusDays(1)) - EpochTime.toEpochMillis(day));
+    }
+
+    @Test
+    void legacyTextParsesAndFormatsBack() {
+        long millis = EpochTime.toEpochMillis(LocalDateTime.of(2024, 3, 1, 8, 0, 5, 250_000_000));
+        assertEquals(millis, EpochTime.parseLegacy("2024-03-01 08:00:05.250"));
+        assertEquals(millis, EpochTime.parseLegacy(" 2024-03-01T08:00:05.250 "));
+        assertEquals(EpochTime.toEpochMillis(LocalDate.of(2024, 3, 1)), EpochTime.parseLegacy("2024-03-01"));
+        assertEquals("2024-03-01 08:00:05", EpochTime.format(millis));
+    }
+}
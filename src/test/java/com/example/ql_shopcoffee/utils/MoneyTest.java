@@ -0,0 +1,45 @@
+package com.example.ql_shopcoffee.utils;
+
+import com.example.ql_shopcoffee.models.Order;
+import com.example.ql_shopcoffee.models.OrderDetail;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MoneyTest {
+
+    @Test
+    void formatsWithThousandsSeparators() {
+        assertEquals("0 đ", Money.format(0));
+        assertEquals("999 đ", Money.format(999));
+        assertEquals("1,000 đ", Money.format(1000));
+        assertEquals("1,234,000 đ", Money.format(1_234_000));
+        assertEquals("-25,000 đ", Money.format(-25_000));
+        assertEquals("9,223,372,036,854,775,807 đ", Money.format(Long.MAX_VALUE));
+    }
+
+    @Test
+    void parsesUserInput() {
+        assertEquals(25000, Money.parse("25000"));
+        assertEquals(25000, Money.parse("25,000"));
+        assertEquals(25000, Money.parse(" 25.000 đ "));
+        assertEquals(-1, Money.parse(""));
+        assertEquals(-1, Money.parse("đ"));
+        assertEquals(-1, Money.parse("25k"));
+        assertEquals(-1, Money.parse("-25000"));
+        assertEquals(-1, Money.parse(null));
+        assertEquals(-1, Money.parse("99999999999999999999"));
+    }
+
+    @Test
+    void totalsAreExactWhereDoublesDrift() {
+        // 0.1 * 3 bằng double ra 0.30000000000000004, long cộng đúng từng đồng
+        Order order = new Order(2);
+        for (int i = 0; i < 1000; i++) {
+            order.addItem(new OrderDetail(i + 1, "Món " + i, 3, 1));
+        }
+        order.addItem(new OrderDetail(2000, "Cà Phê Đen", 7, 25_000));
+        assertEquals(3000 + 175_000, order.getTotalAmount());
+        assertEquals("178,000 đ", Money.format(order.getTotalAmount()));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ql_shopcoffee.utils;
+
+import com.example.ql_shopcoffee.models.OrderExportRow;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderExportWriterTest {
+
+    @Test
+    void csvQuotesOnlyWhenNeeded() throws IOException {
+        StringWriter out = new StringWriter();
+        OrderExportWriter writer = new OrderExportWriter(out, OrderExportWriter.Format.CSV);
+        writer.accept(row("Ít đường, nhiều đá", "Trà \"Đào\""));
+        writer.accept(row(null, "Cà Phê Đen"));
+        writer.flush();
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("order_id,order_date,employee_id,status,note,total_amount,detail_id,product_id,product_name,quantity,price", lines[0]);
+        assertEquals("7,2024-03-01 08:00:00,2,COMPLETED,\"Ít đường, nhiều đá\",85000,11,1,\"Trà \"\"Đào\"\"\",2,25000", lines[1]);
+        assertEquals("7,2024-03-01 08:00:00,2,COMPLETED,,85000,11,1,Cà Phê Đen,2,25000", lines[2]);
+    }
+
+    @Test
+    void jsonLinesEscapeText() throws IOException {
+        StringWriter out = new StringWriter();
+        OrderExportWriter writer = new OrderExportWriter(out, OrderExportWriter.Format.JSON_LINES);
+        writer.accept(row("dòng 1\ndòng \"2\"", "Bạc Xỉu"));
+        writer.accept(row(null, "Bạc Xỉu"));
+        writer.flush();
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("{\"order_id\":7,\"order_date\":\"2024-03-01 08:00:00\",\"employee_id\":2,\"status\":\"COMPLETED\","
+                + "\"note\":\"dòng 1\\ndòng \\\"2\\\"\",\"total_amount\":85000,\"detail_id\":11,\"product_id\":1,"
+                + "\"product_name\":\"Bạc Xỉu\",\"quantity\":2,\"price\":25000}", lines[0]);
+        assertTrue(lines[1].contains("\"note\":null"));
+    }
+
+    @Test
+    void progressIsReportedEveryIntervalAndOnFlush() throws IOException {
+        List<Long> progress = new ArrayList<>();
+        OrderExportWriter writer = new OrderExportWriter(new StringWriter(), OrderExportWriter.Format.CSV, progress::add, 2);
+        for (int i = 0; i < 5; i++) {
+            writer.accept(row(null, "Cà Phê Đen"));
+        }
+        writer.flush();
+
+        assertEquals(List.of(2L, 4L, 5L), progress);
+        assertEquals(5, writer.getRowCount());
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private static OrderExportRow row(String note, String productName) {
+        OrderExportRow row = new OrderExportRow();
+        row.set(7, EpochTime.toEpochMillis(LocalDateTime.of(2024, 3, 1, 8, 0)), 2, "COMPLETED", note, 85000, 11, 1, productName, 2, 25000);
+        return row;
+    }
+}
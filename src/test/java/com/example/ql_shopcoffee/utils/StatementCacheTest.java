@@ -0,0 +1,135 @@
+package com.example.ql_shopcoffee.utils;
+
+import com.example.ql_shopcoffee.TestDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementCacheTest {
+
+    private static final String A = "SELECT 1";
+    private static final String B = "SELECT 2";
+    private static final String C = "SELECT 3";
+
+    @TempDir
+    Path dir;
+
+    private ConnectionPool pool;
+    private StatementCache.Stats stats;
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DatabaseConfig config = TestDatabase.config(dir);
+        config.setStatementCacheSize(2);
+        pool = new ConnectionPool(config);
+        stats = pool.getStatementCacheStats();
+        conn = pool.borrowWrite();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+        pool.close();
+    }
+
+    @Test
+    void reusesStatementAfterClose() throws SQLException {
+        run(A);
+        run(A);
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getHits());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws SQLException {
+        run(A);
+        run(B);
+        run(A); // A mới dùng gần nhất, B là cũ nhất
+        run(C);
+        assertEquals(1, stats.getEvictions());
+
+        long hits = stats.getHits();
+        long misses = stats.getMisses();
+        run(A);
+        assertEquals(hits + 1, stats.getHits());
+        run(B);
+        assertEquals(misses + 1, stats.getMisses());
+    }
+
+    @Test
+    void evictedStatementStaysUsableUntilClosed() throws SQLException {
+        PreparedStatement held = conn.prepareStatement(A);
+        run(B);
+        run(C);
+        assertEquals(1, stats.getEvictions());
+
+        try (ResultSet rs = held.executeQuery()) {
+            assertTrue(rs.next());
+            assertEquals(1, rs.getInt(1));
+        }
+        held.close();
+
+        long misses = stats.getMisses();
+        run(A);
+        assertEquals(misses + 1, stats.getMisses());
+    }
+
+    @Test
+    void nestedUseOfSameSqlGetsSeparateStatement() throws SQLException {
+        try (PreparedStatement outer = conn.prepareStatement(A);
+             PreparedStatement inner = conn.prepareStatement(A)) {
+            assertNotSame(outer, inner);
+            try (ResultSet a = outer.executeQuery(); ResultSet b = inner.executeQuery()) {
+                assertTrue(a.next());
+                assertTrue(b.next());
+            }
+        }
+        assertEquals(2, stats.getMisses());
+    }
+
+    @Test
+    void parametersAreClearedOnReturn() throws SQLException {
+        String sql = "SELECT ?";
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, "cà phê");
+            ps.executeQuery().close();
+        }
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            assertTrue(rs.next());
+            assertNull(rs.getString(1));
+        }
+        assertEquals(1, stats.getHits());
+    }
+
+    @Test
+    void closedHandleRejectsUse() throws SQLException {
+        PreparedStatement ps = conn.prepareStatement(A);
+        ps.close();
+        assertTrue(ps.isClosed());
+        assertThrows(SQLException.class, ps::executeQuery);
+    }
+
+    // ========== HELPER METHODS ==========
+
+    private void run(String sql) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            assertTrue(rs.next());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ql_shopcoffee.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TextNormalizerTest {
+
+    @Test
+    void foldRemovesAccentsAndPunctuation() {
+        assertEquals("ca phe sua da", TextNormalizer.fold("Cà Phê Sữa (Đá)"));
+        assertEquals("tra dao", TextNormalizer.fold("  Trà   Đào!! "));
+        assertEquals("bac xiu", TextNormalizer.fold("BẠC XỈU"));
+        assertEquals("sinh to bo 2", TextNormalizer.fold("Sinh-tố bơ #2"));
+    }
+
+    @Test
+    void composedAndDecomposedInputFoldTheSame() {
+        String composed = Normalizer.normalize("Ốc quế đường", Normalizer.Form.NFC);
+        String decomposed = Normalizer.normalize("Ốc quế đường", Normalizer.Form.NFD);
+        assertEquals("oc que duong", TextNormalizer.fold(composed));
+        assertEquals(TextNormalizer.fold(composed), TextNormalizer.fold(decomposed));
+    }
+
+    @Test
+    void emptyInputHasNoTokens() {
+        assertEquals("", TextNormalizer.fold(null));
+        assertEquals("", TextNormalizer.fold(" ?! "));
+        assertArrayEquals(new String[0], TextNormalizer.tokens(TextNormalizer.fold("...")));
+        assertArrayEquals(new String[]{"ca", "phe"}, TextNormalizer.tokens(TextNormalizer.fold("Cà, phê")));
+    }
+}